@@ -0,0 +1,74 @@
+package maxflow.bench;
+
+import maxflow.BatchMaxFlow;
+import maxflow.GraphFamilies;
+import maxflow.GraphInstance;
+import maxflow.MaxFlowEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Queries per second of a batch of random (s, t) pairs, by worker count
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+    private static final int QUERIES = 256;
+
+    @Param({"sparse", "grid"})
+    public String family;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param("42")
+    public long seed;
+
+    private GraphInstance graph;
+    private ForkJoinPool pool;
+    private BatchMaxFlow batch;
+    private final int[] sources = new int[QUERIES];
+    private final int[] sinks = new int[QUERIES];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = GraphFamilies.create(family, seed);
+        pool = new ForkJoinPool(parallelism);
+        batch = new BatchMaxFlow(MaxFlowEngine.DINIC.solver(), pool);
+        SplittableRandom random = new SplittableRandom(seed);
+        int n = graph.network.vertexCount();
+        for (int i = 0; i < QUERIES; i++) {
+            sources[i] = random.nextInt(n);
+            sinks[i] = random.nextInt(n);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int[] solve() {
+        return batch.solve(graph.network, sources, sinks);
+    }
+}
@@ -0,0 +1,100 @@
+package maxflow.bench;
+
+import maxflow.EdmondsKarpSolver;
+import maxflow.FlowCache;
+import maxflow.FlowNetwork;
+import maxflow.FlowWorkspace;
+import maxflow.GraphFamilies;
+import maxflow.GraphInstance;
+import maxflow.IncrementalMaxFlow;
+import maxflow.MaxFlowResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Re-solving a version of the network with a few capacities changed: from scratch, warm-started
+// from the previous version's flow, and an exact FlowCache hit
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowCacheBenchmark {
+    private static final int VERSIONS = 16;
+
+    @Param({"sparse", "grid"})
+    public String family;
+
+    @Param({"1", "8"})
+    public int changes;
+
+    @Param("42")
+    public long seed;
+
+    private GraphInstance graph;
+    private int[] baseFlow;
+    private final FlowNetwork[] versions = new FlowNetwork[VERSIONS];
+    private int next;
+    private FlowCache cache;
+    private final EdmondsKarpSolver solver = new EdmondsKarpSolver();
+    private final FlowWorkspace workspace = new FlowWorkspace();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = GraphFamilies.create(family, seed);
+        baseFlow = solver.solve(graph.network, graph.source, graph.sink).edgeFlow();
+        SplittableRandom random = new SplittableRandom(seed);
+        FlowNetwork network = graph.network;
+        for (int i = 0; i < VERSIONS; i++) {
+            int[] capacities = new int[network.edgeCount()];
+            for (int e = 0; e < capacities.length; e++) {
+                capacities[e] = network.edgeCapacity(e);
+            }
+            // Scale each changed edge to between half and one and a half times its capacity
+            for (int c = 0; c < changes; c++) {
+                int e = random.nextInt(capacities.length);
+                capacities[e] = capacities[e] / 2 + random.nextInt(capacities[e] + 1);
+            }
+            FlowNetwork.Builder builder = new FlowNetwork.Builder(network.vertexCount(), capacities.length);
+            for (int e = 0; e < capacities.length; e++) {
+                builder.addEdge(network.edgeFrom(e), network.edgeTo(e), capacities[e]);
+            }
+            versions[i] = builder.build();
+        }
+        cache = new FlowCache(solver, 1);
+        cache.solve(graph.network, graph.source, graph.sink);
+    }
+
+    private FlowNetwork nextVersion() {
+        next = (next + 1) % VERSIONS;
+        return versions[next];
+    }
+
+    @Benchmark
+    public int fresh() {
+        return solver.maxFlow(nextVersion(), graph.source, graph.sink, null, workspace);
+    }
+
+    @Benchmark
+    public int warmStart() {
+        return IncrementalMaxFlow.warmStart(nextVersion(), graph.source, graph.sink, baseFlow).maxFlow();
+    }
+
+    @Benchmark
+    public MaxFlowResult cacheHit() {
+        return cache.solve(graph.network, graph.source, graph.sink);
+    }
+}
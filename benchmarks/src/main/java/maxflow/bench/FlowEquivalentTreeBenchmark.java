@@ -0,0 +1,96 @@
+package maxflow.bench;
+
+import maxflow.FlowMetrics;
+import maxflow.FlowNetwork;
+import maxflow.FlowEquivalentTree;
+import maxflow.GraphFamilies;
+import maxflow.MaxFlowEngine;
+import maxflow.MaxFlowSolver;
+import maxflow.MeteredSolver;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Flow-equivalent tree of a graph family made symmetric, by speculative window size. solves over trees
+// is the max-flow calls per tree: V - 1 plus the speculative cuts thrown away because a parent
+// changed while they ran.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class FlowEquivalentTreeBenchmark {
+
+    @Param({"sparse", "grid"})
+    public String family;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param("42")
+    public long seed;
+
+    private FlowNetwork network;
+    private ForkJoinPool pool; // null for the sequential build
+    private final FlowMetrics metrics = new FlowMetrics(); // counts the max-flow calls
+    private MaxFlowSolver solver;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class TreeCounters {
+        public long trees;
+        public long solves;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            trees = 0;
+            solves = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        network = symmetric(GraphFamilies.create(family, seed).network);
+        pool = parallelism == 1 ? null : new ForkJoinPool(parallelism);
+        solver = new MeteredSolver(MaxFlowEngine.DINIC.solver(), metrics);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    // Every edge in both directions with the same capacity, as FlowEquivalentTree requires
+    private static FlowNetwork symmetric(FlowNetwork directed) {
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(directed.vertexCount(), 2 * directed.edgeCount());
+        for (int e = 0; e < directed.edgeCount(); e++) {
+            builder.addEdge(directed.edgeFrom(e), directed.edgeTo(e), directed.edgeCapacity(e));
+            builder.addEdge(directed.edgeTo(e), directed.edgeFrom(e), directed.edgeCapacity(e));
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public FlowEquivalentTree build(TreeCounters counters) {
+        long before = metrics.getSolves();
+        FlowEquivalentTree tree = FlowEquivalentTree.build(network, solver, pool);
+        counters.trees++;
+        counters.solves += metrics.getSolves() - before;
+        return tree;
+    }
+}
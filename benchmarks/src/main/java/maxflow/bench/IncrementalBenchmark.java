@@ -0,0 +1,81 @@
+package maxflow.bench;
+
+import maxflow.EdmondsKarpSolver;
+import maxflow.FlowNetwork;
+import maxflow.FlowWorkspace;
+import maxflow.GraphFamilies;
+import maxflow.GraphInstance;
+import maxflow.IncrementalMaxFlow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// A stream of single-edge capacity edits: incremental repair against a fresh solve per edit
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalBenchmark {
+
+    @Param({"sparse", "grid"})
+    public String family;
+
+    @Param("42")
+    public long seed;
+
+    private GraphInstance graph;
+    private IncrementalMaxFlow incremental;
+    private int[] capacities;
+    private SplittableRandom random;
+    private final EdmondsKarpSolver solver = new EdmondsKarpSolver();
+    private final FlowWorkspace workspace = new FlowWorkspace();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = GraphFamilies.create(family, seed);
+        incremental = new IncrementalMaxFlow(graph.network, graph.source, graph.sink);
+        capacities = new int[graph.network.edgeCount()];
+        for (int e = 0; e < capacities.length; e++) {
+            capacities[e] = graph.network.edgeCapacity(e);
+        }
+        random = new SplittableRandom(seed);
+    }
+
+    // Scale one edge's capacity to between half and one and a half times its original value
+    private int nextEdit() {
+        int e = random.nextInt(capacities.length);
+        int original = graph.network.edgeCapacity(e);
+        capacities[e] = original / 2 + random.nextInt(original + 1);
+        return e;
+    }
+
+    @Benchmark
+    public int incremental() {
+        int e = nextEdit();
+        return incremental.setCapacity(e, capacities[e]);
+    }
+
+    @Benchmark
+    public int fresh() {
+        nextEdit();
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(graph.network.vertexCount(), capacities.length);
+        for (int e = 0; e < capacities.length; e++) {
+            builder.addEdge(graph.network.edgeFrom(e), graph.network.edgeTo(e), capacities[e]);
+        }
+        return solver.maxFlow(builder.build(), graph.source, graph.sink, null, workspace);
+    }
+}
@@ -0,0 +1,64 @@
+package maxflow.bench;
+
+import maxflow.EdmondsKarpSolver;
+import maxflow.FlowWorkspace;
+import maxflow.GraphFamilies;
+import maxflow.GraphInstance;
+import maxflow.LongEdmondsKarpSolver;
+import maxflow.LongFlowNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of the long-capacity Edmonds-Karp against the int one on the same graphs
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LongCapacityBenchmark {
+
+    @Param({"sparse", "dense", "grid", "bipartite", "ak"})
+    public String family;
+
+    @Param("42")
+    public long seed;
+
+    private GraphInstance graph;
+    private LongFlowNetwork longNetwork;
+    private final EdmondsKarpSolver intSolver = new EdmondsKarpSolver();
+    private final LongEdmondsKarpSolver longSolver = new LongEdmondsKarpSolver();
+
+    @State(Scope.Thread)
+    public static class Scratch {
+        final FlowWorkspace workspace = new FlowWorkspace();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = GraphFamilies.create(family, seed);
+        longNetwork = LongFlowNetwork.of(graph.network);
+    }
+
+    @Benchmark
+    public int intCapacities(Scratch scratch) {
+        return intSolver.maxFlow(graph.network, graph.source, graph.sink, null, scratch.workspace);
+    }
+
+    @Benchmark
+    public long longCapacities(Scratch scratch) {
+        return longSolver.maxFlow(longNetwork, graph.source, graph.sink, null, scratch.workspace);
+    }
+}
@@ -0,0 +1,56 @@
+package maxflow.bench;
+
+import maxflow.EdmondsKarpSolver;
+import maxflow.GraphFamilies;
+import maxflow.GraphInstance;
+import maxflow.HopcroftKarpSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Baseline: the int[][] edmondsKarp entry point, which converts the matrix on every call
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBaselineBenchmark {
+
+    @Param({"sparse", "dense", "grid", "bipartite", "ak"})
+    public String family;
+
+    @Param("42")
+    public long seed;
+
+    private GraphInstance graph;
+    private final EdmondsKarpSolver solver = new EdmondsKarpSolver();
+    private final HopcroftKarpSolver matching = new HopcroftKarpSolver(solver);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = GraphFamilies.create(family, seed);
+    }
+
+    @Benchmark
+    public int edmondsKarp() {
+        return solver.maxFlow(graph.matrix, graph.source, graph.sink);
+    }
+
+    // The same entry point with the bipartite check in front, as EdmondsKarpGUI2.edmondsKarp does
+    @Benchmark
+    public int hopcroftKarp() {
+        return matching.maxFlow(graph.matrix, graph.source, graph.sink);
+    }
+}
@@ -0,0 +1,66 @@
+package maxflow.bench;
+
+import maxflow.FlowWorkspace;
+import maxflow.GraphFamilies;
+import maxflow.GraphInstance;
+import maxflow.MaxFlowEngine;
+import maxflow.MaxFlowSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Every engine on every graph family, solving on a prebuilt CSR network with a reused workspace.
+// Run with -prof gc to add the allocation rate.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaxFlowBenchmark {
+
+    @Param({"sparse", "dense", "grid", "bipartite", "ak"})
+    public String family;
+
+    @Param({"EDMONDS_KARP", "EDMONDS_KARP_BIDIRECTIONAL", "EDMONDS_KARP_PARALLEL", "EDMONDS_KARP_SCALING",
+            "DINIC", "PUSH_RELABEL", "HOPCROFT_KARP"})
+    public MaxFlowEngine engine;
+
+    @Param("42")
+    public long seed;
+
+    private GraphInstance graph;
+    private MaxFlowSolver solver;
+
+    @State(Scope.Thread)
+    public static class Scratch {
+        final FlowWorkspace workspace = new FlowWorkspace();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = GraphFamilies.create(family, seed);
+        solver = engine.solver();
+    }
+
+    @Benchmark
+    public int solve(Scratch scratch, SolveCounters counters) {
+        int flow = solver.maxFlow(graph.network, graph.source, graph.sink, null, scratch.workspace);
+        counters.augmentations += scratch.workspace.augmentations();
+        counters.solves++;
+        counters.vertexVisits += scratch.workspace.vertexVisits();
+        counters.arcVisits += scratch.workspace.arcVisits();
+        return flow;
+    }
+}
@@ -0,0 +1,104 @@
+package maxflow.bench;
+
+import maxflow.CostScalingSolver;
+import maxflow.FlowNetwork;
+import maxflow.FlowWorkspace;
+import maxflow.GraphFamilies;
+import maxflow.GraphInstance;
+import maxflow.MaxFlowEngine;
+import maxflow.MaxFlowSolver;
+import maxflow.MinCostFlowSolver;
+import maxflow.SuccessiveShortestPathSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// The two min-cost engines against plain maximum flow on the same networks, with edge costs drawn
+// uniformly from 0 to maxCost. The max-flow baselines show what ordering the flow by cost adds.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinCostFlowBenchmark {
+
+    @Param({"sparse", "grid", "bipartite"})
+    public String family;
+
+    @Param("100")
+    public int maxCost;
+
+    @Param("42")
+    public long seed;
+
+    private FlowNetwork network;
+    private int source;
+    private int sink;
+    private int[] edgeCost;
+    private final MaxFlowSolver edmondsKarp = MaxFlowEngine.EDMONDS_KARP.solver();
+    private final MaxFlowSolver dinic = MaxFlowEngine.DINIC.solver();
+    private final MinCostFlowSolver successiveShortestPaths = new SuccessiveShortestPathSolver();
+    private final MinCostFlowSolver costScaling = new CostScalingSolver();
+
+    @State(Scope.Thread)
+    public static class Scratch {
+        final FlowWorkspace workspace = new FlowWorkspace();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GraphInstance graph = GraphFamilies.create(family, seed);
+        network = graph.network;
+        source = graph.source;
+        sink = graph.sink;
+        SplittableRandom random = new SplittableRandom(seed);
+        edgeCost = new int[network.edgeCount()];
+        for (int e = 0; e < edgeCost.length; e++) {
+            edgeCost[e] = random.nextInt(maxCost + 1);
+        }
+    }
+
+    @Benchmark
+    public int edmondsKarp(Scratch scratch, SolveCounters counters) {
+        return count(edmondsKarp.maxFlow(network, source, sink, null, scratch.workspace), scratch, counters);
+    }
+
+    @Benchmark
+    public int dinic(Scratch scratch, SolveCounters counters) {
+        return count(dinic.maxFlow(network, source, sink, null, scratch.workspace), scratch, counters);
+    }
+
+    @Benchmark
+    public long successiveShortestPaths(Scratch scratch, SolveCounters counters) {
+        count(successiveShortestPaths.minCostFlow(network, source, sink, edgeCost, null, scratch.workspace),
+                scratch, counters);
+        return scratch.workspace.flowCost();
+    }
+
+    @Benchmark
+    public long costScaling(Scratch scratch, SolveCounters counters) {
+        count(costScaling.minCostFlow(network, source, sink, edgeCost, null, scratch.workspace), scratch, counters);
+        return scratch.workspace.flowCost();
+    }
+
+    private static int count(int flow, Scratch scratch, SolveCounters counters) {
+        counters.augmentations += scratch.workspace.augmentations();
+        counters.vertexVisits += scratch.workspace.vertexVisits();
+        counters.arcVisits += scratch.workspace.arcVisits();
+        counters.solves++;
+        return flow;
+    }
+}
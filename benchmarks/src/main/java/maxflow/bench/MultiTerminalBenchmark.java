@@ -0,0 +1,108 @@
+package maxflow.bench;
+
+import maxflow.EdmondsKarpSolver;
+import maxflow.FlowNetwork;
+import maxflow.FlowWorkspace;
+import maxflow.GraphFamilies;
+import maxflow.MultiTerminalSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Source and sink sets with vertex capacities: MultiTerminalSolver on the network as it is,
+// against Edmonds-Karp on the hand-built expansion with a super-source, a super-sink and every
+// vertex split in two
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiTerminalBenchmark {
+
+    @Param({"sparse", "grid"})
+    public String family;
+
+    @Param({"8"})
+    public int terminals;
+
+    @Param("42")
+    public long seed;
+
+    private FlowNetwork network;
+    private int[] sources;
+    private int[] sinks;
+    private int[] vertexCapacity;
+    private FlowNetwork expanded;
+    private final MultiTerminalSolver multiTerminal = new MultiTerminalSolver();
+    private final EdmondsKarpSolver solver = new EdmondsKarpSolver();
+
+    @State(Scope.Thread)
+    public static class Scratch {
+        final FlowWorkspace workspace = new FlowWorkspace();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        network = GraphFamilies.create(family, seed).network;
+        int n = network.vertexCount();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        // Distinct terminals from a shuffled prefix of the vertices
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        for (int i = 0; i < 2 * terminals; i++) {
+            int j = i + random.nextInt(n - i);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        sources = new int[terminals];
+        sinks = new int[terminals];
+        System.arraycopy(order, 0, sources, 0, terminals);
+        System.arraycopy(order, terminals, sinks, 0, terminals);
+
+        vertexCapacity = new int[n];
+        for (int v = 0; v < n; v++) {
+            vertexCapacity[v] = 1 + random.nextInt(1000);
+        }
+
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(2 * n + 2, network.edgeCount() + n + 2 * terminals);
+        for (int v = 0; v < n; v++) {
+            builder.addEdge(2 * v, 2 * v + 1, vertexCapacity[v]);
+        }
+        for (int e = 0; e < network.edgeCount(); e++) {
+            builder.addEdge(2 * network.edgeFrom(e) + 1, 2 * network.edgeTo(e), network.edgeCapacity(e));
+        }
+        for (int i = 0; i < terminals; i++) {
+            builder.addEdge(2 * n, 2 * sources[i], Integer.MAX_VALUE);
+            builder.addEdge(2 * sinks[i] + 1, 2 * n + 1, Integer.MAX_VALUE);
+        }
+        expanded = builder.build();
+    }
+
+    @Benchmark
+    public int implicit(Scratch scratch) {
+        return multiTerminal.maxFlow(network, sources, sinks, vertexCapacity, null, scratch.workspace);
+    }
+
+    @Benchmark
+    public int expanded(Scratch scratch) {
+        int n = network.vertexCount();
+        return solver.maxFlow(expanded, 2 * n, 2 * n + 1, null, scratch.workspace);
+    }
+}
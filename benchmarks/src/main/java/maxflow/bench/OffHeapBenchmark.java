@@ -0,0 +1,84 @@
+package maxflow.bench;
+
+import maxflow.EdmondsKarpSolver;
+import maxflow.FlowWorkspace;
+import maxflow.GraphFamilies;
+import maxflow.GraphInstance;
+import maxflow.IntStorage;
+import maxflow.StoredFlowNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Edmonds-Karp on IntStorage-backed networks against the plain on-heap engine on the same graph
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OffHeapBenchmark {
+
+    @Param({"sparse", "grid", "bipartite"})
+    public String family;
+
+    @Param({"heap", "direct", "mapped"})
+    public String storage;
+
+    @Param("42")
+    public long seed;
+
+    private GraphInstance graph;
+    private StoredFlowNetwork stored;
+    private final EdmondsKarpSolver solver = new EdmondsKarpSolver();
+
+    @State(Scope.Thread)
+    public static class Scratch {
+        final FlowWorkspace workspace = new FlowWorkspace();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        graph = GraphFamilies.create(family, seed);
+        stored = StoredFlowNetwork.copyOf(graph.network, factory(storage));
+    }
+
+    private static IntStorage.Factory factory(String storage) throws IOException {
+        switch (storage) {
+            case "heap":
+                return IntStorage.HEAP;
+            case "direct":
+                return IntStorage.DIRECT;
+            case "mapped":
+                Path directory = Files.createTempDirectory("maxflow-bench");
+                directory.toFile().deleteOnExit();
+                return IntStorage.mapped(directory);
+            default:
+                throw new IllegalArgumentException("Unknown storage: " + storage);
+        }
+    }
+
+    @Benchmark
+    public int arrays(Scratch scratch) {
+        return solver.maxFlow(graph.network, graph.source, graph.sink, null, scratch.workspace);
+    }
+
+    @Benchmark
+    public int stored(Scratch scratch) throws IOException {
+        return solver.maxFlow(stored, graph.source, graph.sink, null, scratch.workspace);
+    }
+}
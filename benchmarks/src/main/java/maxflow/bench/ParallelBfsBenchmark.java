@@ -0,0 +1,85 @@
+package maxflow.bench;
+
+import maxflow.EdmondsKarpSolver;
+import maxflow.FlowNetwork;
+import maxflow.FlowWorkspace;
+import maxflow.GraphFamilies;
+import maxflow.MaxFlowSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Edmonds-Karp on a multi-million-arc random network with the sequential search (parallelism 0)
+// and the parallel level-synchronous search by worker count. Too large for the matrix baseline,
+// so the network is built here rather than in GraphFamilies.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ParallelBfsBenchmark {
+    @Param({"1000000"})
+    public int vertices;
+
+    @Param({"5"})
+    public int degree;
+
+    @Param({"0", "1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param("42")
+    public long seed;
+
+    private FlowNetwork network;
+    private ForkJoinPool pool;
+    private MaxFlowSolver solver;
+    private final FlowWorkspace workspace = new FlowWorkspace();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(seed);
+        int edges = Math.multiplyExact(vertices, degree);
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(vertices, edges);
+        for (int i = 0; i < edges; i++) {
+            builder.addEdge(random.nextInt(vertices), random.nextInt(vertices), 1 + random.nextInt(1000));
+        }
+        network = builder.build();
+        workspace.ensureCapacity(network);
+        if (parallelism == 0) {
+            solver = new EdmondsKarpSolver();
+        } else {
+            pool = new ForkJoinPool(parallelism);
+            solver = new EdmondsKarpSolver(null, pool, 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    @Benchmark
+    public int solve(SolveCounters counters) {
+        int flow = solver.maxFlow(network, 0, vertices - 1, null, workspace);
+        counters.augmentations += workspace.augmentations();
+        counters.vertexVisits += workspace.vertexVisits();
+        counters.arcVisits += workspace.arcVisits();
+        counters.solves++;
+        return flow;
+    }
+}
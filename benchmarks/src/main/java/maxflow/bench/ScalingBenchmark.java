@@ -0,0 +1,89 @@
+package maxflow.bench;
+
+import maxflow.FlowNetwork;
+import maxflow.FlowWorkspace;
+import maxflow.GraphFamilies;
+import maxflow.GraphInstance;
+import maxflow.LongEdmondsKarpSolver;
+import maxflow.LongFlowNetwork;
+import maxflow.SearchMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Capacity scaling against plain Edmonds-Karp on the family topologies with capacities drawn
+// log-uniformly from 1 to 10^maxExponent, where plain shortest paths push tiny bottlenecks
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingBenchmark {
+
+    @Param({"sparse", "dense", "grid", "bipartite"})
+    public String family;
+
+    @Param({"3", "12"})
+    public int maxExponent;
+
+    @Param("42")
+    public long seed;
+
+    private LongFlowNetwork network;
+    private int source;
+    private int sink;
+    private final LongEdmondsKarpSolver plain = new LongEdmondsKarpSolver();
+    private final LongEdmondsKarpSolver scaling = new LongEdmondsKarpSolver(SearchMode.SCALING);
+
+    @State(Scope.Thread)
+    public static class Scratch {
+        final FlowWorkspace workspace = new FlowWorkspace();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GraphInstance graph = GraphFamilies.create(family, seed);
+        FlowNetwork topology = graph.network;
+        SplittableRandom random = new SplittableRandom(seed);
+        LongFlowNetwork.Builder builder = new LongFlowNetwork.Builder(topology.vertexCount(), topology.edgeCount());
+        for (int e = 0; e < topology.edgeCount(); e++) {
+            long cap = (long) Math.pow(10, random.nextDouble() * maxExponent);
+            builder.addEdge(topology.edgeFrom(e), topology.edgeTo(e), cap);
+        }
+        network = builder.build();
+        source = graph.source;
+        sink = graph.sink;
+    }
+
+    @Benchmark
+    public long plain(Scratch scratch, SolveCounters counters) {
+        return solve(plain, scratch, counters);
+    }
+
+    @Benchmark
+    public long scaling(Scratch scratch, SolveCounters counters) {
+        return solve(scaling, scratch, counters);
+    }
+
+    private long solve(LongEdmondsKarpSolver solver, Scratch scratch, SolveCounters counters) {
+        long flow = solver.maxFlow(network, source, sink, null, scratch.workspace);
+        counters.augmentations += scratch.workspace.augmentations();
+        counters.vertexVisits += scratch.workspace.vertexVisits();
+        counters.arcVisits += scratch.workspace.arcVisits();
+        counters.solves++;
+        return flow;
+    }
+}
@@ -0,0 +1,26 @@
+package maxflow.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Extra columns in the JMH report. Divide augmentations by solves for augmentations per solve,
+// and vertexVisits or arcVisits by augmentations for the cost of one augmenting-path search.
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class SolveCounters {
+    public long augmentations;
+    public long solves;
+    public long vertexVisits;
+    public long arcVisits;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        augmentations = 0;
+        solves = 0;
+        vertexVisits = 0;
+        arcVisits = 0;
+    }
+}
@@ -0,0 +1,172 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A batch must answer every query exactly as a sequential solve would, however the pool splits it
+class BatchMaxFlowTest {
+    private static final int PARALLELISM = 4;
+
+    @Test
+    void matchesSequentialSolves() {
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+        try {
+            for (String family : new String[]{"sparse", "grid", "bipartite"}) {
+                GraphInstance graph = GraphFamilies.create(family, 1);
+                int[][] queries = queries(graph.network.vertexCount(), 40, new SplittableRandom(1));
+                int[] expected = sequential(graph.network, queries);
+                for (MaxFlowEngine engine : MaxFlowEngine.values()) {
+                    int[] batch = new BatchMaxFlow(engine.solver(), pool).solve(graph.network, queries[0],
+                            queries[1]);
+                    assertArrayEquals(expected, batch, family + " " + engine);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Workspaces go back to the batch after each chunk, so a second batch allocates none, and no
+    // two chunks running at once ever share one
+    @Test
+    void reusesWorkspacesBetweenBatches() {
+        GraphInstance graph = GraphFamilies.create("grid", 2);
+        int[][] queries = queries(graph.network.vertexCount(), 200, new SplittableRandom(2));
+        Set<FlowWorkspace> inUse = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        Set<FlowWorkspace> seen = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        MaxFlowSolver dinic = new DinicSolver();
+        MaxFlowSolver tracking = new DelegatingSolver(dinic) {
+            @Override
+            public int maxFlow(FlowNetwork network, int source, int sink, int[] edgeFlow, FlowWorkspace workspace) {
+                assertTrue(inUse.add(workspace), "workspace shared between chunks");
+                try {
+                    seen.add(workspace);
+                    return dinic.maxFlow(network, source, sink, edgeFlow, workspace);
+                } finally {
+                    inUse.remove(workspace);
+                }
+            }
+        };
+
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+        try {
+            BatchMaxFlow batch = new BatchMaxFlow(tracking, pool);
+            int[] expected = sequential(graph.network, queries);
+            assertArrayEquals(expected, batch.solve(graph.network, queries[0], queries[1]));
+            int workspaces = seen.size();
+            assertTrue(workspaces >= 1 && workspaces <= PARALLELISM + 1, workspaces + " workspaces");
+
+            seen.clear();
+            assertArrayEquals(expected, batch.solve(graph.network, queries[0], queries[1]));
+            assertTrue(seen.size() <= workspaces, "second batch allocated workspaces");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void emptyBatch() {
+        GraphInstance graph = GraphFamilies.create("sparse", 3);
+        BatchMaxFlow batch = new BatchMaxFlow(new DinicSolver());
+        assertEquals(0, batch.solve(graph.network, new int[0], new int[0]).length);
+        // A single query is below one chunk and runs in place
+        int[] one = batch.solve(graph.network, new int[]{graph.source}, new int[]{graph.sink});
+        assertArrayEquals(new int[]{new DinicSolver().maxFlow(graph.network, graph.source, graph.sink)}, one);
+    }
+
+    // A query that throws fails the whole batch with its own exception, and leaves the batch
+    // usable for the next one
+    @Test
+    void failingQueryFailsTheBatch() {
+        GraphInstance graph = GraphFamilies.create("sparse", 4);
+        int[][] queries = queries(graph.network.vertexCount(), 100, new SplittableRandom(4));
+        int poison = queries[0][57];
+        IllegalStateException failure = new IllegalStateException("query from " + poison);
+        boolean[] failing = {true};
+        MaxFlowSolver dinic = new DinicSolver();
+        MaxFlowSolver solver = new DelegatingSolver(dinic) {
+            @Override
+            public int maxFlow(FlowNetwork network, int source, int sink, int[] edgeFlow, FlowWorkspace workspace) {
+                if (failing[0] && source == poison) throw failure;
+                return dinic.maxFlow(network, source, sink, edgeFlow, workspace);
+            }
+        };
+
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+        try {
+            BatchMaxFlow batch = new BatchMaxFlow(solver, pool);
+            IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                    () -> batch.solve(graph.network, queries[0], queries[1]));
+            // Fork-join rethrows a copy at each join it crosses, each caused by the one below
+            Throwable cause = thrown;
+            while (cause != failure && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            assertSame(failure, cause, "not the query's exception: " + thrown);
+
+            failing[0] = false;
+            assertArrayEquals(sequential(graph.network, queries), batch.solve(graph.network, queries[0], queries[1]));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsBadInput() {
+        GraphInstance graph = GraphFamilies.create("sparse", 5);
+        BatchMaxFlow batch = new BatchMaxFlow(new DinicSolver());
+        int n = graph.network.vertexCount();
+        assertThrows(IllegalArgumentException.class, () -> batch.solve(graph.network, new int[2], new int[]{1}));
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.solve(graph.network, new int[]{0, 1}, new int[]{2, n}));
+        // Like a single solve, source equal to sink is a flow of 0 rather than an error
+        assertArrayEquals(new int[]{0}, batch.solve(graph.network, new int[]{3}, new int[]{3}));
+    }
+
+    private static int[] sequential(FlowNetwork network, int[][] queries) {
+        MaxFlowSolver solver = new DinicSolver();
+        FlowWorkspace workspace = new FlowWorkspace();
+        int[] result = new int[queries[0].length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = solver.maxFlow(network, queries[0][i], queries[1][i], null, workspace);
+        }
+        return result;
+    }
+
+    // count random (source, sink) pairs with source != sink
+    private static int[][] queries(int n, int count, SplittableRandom random) {
+        int[][] queries = new int[2][count];
+        for (int i = 0; i < count; i++) {
+            queries[0][i] = random.nextInt(n);
+            queries[1][i] = (queries[0][i] + 1 + random.nextInt(n - 1)) % n;
+        }
+        return queries;
+    }
+
+    // Passes stored solves through; the tests override the heap solve
+    private abstract static class DelegatingSolver implements MaxFlowSolver {
+        private final MaxFlowSolver solver;
+
+        DelegatingSolver(MaxFlowSolver solver) {
+            this.solver = solver;
+        }
+
+        @Override
+        public int maxFlow(StoredFlowNetwork network, int source, int sink, IntStorage edgeFlow,
+                           FlowWorkspace workspace) throws IOException {
+            return solver.maxFlow(network, source, sink, edgeFlow, workspace);
+        }
+    }
+}
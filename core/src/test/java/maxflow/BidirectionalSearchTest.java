@@ -0,0 +1,49 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.SplittableRandom;
+
+import static maxflow.FlowAssertions.assertMaximum;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BidirectionalSearchTest {
+
+    // A pooled workspace sees networks of every size. Growing it for a larger one must not let
+    // the backward marks of an earlier bidirectional search pass for marks of a later one.
+    // Stale marks can make it augment zero flow forever, hence the timeout.
+    @Test
+    @Timeout(value = 60, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void reusedWorkspaceGrowsBetweenSolves() {
+        SplittableRandom random = new SplittableRandom(12);
+        MaxFlowSolver bidirectional = new EdmondsKarpSolver(null, SearchMode.BIDIRECTIONAL);
+        MaxFlowSolver forward = new EdmondsKarpSolver();
+        FlowWorkspace workspace = new FlowWorkspace();
+
+        for (int round = 0; round < 200; round++) {
+            int n = 4 + random.nextInt(60 + 2 * round);
+            GraphInstance graph = GraphFamilies.randomSparse(n, 4 * n, 20, random.nextLong());
+            MaxFlowSolver solver = random.nextInt(3) == 0 ? forward : bidirectional;
+
+            MaxFlowResult result = solver.solve(graph.network, graph.source, graph.sink, workspace);
+            String what = "round " + round + ", " + n + " vertices";
+            assertEquals(new DinicSolver().maxFlow(graph.network, graph.source, graph.sink), result.value(), what);
+            assertMaximum(graph.network, graph.source, graph.sink, result, what);
+        }
+    }
+
+    @Test
+    void matchesForwardSearchOnEveryFamily() {
+        FlowWorkspace workspace = new FlowWorkspace();
+        for (String family : GraphFamilies.NAMES) {
+            GraphInstance graph = GraphFamilies.create(family, 4);
+            MaxFlowResult forward = new EdmondsKarpSolver().solve(graph.network, graph.source, graph.sink);
+            MaxFlowResult bidirectional = new EdmondsKarpSolver(null, SearchMode.BIDIRECTIONAL)
+                    .solve(graph.network, graph.source, graph.sink, workspace);
+
+            assertEquals(forward.value(), bidirectional.value(), family);
+            assertMaximum(graph.network, graph.source, graph.sink, bidirectional, family);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static maxflow.DimacsLoaderTest.assertSameProblem;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryGraphFormatTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsEveryFamily() throws IOException {
+        for (String family : GraphFamilies.NAMES) {
+            GraphInstance graph = GraphFamilies.create(family, 5);
+            Path file = directory.resolve(family + ".bin");
+            BinaryGraphFormat.write(new FlowProblem(graph.network, graph.source, graph.sink), file);
+
+            FlowProblem problem = BinaryGraphFormat.load(file);
+            assertSameProblem(graph, problem, family);
+            assertEquals(24 + 12L * graph.network.edgeCount(), Files.size(file), family + ": file size");
+        }
+    }
+
+    @Test
+    void writesLittleEndianRecords() throws IOException {
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(2);
+        builder.addEdge(0, 1, 0x01020304);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryGraphFormat.write(new FlowProblem(builder.build(), 0, 1), bytes);
+
+        byte[] written = bytes.toByteArray();
+        assertArrayEquals(new byte[]{'M', 'F', 'L', 'W'}, Arrays.copyOf(written, 4));
+        assertArrayEquals(new byte[]{4, 3, 2, 1}, Arrays.copyOfRange(written, 32, 36));
+    }
+
+    @Test
+    void roundTripsAnEmptyNetwork() throws IOException {
+        Path file = directory.resolve("empty.bin");
+        BinaryGraphFormat.write(new FlowProblem(new FlowNetwork.Builder(2).build(), 0, 1), file);
+
+        FlowProblem problem = BinaryGraphFormat.load(file);
+        assertEquals(2, problem.network().vertexCount());
+        assertEquals(0, problem.network().edgeCount());
+    }
+
+    @Test
+    void rejectsTruncatedAndForeignFiles() throws IOException {
+        GraphInstance graph = GraphFamilies.create("sparse", 5);
+        Path file = directory.resolve("graph.bin");
+        BinaryGraphFormat.write(new FlowProblem(graph.network, graph.source, graph.sink), file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        assertRejected(Arrays.copyOf(bytes, 10), "Truncated header");
+        assertRejected(Arrays.copyOf(bytes, bytes.length - 1), "Truncated or corrupt");
+        byte[] foreign = bytes.clone();
+        foreign[0] = 'X';
+        assertRejected(foreign, "Not a binary graph file");
+        byte[] newer = bytes.clone();
+        newer[4] = 2;
+        assertRejected(newer, "Unsupported binary graph version");
+    }
+
+    // Values the builder would refuse with IllegalArgumentException are malformed input here
+    @Test
+    void rejectsOutOfRangeValues() throws IOException {
+        GraphInstance graph = GraphFamilies.create("sparse", 5);
+        Path file = directory.resolve("graph.bin");
+        BinaryGraphFormat.write(new FlowProblem(graph.network, graph.source, graph.sink), file);
+        byte[] bytes = Files.readAllBytes(file);
+        int n = graph.network.vertexCount();
+
+        assertRejected(withInt(bytes, 16, n), "Corrupt"); // source
+        assertRejected(withInt(bytes, 20, -1), "Corrupt"); // sink
+        assertRejected(withInt(bytes, 24, n), "Corrupt"); // tail of edge 0
+        assertRejected(withInt(bytes, 24 + 12 * 7 + 4, -5), "Corrupt"); // head of edge 7
+        assertRejected(withInt(bytes, 24 + 12 * 3 + 8, -1), "Corrupt"); // capacity of edge 3
+    }
+
+    private static byte[] withInt(byte[] bytes, int offset, int value) {
+        byte[] changed = bytes.clone();
+        ByteBuffer.wrap(changed).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        return changed;
+    }
+
+    private void assertRejected(byte[] bytes, String message) throws IOException {
+        Path file = Files.write(directory.resolve("bad.bin"), bytes);
+        IOException error = assertThrows(IOException.class, () -> BinaryGraphFormat.load(file));
+        assertTrue(error.getMessage().contains(message), error.getMessage());
+    }
+}
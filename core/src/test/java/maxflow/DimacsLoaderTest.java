@@ -0,0 +1,136 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DimacsLoaderTest {
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest(name = "line break {0}")
+    @ValueSource(strings = {"\n", "\r\n"})
+    void roundTripsEveryFamily(String lineBreak) throws IOException {
+        for (String family : GraphFamilies.NAMES) {
+            GraphInstance graph = GraphFamilies.create(family, 5);
+            Path file = write(family + ".max", dimacs(graph, lineBreak));
+
+            FlowProblem problem = DimacsLoader.load(file);
+            assertSameProblem(graph, problem, family);
+        }
+    }
+
+    @Test
+    void skipsCommentsBlankLinesAndExtraBlanks() throws IOException {
+        Path file = write("spaced.max", "c a comment\n\np  max\t3 2\nn 1 s\nn 3   t\nc another\n"
+                + "a 1 2 5\n   a\t2 3 4   \n");
+
+        FlowProblem problem = DimacsLoader.load(file);
+        assertEquals(3, problem.network().vertexCount());
+        assertEquals(2, problem.network().edgeCount());
+        assertEquals(0, problem.source());
+        assertEquals(2, problem.sink());
+        assertEquals(4, new EdmondsKarpSolver().maxFlow(problem.network(), problem.source(), problem.sink()));
+    }
+
+    @Test
+    void loadsLongCapacities() throws IOException {
+        GraphInstance graph = GraphFamilies.create("grid", 5);
+        LongFlowProblem same = DimacsLoader.loadLong(write("grid.max", dimacs(graph, "\n")));
+        assertEquals(new DinicSolver().maxFlow(graph.network, graph.source, graph.sink),
+                new LongEdmondsKarpSolver().maxFlow(same.network(), same.source(), same.sink()));
+        for (int e = 0; e < graph.network.edgeCount(); e++) {
+            assertEquals(graph.network.edgeFrom(e), same.network().edgeFrom(e));
+            assertEquals(graph.network.edgeTo(e), same.network().edgeTo(e));
+            assertEquals(graph.network.edgeCapacity(e), same.network().edgeCapacity(e));
+        }
+
+        String wide = "p max 3 3\nn 1 s\nn 3 t\na 1 2 5000000000\na 2 3 9223372036854775807\na 1 3 7\n";
+        LongFlowProblem problem = DimacsLoader.loadLong(write("wide.max", wide));
+        assertEquals(9223372036854775807L, problem.network().edgeCapacity(1));
+        assertEquals(5_000_000_007L,
+                new LongEdmondsKarpSolver().maxFlow(problem.network(), problem.source(), problem.sink()));
+
+        // The int loader refuses what only the long one can hold, and the long one refuses past it
+        assertRejected(wide, "too large");
+        Path past = write("past.max", "p max 2 1\nn 1 s\nn 2 t\na 1 2 9223372036854775808\n");
+        IOException error = assertThrows(IOException.class, () -> DimacsLoader.loadLong(past));
+        assertTrue(error.getMessage().contains("too large"), error.getMessage());
+    }
+
+    // A header may claim any arc count; only the arcs actually there are allocated for
+    @Test
+    void doesNotTrustTheHeaderArcCount() throws IOException {
+        Path file = write("claims.max", "p max 2 2147483647\nn 1 s\nn 2 t\na 1 2 3\n");
+        FlowProblem problem = DimacsLoader.load(file);
+        assertEquals(1, problem.network().edgeCount());
+        assertEquals(1, DimacsLoader.loadLong(file).network().edgeCount());
+
+        // More arcs than preallocated still load
+        StringBuilder text = new StringBuilder("p max 2 1\nn 1 s\nn 2 t\n");
+        for (int i = 0; i <= DimacsLoader.PREALLOCATED_ARCS; i++) {
+            text.append("a 1 2 1\n");
+        }
+        problem = DimacsLoader.load(write("more.max", text.toString()));
+        assertEquals(DimacsLoader.PREALLOCATED_ARCS + 1, problem.network().edgeCount());
+    }
+
+    @Test
+    void rejectsMalformedFiles() throws IOException {
+        assertRejected("p min 2 1\nn 1 s\nn 2 t\na 1 2 1\n", "Only 'p max'");
+        assertRejected("n 1 s\np max 2 1\n", "before the 'p max'");
+        assertRejected("p max 2 1\nn 1 s\nn 3 t\n", "out of range");
+        assertRejected("p max 2 1\nn 1 s\na 1 2 1\n", "Missing source or sink");
+        assertRejected("p max 2 1\nn 1 s\nn 2 t\na 1 2 x\n", "Expected a number");
+        assertRejected("p max 2 1\nn 1 s\nn 2 t\na 1 2 2147483648\n", "too large");
+        assertRejected("c nothing else\n", "Missing 'p max'");
+        assertRejected("p max 2 1\nn 1 s\np max 3 1\nn 3 t\n", "Second 'p' line");
+    }
+
+    private void assertRejected(String text, String message) throws IOException {
+        Path file = write("bad.max", text);
+        IOException error = assertThrows(IOException.class, () -> DimacsLoader.load(file));
+        assertTrue(error.getMessage().contains(message), error.getMessage());
+    }
+
+    static void assertSameProblem(GraphInstance graph, FlowProblem problem, String what) {
+        FlowNetwork expected = graph.network;
+        FlowNetwork actual = problem.network();
+        assertEquals(graph.source, problem.source(), what + ": source");
+        assertEquals(graph.sink, problem.sink(), what + ": sink");
+        assertEquals(expected.vertexCount(), actual.vertexCount(), what + ": vertices");
+        assertEquals(expected.edgeCount(), actual.edgeCount(), what + ": edges");
+        for (int e = 0; e < expected.edgeCount(); e++) {
+            assertEquals(expected.edgeFrom(e), actual.edgeFrom(e), what + ": tail of edge " + e);
+            assertEquals(expected.edgeTo(e), actual.edgeTo(e), what + ": head of edge " + e);
+            assertEquals(expected.edgeCapacity(e), actual.edgeCapacity(e), what + ": capacity of edge " + e);
+        }
+    }
+
+    private static String dimacs(GraphInstance graph, String lineBreak) {
+        FlowNetwork network = graph.network;
+        StringBuilder text = new StringBuilder("c written by DimacsLoaderTest").append(lineBreak);
+        text.append("p max ").append(network.vertexCount()).append(' ').append(network.edgeCount()).append(lineBreak);
+        text.append("n ").append(graph.source + 1).append(" s").append(lineBreak);
+        text.append("n ").append(graph.sink + 1).append(" t").append(lineBreak);
+        for (int e = 0; e < network.edgeCount(); e++) {
+            text.append("a ").append(network.edgeFrom(e) + 1).append(' ').append(network.edgeTo(e) + 1)
+                    .append(' ').append(network.edgeCapacity(e)).append(lineBreak);
+        }
+        return text.toString();
+    }
+
+    private Path write(String name, String text) throws IOException {
+        return Files.writeString(directory.resolve(name), text, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,38 @@
+package maxflow;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static maxflow.FlowAssertions.assertMaximum;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Every way of solving a network must find the same maximum flow on the seeded benchmark families
+class EngineAgreementTest {
+    private static final long[] SEEDS = {1, 2, 3};
+
+    static Stream<Arguments> instances() {
+        return Stream.of(GraphFamilies.NAMES)
+                .flatMap(family -> LongStream.of(SEEDS).mapToObj(seed -> Arguments.of(family, seed)));
+    }
+
+    @ParameterizedTest(name = "{0} seed {1}")
+    @MethodSource("instances")
+    void enginesAgree(String family, long seed) {
+        GraphInstance graph = GraphFamilies.create(family, seed);
+        int expected = new EdmondsKarpSolver().maxFlow(graph.network, graph.source, graph.sink);
+
+        // One workspace for all of them, so leftovers of a solve would show up in the next
+        FlowWorkspace workspace = new FlowWorkspace();
+        for (MaxFlowEngine engine : MaxFlowEngine.values()) {
+            MaxFlowResult result = engine.solver().solve(graph.network, graph.source, graph.sink, workspace);
+            assertEquals(expected, result.value(), engine.toString());
+            assertMaximum(graph.network, graph.source, graph.sink, result, engine.toString());
+        }
+
+        assertEquals(expected, new EdmondsKarpSolver().maxFlow(graph.matrix, graph.source, graph.sink), "matrix");
+    }
+}
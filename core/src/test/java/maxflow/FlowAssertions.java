@@ -0,0 +1,49 @@
+package maxflow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Checks a flow against the network alone, so no engine is trusted to check another
+final class FlowAssertions {
+
+    private FlowAssertions() {
+    }
+
+    // Every edge within its capacity, flow conserved at every inner vertex, and value net flow
+    // into the sink
+    static void assertFeasible(FlowNetwork network, int source, int sink, long value, int[] edgeFlow,
+                               String what) {
+        assertEquals(network.edgeCount(), edgeFlow.length, what + ": edge flow count");
+        long[] balance = new long[network.vertexCount()];
+        for (int e = 0; e < edgeFlow.length; e++) {
+            int flow = edgeFlow[e];
+            assertTrue(flow >= 0 && flow <= network.edgeCapacity(e),
+                    what + ": flow " + flow + " on edge " + e + " of capacity " + network.edgeCapacity(e));
+            balance[network.edgeFrom(e)] -= flow;
+            balance[network.edgeTo(e)] += flow;
+        }
+        for (int v = 0; v < balance.length; v++) {
+            if (v != source && v != sink) {
+                assertEquals(0, balance[v], what + ": flow not conserved at vertex " + v);
+            }
+        }
+        if (source != sink) {
+            assertEquals(value, balance[sink], what + ": net flow into the sink");
+        }
+    }
+
+    // A feasible flow whose value is the capacity of the cut the result reports, which proves
+    // both maximum
+    static void assertMaximum(FlowNetwork network, int source, int sink, MaxFlowResult result, String what) {
+        assertFeasible(network, source, sink, result.value(), result.edgeFlow(), what);
+        if (source == sink) return;
+        assertTrue(result.onSourceSide(source), what + ": source off the source side");
+        assertFalse(result.onSourceSide(sink), what + ": sink on the source side");
+        long cut = 0;
+        for (int e : result.cutEdges()) {
+            cut += network.edgeCapacity(e);
+        }
+        assertEquals(result.value(), cut, what + ": cut capacity");
+    }
+}
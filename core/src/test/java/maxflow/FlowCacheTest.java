@@ -0,0 +1,200 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+
+import static maxflow.FlowAssertions.assertMaximum;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Every lookup must be exactly one of a hit, a warm start or a miss, and only misses may reach
+// the configured solver, which a MeteredSolver counts here
+class FlowCacheTest {
+    private final FlowMetrics metrics = new FlowMetrics();
+    private final MaxFlowSolver solver = new MeteredSolver(new DinicSolver(), metrics);
+
+    @Test
+    void hitsReturnTheCachedResult() {
+        GraphInstance graph = GraphFamilies.create("sparse", 1);
+        FlowCache cache = new FlowCache(solver, 4);
+        MaxFlowResult first = cache.solve(graph.network, graph.source, graph.sink);
+        assertMaximum(graph.network, graph.source, graph.sink, first, "miss");
+
+        assertSame(first, cache.solve(graph.network, graph.source, graph.sink));
+        // Rebuilt from the same edges: another object, the same network
+        assertSame(first, cache.solve(withCapacities(graph.network, capacities(graph.network)), graph.source,
+                graph.sink));
+        assertCounts(cache, 2, 0, 1);
+        assertEquals(1, metrics.getSolves());
+    }
+
+    // A few edges of the flow lowered and others raised: repaired from the cached flow
+    @Test
+    void nearMissesRepairTheCachedFlow() {
+        GraphInstance graph = GraphFamilies.create("grid", 2);
+        FlowCache cache = new FlowCache(solver, 4);
+        MaxFlowResult first = cache.solve(graph.network, graph.source, graph.sink);
+
+        int[] capacity = capacities(graph.network);
+        int lowered = 0;
+        for (int e = 0; e < capacity.length && lowered < FlowCache.MAX_REPAIRS; e++) {
+            if (first.edgeFlow()[e] > 1) {
+                capacity[e] = first.edgeFlow()[e] / 2;
+                lowered++;
+            } else if (e % 7 == 0) {
+                capacity[e] += 50;
+            }
+        }
+        assertEquals(FlowCache.MAX_REPAIRS, lowered, "enough flow-carrying edges");
+        FlowNetwork changed = withCapacities(graph.network, capacity);
+
+        MaxFlowResult repaired = cache.solve(changed, graph.source, graph.sink);
+        assertEquals(new DinicSolver().maxFlow(changed, graph.source, graph.sink), repaired.value());
+        assertMaximum(changed, graph.source, graph.sink, repaired, "warm start");
+        assertCounts(cache, 0, 1, 1);
+        assertEquals(1, metrics.getSolves());
+
+        // The repaired version is now the cached one
+        assertSame(repaired, cache.solve(changed, graph.source, graph.sink));
+    }
+
+    // One clamped edge past MAX_REPAIRS and the cache solves from scratch instead
+    @Test
+    void tooManyClampedEdgesSolveAfresh() {
+        GraphInstance graph = GraphFamilies.create("grid", 3);
+        FlowCache cache = new FlowCache(solver, 4);
+        MaxFlowResult first = cache.solve(graph.network, graph.source, graph.sink);
+
+        int[] capacity = capacities(graph.network);
+        int lowered = 0;
+        for (int e = 0; e < capacity.length && lowered <= FlowCache.MAX_REPAIRS; e++) {
+            if (first.edgeFlow()[e] > 0) {
+                capacity[e] = first.edgeFlow()[e] - 1;
+                lowered++;
+            }
+        }
+        FlowNetwork changed = withCapacities(graph.network, capacity);
+        MaxFlowResult result = cache.solve(changed, graph.source, graph.sink);
+        assertMaximum(changed, graph.source, graph.sink, result, "fresh solve");
+        assertCounts(cache, 0, 0, 2);
+        assertEquals(2, metrics.getSolves());
+    }
+
+    @Test
+    void otherTerminalsAndTopologiesMiss() {
+        GraphInstance graph = GraphFamilies.create("sparse", 4);
+        FlowCache cache = new FlowCache(solver, 8);
+        cache.solve(graph.network, graph.source, graph.sink);
+        MaxFlowResult otherSink = cache.solve(graph.network, graph.source, 1);
+        assertMaximum(graph.network, graph.source, 1, otherSink, "other sink");
+
+        GraphInstance other = GraphFamilies.create("sparse", 5);
+        MaxFlowResult otherEdges = cache.solve(other.network, other.source, other.sink);
+        assertMaximum(other.network, other.source, other.sink, otherEdges, "other edges");
+        assertCounts(cache, 0, 0, 3);
+        assertEquals(3, cache.getSize());
+    }
+
+    // Two networks made to share fingerprints, as a 64-bit collision would: neither may be
+    // answered, or warm-started, from the other's entry
+    @Test
+    void fingerprintCollisionsAreMisses() {
+        GraphInstance a = GraphFamilies.create("sparse", 6);
+        GraphInstance b = GraphFamilies.create("sparse", 7);
+        b.network.fingerprints = new long[]{a.network.topologyFingerprint(), a.network.capacityFingerprint()};
+        FlowCache cache = new FlowCache(solver, 4);
+
+        MaxFlowResult first = cache.solve(a.network, a.source, a.sink);
+        MaxFlowResult second = cache.solve(b.network, b.source, b.sink);
+        assertNotSame(first, second);
+        assertEquals(new DinicSolver().maxFlow(b.network, b.source, b.sink), second.value());
+        assertMaximum(b.network, b.source, b.sink, second, "collision");
+        assertCounts(cache, 0, 0, 2);
+
+        // Same edges as a, capacities colliding with a's but not equal to them
+        int[] capacity = capacities(a.network);
+        capacity[0]++;
+        FlowNetwork changed = withCapacities(a.network, capacity);
+        changed.fingerprints = a.network.fingerprints.clone();
+        cache.solve(a.network, a.source, a.sink);
+        MaxFlowResult third = cache.solve(changed, a.source, a.sink);
+        assertMaximum(changed, a.source, a.sink, third, "capacity collision");
+        assertCounts(cache, 0, 1, 3);
+    }
+
+    // Least recently used goes first, by entry count and by cached edges
+    @Test
+    void evictsLeastRecentlyUsed() {
+        GraphInstance[] graphs = new GraphInstance[3];
+        for (int i = 0; i < graphs.length; i++) {
+            graphs[i] = GraphFamilies.create("sparse", 10 + i);
+        }
+        FlowCache cache = new FlowCache(solver, 2);
+        MaxFlowResult a = solve(cache, graphs[0]);
+        solve(cache, graphs[1]);
+        assertSame(a, solve(cache, graphs[0])); // a is now the most recent
+        solve(cache, graphs[2]); // evicts graphs[1]
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getSize());
+        assertSame(a, solve(cache, graphs[0]));
+        solve(cache, graphs[1]);
+        assertCounts(cache, 2, 0, 4);
+
+        // Room for two results by edges, but not three
+        long edges = graphs[0].network.edgeCount() + graphs[1].network.edgeCount() + graphs[2].network.edgeCount();
+        FlowCache small = new FlowCache(solver, 10, edges - 1);
+        for (GraphInstance graph : graphs) {
+            solve(small, graph);
+        }
+        assertEquals(2, small.getSize());
+        assertEquals(1, small.getEvictions());
+
+        // A single result over the budget is still kept
+        FlowCache tiny = new FlowCache(solver, 10, 1);
+        MaxFlowResult only = solve(tiny, graphs[0]);
+        assertSame(only, solve(tiny, graphs[0]));
+        assertEquals(1, tiny.getSize());
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void rejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> new FlowCache(solver, 0));
+        assertThrows(IllegalArgumentException.class, () -> new FlowCache(solver, 1, -1));
+        GraphInstance graph = GraphFamilies.create("sparse", 1);
+        FlowCache cache = new FlowCache(solver, 1);
+        assertThrows(IllegalArgumentException.class, () -> cache.solve(graph.network, 0, graph.network.vertexCount()));
+    }
+
+    private static MaxFlowResult solve(FlowCache cache, GraphInstance graph) {
+        return cache.solve(graph.network, graph.source, graph.sink);
+    }
+
+    private static void assertCounts(FlowCache cache, long hits, long warmStarts, long misses) {
+        assertEquals(hits, cache.getHits(), "hits");
+        assertEquals(warmStarts, cache.getWarmStarts(), "warm starts");
+        assertEquals(misses, cache.getMisses(), "misses");
+        assertEquals((double) hits / (hits + warmStarts + misses), cache.getHitRate(), 1e-9);
+    }
+
+    private static int[] capacities(FlowNetwork network) {
+        int[] capacity = new int[network.edgeCount()];
+        for (int e = 0; e < capacity.length; e++) {
+            capacity[e] = network.edgeCapacity(e);
+        }
+        return capacity;
+    }
+
+    // The same edges in the same order with new capacities, so the same topology fingerprint
+    private static FlowNetwork withCapacities(FlowNetwork network, int[] capacity) {
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(network.vertexCount(), network.edgeCount());
+        for (int e = 0; e < network.edgeCount(); e++) {
+            builder.addEdge(network.edgeFrom(e), network.edgeTo(e), capacity[e]);
+        }
+        return builder.build();
+    }
+}
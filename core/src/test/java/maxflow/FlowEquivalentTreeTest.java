@@ -0,0 +1,84 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlowEquivalentTreeTest {
+
+    // Every pair's tree answer must be the max flow between them, with and without the
+    // speculative window
+    @Test
+    void minCutsMatchDirectSolves() {
+        FlowNetwork network = randomSymmetric(40, 120, 11);
+        FlowEquivalentTree sequential = FlowEquivalentTree.build(network, new DinicSolver());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        FlowEquivalentTree speculative;
+        try {
+            speculative = FlowEquivalentTree.build(network, new DinicSolver(), pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        MaxFlowSolver solver = new DinicSolver();
+        for (int u = 0; u < network.vertexCount(); u++) {
+            for (int v = u + 1; v < network.vertexCount(); v++) {
+                int expected = solver.maxFlow(network, u, v);
+                assertEquals(expected, sequential.minCut(u, v), u + " - " + v);
+                assertEquals(expected, speculative.minCut(v, u), v + " - " + u + " speculative");
+            }
+        }
+    }
+
+    // Each tree edge carries the max flow between its ends, and a vertex cuts 0 from itself as
+    // every engine's maxFlow(v, v) does
+    @Test
+    void treeEdgesAndSelfPairs() {
+        FlowNetwork network = randomSymmetric(30, 90, 12);
+        FlowEquivalentTree tree = FlowEquivalentTree.build(network, new DinicSolver());
+        MaxFlowSolver solver = new DinicSolver();
+        assertEquals(network.vertexCount(), tree.vertexCount());
+        assertEquals(0, tree.weight(0));
+        for (int v = 1; v < network.vertexCount(); v++) {
+            assertTrue(tree.parent(v) < v, "parent of " + v);
+            assertEquals(solver.maxFlow(network, v, tree.parent(v)), tree.weight(v), "edge " + v);
+        }
+        for (int v = 0; v < network.vertexCount(); v++) {
+            assertEquals(solver.maxFlow(network, v, v), tree.minCut(v, v), "self pair " + v);
+        }
+    }
+
+    @Test
+    void rejectsAsymmetricNetworksAndBadVertices() {
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(3);
+        builder.addEdge(0, 1, 2);
+        builder.addEdge(1, 0, 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> FlowEquivalentTree.build(builder.build(), new DinicSolver()));
+
+        FlowEquivalentTree tree = FlowEquivalentTree.build(randomSymmetric(5, 8, 3), new DinicSolver());
+        assertThrows(IllegalArgumentException.class, () -> tree.minCut(0, 5));
+        assertThrows(IllegalArgumentException.class, () -> tree.minCut(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> tree.parent(5));
+    }
+
+    // Undirected edges as a pair of opposite arcs of the same capacity
+    private static FlowNetwork randomSymmetric(int n, int edges, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(n, 2 * edges);
+        for (int i = 0; i < edges; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            if (u == v) continue;
+            int capacity = 1 + random.nextInt(20);
+            builder.addEdge(u, v, capacity);
+            builder.addEdge(v, u, capacity);
+        }
+        return builder.build();
+    }
+}
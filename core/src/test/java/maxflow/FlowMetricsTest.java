@@ -0,0 +1,163 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// FlowMetrics must add up exactly what each metered solve left in its workspace
+class FlowMetricsTest {
+
+    @Test
+    void addsUpEverySolve() throws IOException {
+        FlowMetrics metrics = new FlowMetrics();
+        MaxFlowSolver solver = new MeteredSolver(new DinicSolver(), metrics);
+        FlowWorkspace workspace = new FlowWorkspace();
+        long augmentations = 0, vertexVisits = 0, arcVisits = 0, searchNanos = 0;
+        long[] pathLengths = new long[FlowWorkspace.HISTOGRAM_BUCKETS];
+        long[] bottlenecks = new long[FlowWorkspace.HISTOGRAM_BUCKETS];
+
+        String[] families = {"sparse", "grid", "bipartite"};
+        for (int i = 0; i < families.length; i++) {
+            GraphInstance graph = GraphFamilies.create(families[i], 1);
+            int value = i == 2
+                    ? solver.maxFlow(StoredFlowNetwork.copyOf(graph.network, IntStorage.HEAP), graph.source,
+                    graph.sink, null, workspace)
+                    : solver.maxFlow(graph.network, graph.source, graph.sink, null, workspace);
+            assertEquals(new DinicSolver().maxFlow(graph.network, graph.source, graph.sink), value, families[i]);
+
+            augmentations += workspace.augmentations();
+            vertexVisits += workspace.vertexVisits();
+            arcVisits += workspace.arcVisits();
+            searchNanos += workspace.searchNanos();
+            add(pathLengths, workspace.pathLengthHistogram());
+            add(bottlenecks, workspace.bottleneckHistogram());
+        }
+
+        assertEquals(3, metrics.getSolves());
+        assertEquals(augmentations, metrics.getAugmentations());
+        assertEquals(vertexVisits, metrics.getVertexVisits());
+        assertEquals(arcVisits, metrics.getArcVisits());
+        assertEquals(searchNanos, metrics.getSearchNanos());
+        assertArrayEquals(pathLengths, metrics.getPathLengthHistogram());
+        assertArrayEquals(bottlenecks, metrics.getBottleneckHistogram());
+        assertEquals(augmentations, sum(metrics.getPathLengthHistogram()), "one path length per augmentation");
+
+        assertTrue(metrics.getSolveNanos() >= metrics.getSearchNanos(), "solves take longer than their searches");
+        assertTrue(metrics.getSearchNanos() > 0);
+        assertTrue(metrics.getAllocatedBytes() >= 0);
+        assertEquals(augmentations / 3.0, metrics.getAugmentationsPerSolve(), 1e-9);
+        assertEquals((double) arcVisits / augmentations, metrics.getArcVisitsPerAugmentation(), 1e-9);
+        assertEquals(metrics.getSolveNanos() / 1e6 / 3, metrics.getMeanSolveMillis(), 1e-9);
+
+        metrics.reset();
+        assertEquals(0, metrics.getSolves());
+        assertEquals(0, metrics.getAugmentations());
+        assertEquals(0, metrics.getSolveNanos());
+        assertEquals(0, sum(metrics.getPathLengthHistogram()));
+        assertEquals(0, metrics.getAugmentationsPerSolve());
+        assertEquals(0, metrics.getArcVisitsPerAugmentation());
+        assertEquals(0, metrics.getMeanSolveMillis());
+    }
+
+    // Push-relabel counts pushes as augmentations but has no paths for the histograms
+    @Test
+    void pushRelabelHasNoPaths() {
+        FlowMetrics metrics = new FlowMetrics();
+        GraphInstance graph = GraphFamilies.create("grid", 2);
+        FlowWorkspace workspace = new FlowWorkspace();
+        new MeteredSolver(MaxFlowEngine.PUSH_RELABEL.solver(), metrics)
+                .maxFlow(graph.network, graph.source, graph.sink, null, workspace);
+        assertEquals(workspace.augmentations(), metrics.getAugmentations());
+        assertTrue(metrics.getAugmentations() > 0);
+        assertEquals(0, sum(metrics.getPathLengthHistogram()));
+    }
+
+    // One FlowMetrics fed from several threads, each with its own workspace
+    @Test
+    void collectsFromManyThreads() throws Exception {
+        FlowMetrics metrics = new FlowMetrics();
+        MaxFlowSolver solver = new MeteredSolver(new EdmondsKarpSolver(), metrics);
+        GraphInstance graph = GraphFamilies.create("sparse", 3);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> augmentations = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                augmentations.add(pool.submit(() -> {
+                    FlowWorkspace workspace = new FlowWorkspace();
+                    long total = 0;
+                    for (int i = 0; i < 25; i++) {
+                        solver.maxFlow(graph.network, graph.source, graph.sink, null, workspace);
+                        total += workspace.augmentations();
+                    }
+                    return total;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> count : augmentations) {
+                total += count.get();
+            }
+            assertEquals(100, metrics.getSolves());
+            assertEquals(total, metrics.getAugmentations());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void registersAndUnregistersWithJmx() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        FlowMetrics metrics = new FlowMetrics();
+        GraphInstance graph = GraphFamilies.create("sparse", 4);
+        new MeteredSolver(new DinicSolver(), metrics).maxFlow(graph.network, graph.source, graph.sink);
+
+        ObjectName name = metrics.register("FlowMetricsTest \"quoted\"");
+        try {
+            assertEquals("maxflow", name.getDomain());
+            assertEquals("FlowMetrics", name.getKeyProperty("type"));
+            assertTrue(server.isRegistered(name));
+            assertEquals(1L, server.getAttribute(name, "Solves"));
+            assertEquals(metrics.getAugmentations(), server.getAttribute(name, "Augmentations"));
+            assertArrayEquals(metrics.getPathLengthHistogram(),
+                    (long[]) server.getAttribute(name, "PathLengthHistogram"));
+            assertThrows(InstanceAlreadyExistsException.class, () -> metrics.register("FlowMetricsTest \"quoted\""));
+
+            server.invoke(name, "reset", null, null);
+            assertEquals(0, metrics.getSolves());
+        } finally {
+            server.unregisterMBean(name);
+        }
+        assertFalse(server.isRegistered(name));
+        // The name is free again once unregistered
+        server.unregisterMBean(metrics.register("FlowMetricsTest \"quoted\""));
+    }
+
+    private static void add(long[] total, long[] histogram) {
+        for (int b = 0; b < total.length; b++) {
+            total[b] += histogram[b];
+        }
+    }
+
+    private static long sum(long[] histogram) {
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        return total;
+    }
+}
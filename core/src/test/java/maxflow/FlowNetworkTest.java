@@ -0,0 +1,85 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+
+import static maxflow.FlowAssertions.assertMaximum;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlowNetworkTest {
+    // The network of CLRS figure 26.1: s = 0, t = 5, maximum flow 23
+    private static final int[][] CLRS = {
+            {0, 16, 13, 0, 0, 0},
+            {0, 0, 10, 12, 0, 0},
+            {0, 4, 0, 0, 14, 0},
+            {0, 0, 9, 0, 0, 20},
+            {0, 0, 0, 7, 0, 4},
+            {0, 0, 0, 0, 0, 0},
+    };
+
+    @Test
+    void solvesTheTextbookNetwork() {
+        FlowNetwork network = FlowNetwork.fromMatrix(CLRS);
+        assertEquals(6, network.vertexCount());
+        assertEquals(10, network.edgeCount()); // zero cells are not edges
+
+        assertEquals(23, new EdmondsKarpSolver().maxFlow(CLRS, 0, 5));
+        MaxFlowResult result = new EdmondsKarpSolver().solve(network, 0, 5);
+        assertEquals(23, result.value());
+        assertMaximum(network, 0, 5, result, "CLRS");
+    }
+
+    // Parallel edges and self-loops stay separate edges; every edge gets a forward arc listed
+    // before the reverse arcs of its tail, and a reverse arc of capacity 0 at its head
+    @Test
+    void keepsEveryEdgeInCsrOrder() {
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(3, 1);
+        int[][] edges = {{0, 1, 4}, {0, 1, 3}, {1, 1, 9}, {2, 0, 5}, {1, 2, 0}};
+        for (int e = 0; e < edges.length; e++) {
+            assertEquals(e, builder.addEdge(edges[e][0], edges[e][1], edges[e][2]));
+        }
+        FlowNetwork network = builder.build();
+
+        assertEquals(edges.length, network.edgeCount());
+        for (int e = 0; e < edges.length; e++) {
+            assertEquals(edges[e][0], network.edgeFrom(e));
+            assertEquals(edges[e][1], network.edgeTo(e));
+            assertEquals(edges[e][2], network.edgeCapacity(e));
+        }
+        for (int v = 0; v < network.n; v++) {
+            for (int a = network.start[v]; a < network.start[v + 1]; a++) {
+                assertEquals(a, network.rev[network.rev[a]], "arc pairing");
+                assertEquals(v, network.head[network.rev[a]], "reverse arc leads back");
+                if (a < network.reverseStart[v]) {
+                    assertEquals(0, network.cap[network.rev[a]], "forward arc paired with a reverse arc");
+                } else {
+                    assertEquals(0, network.cap[a], "reverse arcs start empty");
+                }
+            }
+        }
+        assertEquals(7, new EdmondsKarpSolver().maxFlow(network, 0, 1));
+    }
+
+    @Test
+    void sourceEqualToSinkHasNoFlow() {
+        FlowNetwork network = FlowNetwork.fromMatrix(CLRS);
+        MaxFlowResult result = new EdmondsKarpSolver().solve(network, 2, 2);
+        assertEquals(0, result.value());
+        assertTrue(result.onSourceSide(2));
+        assertEquals(0, result.cutEdges().length);
+    }
+
+    @Test
+    void rejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> new FlowNetwork.Builder(-1));
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(2);
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge(0, 2, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge(-1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge(0, 1, -1));
+
+        FlowNetwork network = builder.build();
+        assertThrows(IllegalArgumentException.class, () -> new EdmondsKarpSolver().maxFlow(network, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> new EdmondsKarpSolver().maxFlow(network, -1, 1));
+    }
+}
@@ -0,0 +1,115 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.SplittableRandom;
+
+import static maxflow.FlowAssertions.assertFeasible;
+import static maxflow.FlowAssertions.assertMaximum;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IncrementalMaxFlowTest {
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"sparse", "dense", "grid", "bipartite", "ak"})
+    void firstSolveAndWarmStartMatchDinic(String family) {
+        for (long seed = 1; seed <= 3; seed++) {
+            GraphInstance graph = GraphFamilies.create(family, seed);
+            MaxFlowResult expected = new DinicSolver().solve(graph.network, graph.source, graph.sink);
+            String what = family + " seed " + seed;
+
+            IncrementalMaxFlow incremental = new IncrementalMaxFlow(graph.network, graph.source, graph.sink);
+            assertEquals(expected.value(), incremental.maxFlow(), what);
+            assertMaximum(graph.network, graph.source, graph.sink, incremental.result(), what);
+
+            // A maximum flow has no augmenting path left, so a warm start keeps it as it is
+            IncrementalMaxFlow warm = IncrementalMaxFlow.warmStart(graph.network, graph.source, graph.sink,
+                    expected.edgeFlow());
+            assertEquals(expected.value(), warm.maxFlow(), what + " warm start");
+            assertArrayEquals(expected.edgeFlow(), warm.result().edgeFlow(), what + " warm start");
+        }
+    }
+
+    // After every random capacity change, raises and cuts alike, the repaired flow must be as
+    // large as a fresh solve of the changed network
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"sparse", "grid", "bipartite"})
+    void repairsMatchFreshSolves(String family) {
+        GraphInstance graph = GraphFamilies.create(family, 7);
+        FlowNetwork network = graph.network;
+        int[] capacity = new int[network.edgeCount()];
+        for (int e = 0; e < capacity.length; e++) {
+            capacity[e] = network.edgeCapacity(e);
+        }
+        IncrementalMaxFlow incremental = new IncrementalMaxFlow(network, graph.source, graph.sink);
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (int step = 0; step < 200; step++) {
+            int edge = random.nextInt(capacity.length);
+            int changed = random.nextInt(4) == 0 ? 0 : random.nextInt(2 * capacity[edge] + 2);
+            capacity[edge] = changed;
+            int flow = incremental.setCapacity(edge, changed);
+
+            FlowNetwork fresh = withCapacities(network, capacity);
+            String what = family + " step " + step;
+            assertEquals(new DinicSolver().maxFlow(fresh, graph.source, graph.sink), flow, what);
+            assertMaximum(fresh, graph.source, graph.sink, incremental.result(), what);
+        }
+    }
+
+    @Test
+    void warmStartRepairsAFlowAboveTheNewCapacities() {
+        GraphInstance graph = GraphFamilies.create("grid", 3);
+        FlowNetwork network = graph.network;
+        int[] oldFlow = new DinicSolver().solve(network, graph.source, graph.sink).edgeFlow();
+
+        // Halve every capacity, so many edges carry more than they now hold
+        int[] capacity = new int[network.edgeCount()];
+        for (int e = 0; e < capacity.length; e++) {
+            capacity[e] = network.edgeCapacity(e) / 2;
+        }
+        FlowNetwork halved = withCapacities(network, capacity);
+        IncrementalMaxFlow warm = IncrementalMaxFlow.warmStart(halved, graph.source, graph.sink, oldFlow);
+
+        assertEquals(new DinicSolver().maxFlow(halved, graph.source, graph.sink), warm.maxFlow());
+        assertMaximum(halved, graph.source, graph.sink, warm.result(), "warm start");
+    }
+
+    @Test
+    void budgetStopsTheFirstSolveWithAFeasibleFlow() {
+        GraphInstance graph = GraphFamilies.create("ak", 0);
+        SolveBudget budget = new SolveBudget();
+        budget.cancel();
+        IncrementalMaxFlow incremental = new IncrementalMaxFlow(graph.network, graph.source, graph.sink, null,
+                budget);
+
+        assertFalse(incremental.isMaximum());
+        assertFeasible(graph.network, graph.source, graph.sink, incremental.maxFlow(),
+                incremental.result().edgeFlow(), "stopped solve");
+    }
+
+    @Test
+    void rejectsBadEdits() {
+        GraphInstance graph = GraphFamilies.create("sparse", 1);
+        IncrementalMaxFlow incremental = new IncrementalMaxFlow(graph.network, graph.source, graph.sink);
+
+        assertThrows(IllegalArgumentException.class, () -> incremental.setCapacity(-1, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> incremental.setCapacity(graph.network.edgeCount(), 1));
+        assertThrows(IllegalArgumentException.class, () -> incremental.setCapacity(0, -1));
+    }
+
+    // The same edges in the same order, so edge ids carry over
+    private static FlowNetwork withCapacities(FlowNetwork network, int[] capacity) {
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(network.vertexCount(), network.edgeCount());
+        for (int e = 0; e < network.edgeCount(); e++) {
+            builder.addEdge(network.edgeFrom(e), network.edgeTo(e), capacity[e]);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,96 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongFlowNetworkTest {
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(value = SearchMode.class, names = {"FORWARD", "SCALING"})
+    void agreesWithTheIntEngines(SearchMode mode) {
+        FlowWorkspace workspace = new FlowWorkspace();
+        for (String family : GraphFamilies.NAMES) {
+            GraphInstance graph = GraphFamilies.create(family, 8);
+            int expected = new DinicSolver().maxFlow(graph.network, graph.source, graph.sink);
+
+            LongFlowNetwork wide = LongFlowNetwork.of(graph.network);
+            LongMaxFlowResult result = new LongEdmondsKarpSolver(mode).solve(wide, graph.source, graph.sink,
+                    workspace);
+            assertEquals(expected, result.value(), family);
+            assertMaximum(wide, graph.source, graph.sink, result, family + " " + mode);
+        }
+    }
+
+    // Three disjoint paths of Integer.MAX_VALUE each, and on the long network a direct edge no int
+    // can hold: the int engines must refuse rather than wrap, the long engine must return the sum
+    @Test
+    void flowsPastIntRange() {
+        FlowNetwork.Builder narrow = new FlowNetwork.Builder(5);
+        LongFlowNetwork.Builder wide = new LongFlowNetwork.Builder(5);
+        for (int middle = 1; middle <= 3; middle++) {
+            narrow.addEdge(0, middle, Integer.MAX_VALUE);
+            narrow.addEdge(middle, 4, Integer.MAX_VALUE);
+            wide.addEdge(0, middle, Integer.MAX_VALUE);
+            wide.addEdge(middle, 4, Integer.MAX_VALUE);
+        }
+        wide.addEdge(0, 4, 5_000_000_000L);
+        LongFlowNetwork network = wide.build();
+
+        for (MaxFlowEngine engine : MaxFlowEngine.values()) {
+            assertThrows(ArithmeticException.class, () -> engine.solver().maxFlow(narrow.build(), 0, 4),
+                    engine.toString());
+        }
+        for (SearchMode mode : new SearchMode[]{SearchMode.FORWARD, SearchMode.SCALING}) {
+            LongMaxFlowResult result = new LongEdmondsKarpSolver(mode).solve(network, 0, 4, new FlowWorkspace());
+            assertEquals(3L * Integer.MAX_VALUE + 5_000_000_000L, result.value(), mode.toString());
+            assertMaximum(network, 0, 4, result, mode.toString());
+        }
+    }
+
+    @Test
+    void totalsPastLongRangeThrow() {
+        LongFlowNetwork.Builder builder = new LongFlowNetwork.Builder(2);
+        builder.addEdge(0, 1, Long.MAX_VALUE);
+        builder.addEdge(0, 1, 1);
+        LongFlowNetwork network = builder.build();
+        assertThrows(ArithmeticException.class, () -> new LongEdmondsKarpSolver().maxFlow(network, 0, 1));
+    }
+
+    @Test
+    void rejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> new LongEdmondsKarpSolver(SearchMode.BIDIRECTIONAL));
+        LongFlowNetwork.Builder builder = new LongFlowNetwork.Builder(2);
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge(0, 1, -1));
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge(0, 2, 1));
+        LongFlowNetwork network = builder.build();
+        assertThrows(IllegalArgumentException.class, () -> new LongEdmondsKarpSolver().maxFlow(network, 0, 2));
+    }
+
+    // FlowAssertions.assertMaximum for long capacities
+    private static void assertMaximum(LongFlowNetwork network, int source, int sink, LongMaxFlowResult result,
+                                      String what) {
+        long[] balance = new long[network.vertexCount()];
+        for (int e = 0; e < network.edgeCount(); e++) {
+            long flow = result.edgeFlow()[e];
+            assertTrue(flow >= 0 && flow <= network.edgeCapacity(e), what + ": flow " + flow + " on edge " + e);
+            balance[network.edgeFrom(e)] -= flow;
+            balance[network.edgeTo(e)] += flow;
+        }
+        for (int v = 0; v < balance.length; v++) {
+            if (v != source && v != sink) {
+                assertEquals(0, balance[v], what + ": flow not conserved at vertex " + v);
+            }
+        }
+        assertEquals(result.value(), balance[sink], what + ": net flow into the sink");
+        long cut = 0;
+        for (int e : result.cutEdges()) {
+            cut += network.edgeCapacity(e);
+        }
+        assertEquals(result.value(), cut, what + ": cut capacity");
+    }
+}
@@ -0,0 +1,194 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static maxflow.FlowAssertions.assertFeasible;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Both min-cost engines against each other and against the definition: a maximum flow, whose
+// residual graph has potentials making every reduced cost non-negative, found here by
+// Bellman-Ford rather than read from the engine
+class MinCostFlowTest {
+    private static final MinCostFlowSolver[] ENGINES = {new SuccessiveShortestPathSolver(), new CostScalingSolver()};
+
+    @Test
+    void enginesAgreeOnEveryFamily() {
+        FlowWorkspace workspace = new FlowWorkspace();
+        for (String family : GraphFamilies.NAMES) {
+            GraphInstance graph = GraphFamilies.create(family, 1);
+            int[] cost = randomCosts(graph.network, 0, 100, new SplittableRandom(1));
+            assertOptimal(graph.network, graph.source, graph.sink, cost, workspace, family);
+        }
+    }
+
+    @Test
+    void enginesAgreeOnSmallRandomNetworks() {
+        FlowWorkspace workspace = new FlowWorkspace();
+        for (long seed = 1; seed <= 40; seed++) {
+            SplittableRandom random = new SplittableRandom(seed);
+            int n = 5 + random.nextInt(40);
+            GraphInstance graph = GraphFamilies.randomSparse(n, 5 * n, 20, seed);
+            int[] cost = randomCosts(graph.network, 0, 50, random);
+            assertOptimal(graph.network, graph.source, graph.sink, cost, workspace, "seed " + seed);
+        }
+    }
+
+    // cost(u, v) = base + p(u) - p(v) with base >= 0: many edges cost less than 0, yet every
+    // cycle costs its base sum, so successive shortest paths applies too. Any s-t flow of value F
+    // then costs its base cost plus F * (p(s) - p(t)), so the optimum is known from base costs.
+    @Test
+    void negativeCostsWithoutNegativeCycles() {
+        FlowWorkspace workspace = new FlowWorkspace();
+        for (long seed = 1; seed <= 20; seed++) {
+            SplittableRandom random = new SplittableRandom(seed);
+            GraphInstance graph = GraphFamilies.randomSparse(30, 150, 20, seed);
+            FlowNetwork network = graph.network;
+            int[] base = randomCosts(network, 0, 30, random);
+            int[] p = new int[network.vertexCount()];
+            for (int v = 0; v < p.length; v++) {
+                p[v] = random.nextInt(200);
+            }
+            int[] cost = new int[network.edgeCount()];
+            boolean negative = false;
+            for (int e = 0; e < cost.length; e++) {
+                cost[e] = base[e] + p[network.edgeFrom(e)] - p[network.edgeTo(e)];
+                negative |= cost[e] < 0;
+            }
+            assertTrue(negative, "seed " + seed + " has no negative edge");
+
+            String what = "seed " + seed;
+            MinCostFlowResult shifted = assertOptimal(network, graph.source, graph.sink, cost, workspace, what);
+            MinCostFlowResult plain = new CostScalingSolver().solve(network, graph.source, graph.sink, base);
+            assertEquals(plain.cost() + (long) plain.value() * (p[graph.source] - p[graph.sink]), shifted.cost(), what);
+        }
+    }
+
+    // Successive shortest paths needs potentials and refuses; cost scaling cancels the cycle
+    @Test
+    void negativeCycles() {
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(4);
+        builder.addEdge(0, 1, 5);
+        builder.addEdge(1, 3, 5);
+        builder.addEdge(1, 2, 4);
+        builder.addEdge(2, 1, 3);
+        FlowNetwork network = builder.build();
+        int[] cost = {1, 1, -2, -1};
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new SuccessiveShortestPathSolver().solve(network, 0, 3, cost));
+        MinCostFlowResult result = new CostScalingSolver().solve(network, 0, 3, cost);
+        assertEquals(5, result.value());
+        assertEquals(5 + 5 - 3 * 3, result.cost()); // the cycle 1 -> 2 -> 1 carries 3 at -3 each
+        assertNoNegativeCycle(network, cost, result.edgeFlow(), "negative cycle");
+    }
+
+    // The sink unreachable, and source equal to sink: no flow and no cost, even with negative
+    // edges on offer
+    @Test
+    void noFeasibleFlow() {
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(4);
+        builder.addEdge(0, 1, 5);
+        builder.addEdge(1, 2, 5);
+        builder.addEdge(3, 2, 5);
+        FlowNetwork network = builder.build();
+        int[] cost = {-4, -3, 2};
+
+        for (MinCostFlowSolver engine : ENGINES) {
+            String what = engine.getClass().getSimpleName();
+            FlowWorkspace workspace = new FlowWorkspace();
+            MinCostFlowResult result = engine.solve(network, 0, 3, cost, workspace);
+            assertEquals(0, result.value(), what);
+            assertEquals(0, result.cost(), what);
+            assertEquals(0, workspace.flowCost(), what);
+            for (int flow : result.edgeFlow()) {
+                assertEquals(0, flow, what);
+            }
+            assertTrue(workspace.isMarked(2) && !workspace.isMarked(3), what + ": cut around the sink");
+
+            result = engine.solve(network, 1, 1, cost, workspace);
+            assertEquals(0, result.value(), what + " source = sink");
+            assertEquals(0, result.cost(), what + " source = sink");
+        }
+    }
+
+    @Test
+    void rejectsBadInput() {
+        FlowNetwork network = GraphFamilies.create("sparse", 1).network;
+        for (MinCostFlowSolver engine : ENGINES) {
+            assertThrows(IllegalArgumentException.class, () -> engine.solve(network, 0, 1, new int[3]));
+            assertThrows(IllegalArgumentException.class,
+                    () -> engine.solve(network, 0, network.vertexCount(), new int[network.edgeCount()]));
+        }
+    }
+
+    // Both engines: a maximum flow, of the reported cost, the same cost for both, and optimal
+    private static MinCostFlowResult assertOptimal(FlowNetwork network, int source, int sink, int[] cost,
+                                                   FlowWorkspace workspace, String what) {
+        int maxFlow = new DinicSolver().maxFlow(network, source, sink);
+        MinCostFlowResult first = null;
+        for (MinCostFlowSolver engine : ENGINES) {
+            String with = what + " " + engine.getClass().getSimpleName();
+            MinCostFlowResult result = engine.solve(network, source, sink, cost, workspace);
+            assertEquals(maxFlow, result.value(), with + ": value");
+            assertFeasible(network, source, sink, result.value(), result.edgeFlow(), with);
+            long total = 0;
+            for (int e = 0; e < cost.length; e++) {
+                total += (long) cost[e] * result.edgeFlow()[e];
+            }
+            assertEquals(total, result.cost(), with + ": reported cost");
+            assertNoNegativeCycle(network, cost, result.edgeFlow(), with);
+            if (first == null) {
+                first = result;
+            } else {
+                assertEquals(first.cost(), result.cost(), with + ": cost against the other engine");
+            }
+        }
+        return first;
+    }
+
+    // Bellman-Ford from a virtual root joined to every vertex at cost 0, over the residual arcs
+    // of the flow: it settles within n rounds exactly when the residual graph has no negative
+    // cycle, and then its distances are potentials under which every residual arc costs >= 0
+    private static void assertNoNegativeCycle(FlowNetwork network, int[] cost, int[] edgeFlow, String what) {
+        int n = network.vertexCount();
+        long[] potential = new long[n];
+        boolean changed = true;
+        for (int round = 0; changed; round++) {
+            assertTrue(round <= n, what + ": negative-cost cycle in the residual graph");
+            changed = false;
+            for (int e = 0; e < cost.length; e++) {
+                int u = network.edgeFrom(e);
+                int v = network.edgeTo(e);
+                if (edgeFlow[e] < network.edgeCapacity(e) && potential[u] + cost[e] < potential[v]) {
+                    potential[v] = potential[u] + cost[e];
+                    changed = true;
+                }
+                if (edgeFlow[e] > 0 && potential[v] - cost[e] < potential[u]) {
+                    potential[u] = potential[v] - cost[e];
+                    changed = true;
+                }
+            }
+        }
+        for (int e = 0; e < cost.length; e++) {
+            long reduced = cost[e] + potential[network.edgeFrom(e)] - potential[network.edgeTo(e)];
+            if (edgeFlow[e] < network.edgeCapacity(e)) {
+                assertTrue(reduced >= 0, what + ": edge " + e + " has reduced cost " + reduced);
+            }
+            if (edgeFlow[e] > 0) {
+                assertTrue(-reduced >= 0, what + ": reverse of edge " + e + " has reduced cost " + -reduced);
+            }
+        }
+    }
+
+    private static int[] randomCosts(FlowNetwork network, int low, int high, SplittableRandom random) {
+        int[] cost = new int[network.edgeCount()];
+        for (int e = 0; e < cost.length; e++) {
+            cost[e] = low + random.nextInt(high - low + 1);
+        }
+        return cost;
+    }
+}
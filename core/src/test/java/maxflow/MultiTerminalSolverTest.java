@@ -0,0 +1,236 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// MultiTerminalSolver against Dinic on the reduction it avoids building: a super-source feeding
+// every source, a super-sink fed by every sink, and each vertex v split into an in-vertex 2v and
+// an out-vertex 2v + 1 joined by an edge of v's capacity
+class MultiTerminalSolverTest {
+
+    @Test
+    void matchesTheSplitReductionOnEveryFamily() {
+        FlowWorkspace workspace = new FlowWorkspace();
+        for (String family : GraphFamilies.NAMES) {
+            for (long seed = 1; seed <= 3; seed++) {
+                FlowNetwork network = GraphFamilies.create(family, seed).network;
+                SplittableRandom random = new SplittableRandom(seed);
+                int[][] terminals = terminals(network.vertexCount(), 1 + random.nextInt(4), random);
+                String what = family + " seed " + seed;
+
+                // Unlimited vertices, then limits tight enough to cut through
+                int[] capacity = new int[network.vertexCount()];
+                for (int v = 0; v < capacity.length; v++) {
+                    capacity[v] = random.nextInt(3) == 0 ? 1 + random.nextInt(60) : MultiTerminalSolver.UNLIMITED;
+                }
+                for (int[] vertexCapacity : new int[][]{null, capacity}) {
+                    MaxFlowResult result = new MultiTerminalSolver().solve(network, terminals[0], terminals[1],
+                            vertexCapacity, workspace);
+                    String with = what + (vertexCapacity == null ? "" : " with vertex capacities");
+                    assertEquals(reductionFlow(network, terminals[0], terminals[1], vertexCapacity), result.value(),
+                            with);
+                    assertMinimum(network, terminals[0], terminals[1], vertexCapacity, result, with);
+                }
+            }
+        }
+    }
+
+    // s -> a -> t with edges of 10 but a passes only 3: the cut is the vertex, not an edge
+    @Test
+    void cutsThroughASaturatedVertex() {
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(4);
+        builder.addEdge(0, 1, 10);
+        builder.addEdge(1, 3, 10);
+        builder.addEdge(2, 3, 4);
+        FlowNetwork network = builder.build();
+        int[] sources = {0, 2};
+        int[] sinks = {3};
+        int unlimited = MultiTerminalSolver.UNLIMITED;
+        int[] capacity = {unlimited, 3, unlimited, unlimited};
+
+        MaxFlowResult result = new MultiTerminalSolver().solve(network, sources, sinks, capacity);
+        assertEquals(7, result.value());
+        assertEquals(reductionFlow(network, sources, sinks, capacity), result.value());
+        assertArrayEquals(new int[]{1}, result.cutVertices());
+        assertArrayEquals(new int[]{2}, result.cutEdges());
+        assertMinimum(network, sources, sinks, capacity, result, "saturated vertex");
+
+        // A terminal's own capacity limits what it sends
+        capacity[2] = 1;
+        assertEquals(4, new MultiTerminalSolver().maxFlow(network, sources, sinks, capacity, null,
+                new FlowWorkspace()));
+    }
+
+    @Test
+    void listenerHearsEveryPath() {
+        FlowNetwork network = GraphFamilies.create("grid", 5).network;
+        int[][] terminals = terminals(network.vertexCount(), 3, new SplittableRandom(5));
+        int[] capacity = new int[network.vertexCount()];
+        Arrays.fill(capacity, 25);
+
+        long[] heard = new long[2]; // paths, flow
+        FlowListener listener = (path, length, pathFlow, totalFlow) -> {
+            assertTrue(contains(terminals[0], path[0]), "path starts at a source");
+            assertTrue(contains(terminals[1], path[length - 1]), "path ends at a sink");
+            for (int i = 1; i < length; i++) {
+                assertTrue(adjacent(network, path[i - 1], path[i]), "step " + path[i - 1] + " -> " + path[i]);
+            }
+            heard[0]++;
+            heard[1] += pathFlow;
+            assertEquals(heard[1], totalFlow);
+        };
+        FlowWorkspace workspace = new FlowWorkspace();
+        int value = new MultiTerminalSolver(listener).maxFlow(network, terminals[0], terminals[1], capacity, null,
+                workspace);
+        assertEquals(value, heard[1]);
+        assertEquals(workspace.augmentations(), heard[0]);
+    }
+
+    // Cancelled after the first path, and before any: either way a feasible flow, not a cut
+    @Test
+    void stopsAtTheBudgetWithAFeasibleFlow() {
+        FlowNetwork network = GraphFamilies.create("sparse", 6).network;
+        int[][] terminals = terminals(network.vertexCount(), 3, new SplittableRandom(6));
+        int full = new MultiTerminalSolver().maxFlow(network, terminals[0], terminals[1], null, null,
+                new FlowWorkspace());
+
+        SolveBudget budget = new SolveBudget();
+        FlowWorkspace workspace = new FlowWorkspace();
+        workspace.setBudget(budget);
+        MaxFlowResult stopped = new MultiTerminalSolver((path, length, pathFlow, totalFlow) -> budget.cancel())
+                .solve(network, terminals[0], terminals[1], null, workspace);
+        assertTrue(workspace.stoppedEarly());
+        assertEquals(1, workspace.augmentations());
+        assertTrue(stopped.value() > 0 && stopped.value() < full, "stopped at " + stopped.value() + " of " + full);
+        assertFeasible(network, terminals[0], terminals[1], null, stopped, "stopped");
+        for (int s : terminals[0]) {
+            assertTrue(stopped.onSourceSide(s), "source " + s + " reaches itself");
+        }
+
+        MaxFlowResult none = new MultiTerminalSolver().solve(network, terminals[0], terminals[1], null, workspace);
+        assertTrue(workspace.stoppedEarly());
+        assertEquals(0, none.value());
+
+        workspace.setBudget(null);
+        assertEquals(full, new MultiTerminalSolver().solve(network, terminals[0], terminals[1], null, workspace)
+                .value());
+        assertFalse(workspace.stoppedEarly());
+    }
+
+    @Test
+    void rejectsBadInput() {
+        FlowNetwork network = GraphFamilies.create("sparse", 1).network;
+        MultiTerminalSolver solver = new MultiTerminalSolver();
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(network, new int[0], new int[]{1}, null));
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(network, new int[]{1}, new int[]{1}, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> solver.solve(network, new int[]{0}, new int[]{network.vertexCount()}, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> solver.solve(network, new int[]{0}, new int[]{1}, new int[1]));
+        int[] negative = new int[network.vertexCount()];
+        negative[3] = -1;
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(network, new int[]{0}, new int[]{1}, negative));
+    }
+
+    // Dinic on the split graph, from super-source 2n to super-sink 2n + 1
+    private static int reductionFlow(FlowNetwork network, int[] sources, int[] sinks, int[] vertexCapacity) {
+        int n = network.vertexCount();
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(2 * n + 2);
+        for (int v = 0; v < n; v++) {
+            builder.addEdge(2 * v, 2 * v + 1, vertexCapacity == null ? Integer.MAX_VALUE : vertexCapacity[v]);
+        }
+        for (int e = 0; e < network.edgeCount(); e++) {
+            builder.addEdge(2 * network.edgeFrom(e) + 1, 2 * network.edgeTo(e), network.edgeCapacity(e));
+        }
+        for (int s : sources) {
+            builder.addEdge(2 * n, 2 * s, Integer.MAX_VALUE);
+        }
+        for (int t : sinks) {
+            builder.addEdge(2 * t + 1, 2 * n + 1, Integer.MAX_VALUE);
+        }
+        return new DinicSolver().maxFlow(builder.build(), 2 * n, 2 * n + 1);
+    }
+
+    // A feasible flow whose value is the capacity of the reported cut edges and cut vertices
+    private static void assertMinimum(FlowNetwork network, int[] sources, int[] sinks, int[] vertexCapacity,
+                                      MaxFlowResult result, String what) {
+        assertFeasible(network, sources, sinks, vertexCapacity, result, what);
+        long cut = 0;
+        for (int e : result.cutEdges()) {
+            assertTrue(result.onSourceSide(network.edgeFrom(e)), what + ": cut edge " + e + " from the sink side");
+            cut += network.edgeCapacity(e);
+        }
+        for (int v : result.cutVertices()) {
+            assertTrue(result.onSourceSide(v), what + ": cut vertex " + v + " on the sink side");
+            cut += vertexCapacity[v];
+        }
+        assertEquals(result.value(), cut, what + ": cut capacity");
+    }
+
+    // Edges within capacity, flow conserved and within its capacity at every non-terminal vertex,
+    // and value the net flow into the sinks
+    private static void assertFeasible(FlowNetwork network, int[] sources, int[] sinks, int[] vertexCapacity,
+                                       MaxFlowResult result, String what) {
+        long[] in = new long[network.vertexCount()];
+        long[] out = new long[network.vertexCount()];
+        for (int e = 0; e < network.edgeCount(); e++) {
+            int flow = result.edgeFlow()[e];
+            assertTrue(flow >= 0 && flow <= network.edgeCapacity(e), what + ": flow " + flow + " on edge " + e);
+            out[network.edgeFrom(e)] += flow;
+            in[network.edgeTo(e)] += flow;
+        }
+        long intoSinks = 0;
+        for (int v = 0; v < in.length; v++) {
+            if (contains(sinks, v)) {
+                intoSinks += in[v] - out[v];
+            } else if (!contains(sources, v)) {
+                assertEquals(in[v], out[v], what + ": flow not conserved at vertex " + v);
+                if (vertexCapacity != null) {
+                    assertTrue(in[v] <= vertexCapacity[v], what + ": vertex " + v + " over its capacity");
+                }
+            }
+        }
+        assertEquals(result.value(), intoSinks, what + ": net flow into the sinks");
+    }
+
+    // count distinct sources, then count distinct sinks
+    private static int[][] terminals(int n, int count, SplittableRandom random) {
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        for (int i = 0; i < 2 * count; i++) {
+            int j = i + random.nextInt(n - i);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return new int[][]{Arrays.copyOfRange(order, 0, count),
+                Arrays.copyOfRange(order, count, 2 * count)};
+    }
+
+    private static boolean contains(int[] vertices, int v) {
+        for (int u : vertices) {
+            if (u == v) return true;
+        }
+        return false;
+    }
+
+    // Joined by an edge either way, which a residual path may use forwards or backwards
+    private static boolean adjacent(FlowNetwork network, int u, int v) {
+        for (int e = 0; e < network.edgeCount(); e++) {
+            int from = network.edgeFrom(e);
+            int to = network.edgeTo(e);
+            if (from == u && to == v || from == v && to == u) return true;
+        }
+        return false;
+    }
+}
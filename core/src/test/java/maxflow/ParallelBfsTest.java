@@ -0,0 +1,83 @@
+package maxflow;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static maxflow.FlowAssertions.assertMaximum;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelBfsTest {
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    // A threshold of 1 forces the parallel search onto graphs this small
+    @Test
+    void matchesTheSequentialSearchOnEveryFamily() {
+        MaxFlowSolver parallel = new EdmondsKarpSolver(null, pool, 1);
+        FlowWorkspace workspace = new FlowWorkspace();
+        for (String family : GraphFamilies.NAMES) {
+            for (long seed = 1; seed <= 3; seed++) {
+                GraphInstance graph = GraphFamilies.create(family, seed);
+                String what = family + " seed " + seed;
+                MaxFlowResult result = parallel.solve(graph.network, graph.source, graph.sink, workspace);
+                assertEquals(new EdmondsKarpSolver().maxFlow(graph.network, graph.source, graph.sink), result.value(),
+                        what);
+                assertMaximum(graph.network, graph.source, graph.sink, result, what);
+            }
+        }
+    }
+
+    // Levels wide enough to split into many leaf steps and to go bottom-up, on one workspace
+    // whose buffers and level state carry over between networks of different sizes
+    @Test
+    void reusedWorkspaceAcrossSizes() throws IOException {
+        MaxFlowSolver parallel = new EdmondsKarpSolver(null, pool, 1);
+        FlowWorkspace workspace = new FlowWorkspace();
+        int[] sizes = {40_000, 3_000, 60_000, 500};
+        for (int i = 0; i < sizes.length; i++) {
+            int n = sizes[i];
+            FlowNetwork network = randomSparse(n, 6 * n, i);
+            String what = n + " vertices";
+            int expected = new DinicSolver().maxFlow(network, 0, n - 1);
+
+            MaxFlowResult result = parallel.solve(network, 0, n - 1, workspace);
+            assertEquals(expected, result.value(), what);
+            assertMaximum(network, 0, n - 1, result, what);
+
+            StoredFlowNetwork stored = StoredFlowNetwork.copyOf(network, IntStorage.HEAP);
+            assertEquals(expected, parallel.maxFlow(stored, 0, n - 1, null, workspace), what + " stored");
+        }
+    }
+
+    @Test
+    void rejectsNegativeThresholds() {
+        assertThrows(IllegalArgumentException.class, () -> new EdmondsKarpSolver(null, pool, -1));
+    }
+
+    // GraphFamilies.randomSparse without the dense matrix, which would not fit at these sizes
+    private static FlowNetwork randomSparse(int n, int m, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(n, m);
+        for (int i = 0; i < m; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            if (u != v) builder.addEdge(u, v, 1 + random.nextInt(50));
+        }
+        return builder.build();
+    }
+}
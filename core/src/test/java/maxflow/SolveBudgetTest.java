@@ -0,0 +1,179 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import static maxflow.FlowAssertions.assertFeasible;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// However a budget stops a solve, the flow it returns must be feasible, its value must be the
+// workspace's flowSoFar(), the source must still be marked, and the next solve on the same
+// workspace without a budget must run to the maximum
+class SolveBudgetTest {
+    private static final String[] FAMILIES = {"sparse", "grid", "bipartite"};
+
+    // Cancelled by the listener once the first path is in: every engine that reports paths
+    @Test
+    void everyEngineStopsMidSolve() throws IOException {
+        for (String family : FAMILIES) {
+            GraphInstance graph = GraphFamilies.create(family, 2);
+            int max = new DinicSolver().maxFlow(graph.network, graph.source, graph.sink);
+            StoredFlowNetwork stored = StoredFlowNetwork.copyOf(graph.network, IntStorage.DIRECT);
+            for (MaxFlowEngine engine : MaxFlowEngine.values()) {
+                if (engine == MaxFlowEngine.PUSH_RELABEL) continue; // no paths to stop after
+                String what = family + " " + engine;
+
+                SolveBudget budget = new SolveBudget();
+                FlowListener cancel = (path, length, pathFlow, totalFlow) -> budget.cancel();
+                FlowWorkspace workspace = new FlowWorkspace();
+                workspace.setBudget(budget);
+                int[] edgeFlow = new int[graph.network.edgeCount()];
+                int value = engine.solver(cancel).maxFlow(graph.network, graph.source, graph.sink, edgeFlow,
+                        workspace);
+                assertStopped(graph, max, value, edgeFlow, workspace, what);
+                assertTrue(value > 0, what + ": nothing before the stop");
+                assertRunsToTheEnd(engine.solver(), graph, max, workspace, what);
+
+                SolveBudget storedBudget = new SolveBudget();
+                workspace.setBudget(storedBudget);
+                IntStorage storedFlow = IntStorage.HEAP.allocate(stored.edgeCount());
+                value = engine.solver((path, length, pathFlow, totalFlow) -> storedBudget.cancel())
+                        .maxFlow(stored, graph.source, graph.sink, storedFlow, workspace);
+                assertStopped(graph, max, value, toArray(storedFlow), workspace, what + " stored");
+            }
+        }
+    }
+
+    // Cancelled before the solve starts: every engine, including push-relabel, whose preflow
+    // from the source must still go back, the forced parallel search and the long engine
+    @Test
+    void everyEngineStopsBeforeStarting() throws IOException {
+        for (String family : FAMILIES) {
+            GraphInstance graph = GraphFamilies.create(family, 3);
+            int max = new DinicSolver().maxFlow(graph.network, graph.source, graph.sink);
+            StoredFlowNetwork stored = StoredFlowNetwork.copyOf(graph.network, IntStorage.HEAP);
+            MaxFlowSolver[] solvers = new MaxFlowSolver[MaxFlowEngine.values().length + 1];
+            for (MaxFlowEngine engine : MaxFlowEngine.values()) {
+                solvers[engine.ordinal()] = engine.solver();
+            }
+            solvers[solvers.length - 1] = new EdmondsKarpSolver(null, ForkJoinPool.commonPool(), 1);
+
+            for (MaxFlowSolver solver : solvers) {
+                String what = family + " " + solver.getClass().getSimpleName();
+                FlowWorkspace workspace = cancelled();
+                int[] edgeFlow = new int[graph.network.edgeCount()];
+                int value = solver.maxFlow(graph.network, graph.source, graph.sink, edgeFlow, workspace);
+                assertStopped(graph, max, value, edgeFlow, workspace, what);
+
+                workspace = cancelled();
+                IntStorage storedFlow = IntStorage.HEAP.allocate(stored.edgeCount());
+                value = solver.maxFlow(stored, graph.source, graph.sink, storedFlow, workspace);
+                assertStopped(graph, max, value, toArray(storedFlow), workspace, what + " stored");
+            }
+
+            FlowWorkspace workspace = cancelled();
+            LongFlowNetwork wide = LongFlowNetwork.of(graph.network);
+            long[] wideFlow = new long[wide.edgeCount()];
+            long value = new LongEdmondsKarpSolver().maxFlow(wide, graph.source, graph.sink, wideFlow, workspace);
+            assertTrue(workspace.stoppedEarly(), family + " long");
+            assertEquals(0, value, family + " long");
+            assertEquals(value, workspace.flowSoFar(), family + " long");
+        }
+    }
+
+    // Successive shortest paths stops between paths; cost scaling between phases, after its
+    // maximum flow, or inside that flow's Dinic solve if the budget is already gone
+    @Test
+    void minCostEnginesStopWithAFeasibleFlow() {
+        GraphInstance graph = GraphFamilies.create("grid", 4);
+        int max = new DinicSolver().maxFlow(graph.network, graph.source, graph.sink);
+        int[] cost = new int[graph.network.edgeCount()];
+        for (int e = 0; e < cost.length; e++) {
+            cost[e] = e % 17;
+        }
+
+        SolveBudget budget = new SolveBudget();
+        FlowWorkspace workspace = new FlowWorkspace();
+        workspace.setBudget(budget);
+        MinCostFlowResult result = new SuccessiveShortestPathSolver((path, length, pathFlow, totalFlow) -> {
+            if (totalFlow >= max / 2) budget.cancel();
+        }).solve(graph.network, graph.source, graph.sink, cost, workspace);
+        assertStopped(graph, max, result.value(), result.edgeFlow(), workspace, "successive shortest paths");
+        assertTrue(result.value() >= max / 2, "successive shortest paths stopped too soon");
+
+        workspace = cancelled();
+        result = new CostScalingSolver().solve(graph.network, graph.source, graph.sink, cost, workspace);
+        assertStopped(graph, max, result.value(), result.edgeFlow(), workspace, "cost scaling");
+    }
+
+    @Test
+    void timeLimits() {
+        GraphInstance graph = GraphFamilies.create("sparse", 5);
+        int max = new DinicSolver().maxFlow(graph.network, graph.source, graph.sink);
+        FlowWorkspace workspace = new FlowWorkspace();
+
+        workspace.setBudget(SolveBudget.timeLimit(Duration.ZERO));
+        int[] edgeFlow = new int[graph.network.edgeCount()];
+        int value = new EdmondsKarpSolver().maxFlow(graph.network, graph.source, graph.sink, edgeFlow, workspace);
+        assertStopped(graph, max, value, edgeFlow, workspace, "no time");
+
+        // Far past what the deadline arithmetic could hold, so clamped rather than wrapped
+        workspace.setBudget(SolveBudget.timeLimit(Duration.ofSeconds(Long.MAX_VALUE)));
+        assertEquals(max, new EdmondsKarpSolver().maxFlow(graph.network, graph.source, graph.sink, null, workspace));
+        assertFalse(workspace.stoppedEarly());
+
+        assertThrows(IllegalArgumentException.class, () -> SolveBudget.timeLimit(Duration.ofMillis(-1)));
+    }
+
+    // Without a budget flowSoFar() ends at the value, for path and push engines alike
+    @Test
+    void flowSoFarEndsAtTheValue() {
+        FlowWorkspace workspace = new FlowWorkspace();
+        for (String family : GraphFamilies.NAMES) {
+            GraphInstance graph = GraphFamilies.create(family, 6);
+            for (MaxFlowEngine engine : MaxFlowEngine.values()) {
+                int value = engine.solver().maxFlow(graph.network, graph.source, graph.sink, null, workspace);
+                assertEquals(value, workspace.flowSoFar(), family + " " + engine);
+            }
+        }
+    }
+
+    private static FlowWorkspace cancelled() {
+        SolveBudget budget = new SolveBudget();
+        budget.cancel();
+        assertTrue(budget.isCancelled());
+        FlowWorkspace workspace = new FlowWorkspace();
+        workspace.setBudget(budget);
+        return workspace;
+    }
+
+    private static void assertStopped(GraphInstance graph, int max, long value, int[] edgeFlow,
+                                      FlowWorkspace workspace, String what) {
+        assertTrue(workspace.stoppedEarly(), what + ": not stopped");
+        assertTrue(value <= max, what + ": " + value + " over the maximum " + max);
+        assertFeasible(graph.network, graph.source, graph.sink, value, edgeFlow, what);
+        assertEquals(value, workspace.flowSoFar(), what + ": flow so far");
+        assertTrue(workspace.isMarked(graph.source), what + ": source not marked");
+    }
+
+    private static void assertRunsToTheEnd(MaxFlowSolver solver, GraphInstance graph, int max,
+                                           FlowWorkspace workspace, String what) {
+        workspace.setBudget(null);
+        assertEquals(max, solver.maxFlow(graph.network, graph.source, graph.sink, null, workspace), what + " rerun");
+        assertFalse(workspace.stoppedEarly(), what + " rerun");
+    }
+
+    private static int[] toArray(IntStorage storage) {
+        int[] values = new int[storage.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = storage.get(i);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,89 @@
+package maxflow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static maxflow.FlowAssertions.assertMaximum;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Every engine must solve a network in IntStorage exactly as it solves the same edges in int[]
+// arrays: same value, a feasible flow, and marks that give a cut of the same capacity
+class StoredFlowNetworkTest {
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"sparse", "dense", "grid", "bipartite", "ak"})
+    void everyEngineSolvesStoredNetworks(String family) throws IOException {
+        GraphInstance graph = GraphFamilies.create(family, 2);
+        int expected = new DinicSolver().maxFlow(graph.network, graph.source, graph.sink);
+        StoredFlowNetwork stored = StoredFlowNetwork.copyOf(graph.network, IntStorage.DIRECT);
+
+        FlowWorkspace workspace = new FlowWorkspace();
+        for (MaxFlowEngine engine : MaxFlowEngine.values()) {
+            assertSolves(engine.solver(), graph, stored, workspace, expected, family + " " + engine);
+        }
+        // Parallel BFS only kicks in on large graphs unless told otherwise
+        assertSolves(new EdmondsKarpSolver(null, ForkJoinPool.commonPool(), 1), graph, stored, workspace,
+                expected, family + " parallel BFS");
+    }
+
+    @Test
+    void everyStorageGivesTheSameFlow() throws IOException {
+        GraphInstance graph = GraphFamilies.create("grid", 6);
+        int expected = new DinicSolver().maxFlow(graph.network, graph.source, graph.sink);
+        IntStorage.Factory[] storages = {IntStorage.HEAP, IntStorage.DIRECT, IntStorage.mapped(directory)};
+        String[] names = {"heap", "direct", "mapped"};
+
+        FlowWorkspace workspace = new FlowWorkspace();
+        for (int i = 0; i < storages.length; i++) {
+            StoredFlowNetwork stored = StoredFlowNetwork.copyOf(graph.network, storages[i]);
+            for (MaxFlowEngine engine : MaxFlowEngine.values()) {
+                assertSolves(engine.solver(), graph, stored, workspace, expected, names[i] + " " + engine);
+            }
+        }
+    }
+
+    @Test
+    void listenerHearsTheSamePaths() throws IOException {
+        GraphInstance graph = GraphFamilies.create("sparse", 3);
+        StoredFlowNetwork stored = StoredFlowNetwork.copyOf(graph.network, IntStorage.HEAP);
+        for (MaxFlowEngine engine : new MaxFlowEngine[]{MaxFlowEngine.EDMONDS_KARP_BIDIRECTIONAL, MaxFlowEngine.DINIC}) {
+            StringBuilder arrays = new StringBuilder();
+            StringBuilder storage = new StringBuilder();
+            engine.solver(recorder(arrays)).maxFlow(graph.network, graph.source, graph.sink);
+            engine.solver(recorder(storage)).maxFlow(stored, graph.source, graph.sink);
+            assertEquals(arrays.toString(), storage.toString(), engine.toString());
+        }
+    }
+
+    private static FlowListener recorder(StringBuilder out) {
+        return (path, length, pathFlow, totalFlow) -> {
+            for (int i = 0; i < length; i++) {
+                out.append(path[i]).append(' ');
+            }
+            out.append(": ").append(pathFlow).append('\n');
+        };
+    }
+
+    private static void assertSolves(MaxFlowSolver solver, GraphInstance graph, StoredFlowNetwork stored,
+                                     FlowWorkspace workspace, int expected, String what) throws IOException {
+        IntStorage storedFlow = IntStorage.HEAP.allocate(stored.edgeCount());
+        int value = solver.maxFlow(stored, graph.source, graph.sink, storedFlow, workspace);
+        assertEquals(expected, value, what);
+
+        int[] edgeFlow = new int[stored.edgeCount()];
+        for (int e = 0; e < edgeFlow.length; e++) {
+            edgeFlow[e] = storedFlow.get(e);
+        }
+        // Same edge ids and vertices, so the marks read as a cut of the heap network
+        MaxFlowResult result = MaxFlowResult.of(graph.network, value, edgeFlow, workspace);
+        assertMaximum(graph.network, graph.source, graph.sink, result, what);
+    }
+}
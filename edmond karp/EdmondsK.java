@@ -1,9 +1,19 @@
+import maxflow.FlowNetwork;
+import maxflow.IncrementalMaxFlow;
+import maxflow.MaxFlowEngine;
+import maxflow.SolveBudget;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 public class EdmondsK extends JFrame {
+    private SolveBudget running; // budget of the calculation in progress, for the Cancel button
+
     public EdmondsK() {
         // Set up the main window
         setTitle("Edmonds-Karp Max Flow Visualization");
@@ -19,10 +29,29 @@ public class EdmondsK extends JFrame {
         JPanel controls = new JPanel();
         controls.setLayout(new FlowLayout());
 
+        // Engine used for the calculation
+        JComboBox<MaxFlowEngine> engineBox = new JComboBox<>(MaxFlowEngine.values());
+        controls.add(engineBox);
+
+        // Formatting every augmenting path costs more than the search itself, so it is opt-in
+        JCheckBox recordPathsBox = new JCheckBox("Record paths");
+        controls.add(recordPathsBox);
+
+        // Optional time limit; when it runs out, the best flow found so far is shown
+        controls.add(new JLabel("Time limit (s):"));
+        JTextField timeLimitField = new JTextField(4);
+        controls.add(timeLimitField);
+
         // Button to calculate max flow
         JButton calculateMaxFlowButton = new JButton("Calculate Max Flow");
         controls.add(calculateMaxFlowButton);
 
+        // Button to stop the calculation at the next augmentation, keeping the flow found so far
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(e -> running.cancel());
+        controls.add(cancelButton);
+
         // Label to display the maximum flow
         JLabel maxFlowLabel = new JLabel("Max Flow: ");
         controls.add(maxFlowLabel);
@@ -39,9 +68,31 @@ public class EdmondsK extends JFrame {
                 int sourceIndex = graphPanel.getNodeIndexByName(sourceInput);
                 int sinkIndex = graphPanel.getNodeIndexByName(sinkInput);
 
-                if (sourceIndex != -1 && sinkIndex != -1) {
-                    int maxFlow = graphPanel.runEdmondsKarp(sourceIndex, sinkIndex);
-                    maxFlowLabel.setText("Max Flow: " + maxFlow);
+                if (graphPanel.getNodeCount() < 2) {
+                    JOptionPane.showMessageDialog(this, "!! 2 NODES needed atleast.");
+                } else if (sourceIndex != -1 && sinkIndex != -1) {
+                    try {
+                        running = SolveWorker.parseBudget(timeLimitField.getText());
+                    } catch (IllegalArgumentException ex) {
+                        JOptionPane.showMessageDialog(this, "Invalid time limit. Please enter seconds or leave it empty.");
+                        return;
+                    }
+                    Runnable finished = () -> {
+                        calculateMaxFlowButton.setEnabled(true);
+                        cancelButton.setEnabled(false);
+                    };
+                    calculateMaxFlowButton.setEnabled(false);
+                    cancelButton.setEnabled(true);
+                    // Once launched, the task re-enables the buttons; if building or launching it
+                    // throws, nothing else would
+                    boolean launched = false;
+                    try {
+                        graphPanel.runMaxFlow(sourceIndex, sinkIndex, (MaxFlowEngine) engineBox.getSelectedItem(),
+                                recordPathsBox.isSelected(), running, maxFlowLabel::setText, finished);
+                        launched = true;
+                    } finally {
+                        if (!launched) finished.run();
+                    }
                 } else {
                     JOptionPane.showMessageDialog(this, "Invalid source or sink node name. Please try again.");
                 }
@@ -61,14 +112,12 @@ public class EdmondsK extends JFrame {
 class GraphPanel extends JPanel {
     private final ArrayList<Node> nodes = new ArrayList<>(); // List of nodes in the graph
     private final ArrayList<Edge> edges = new ArrayList<>(); // List of edges in the graph
-    private final int[][] capacityMatrix; // Capacity matrix of the graph
-    private final int[][] residualCapacity; // Residual capacity matrix
     private final ArrayList<String> augmentedPaths; // List of augmented paths found during max flow calculation
     private Node firstSelectedNode = null; // The first node selected for creating an edge
+    private IncrementalMaxFlow solution = null; // Last Edmonds-Karp result, repaired after capacity edits
+    private int revision; // bumped on every edge change, so a solve can tell its network went stale
 
     public GraphPanel() {
-        capacityMatrix = new int[50][50]; 
-        residualCapacity = new int[50][50]; 
         augmentedPaths = new ArrayList<>(); 
         setBackground(Color.WHITE);
 
@@ -101,12 +150,24 @@ class GraphPanel extends JPanel {
         } else if (firstSelectedNode != clickedNode) {
             // Second node selected so a prompt for edge capacity
             String capacityInput = JOptionPane.showInputDialog(this, "Enter capacity for the directed edge:");
-            try {
-                int capacity = Integer.parseInt(capacityInput);
-                edges.add(new Edge(firstSelectedNode, clickedNode, capacity));
-                capacityMatrix[nodes.indexOf(firstSelectedNode)][nodes.indexOf(clickedNode)] = capacity;
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, "Invalid capacity. Please enter a number.");
+            int capacity = parseCapacity(capacityInput);
+            if (capacity < 0) {
+                // The solvers reject negative capacities, so they never reach the drawn graph
+                JOptionPane.showMessageDialog(this, "Invalid capacity. Please enter a non-negative number.");
+            } else {
+                int existing = getEdgeIndex(firstSelectedNode, clickedNode);
+                revision++;
+                if (existing == -1) {
+                    edges.add(new Edge(firstSelectedNode, clickedNode, capacity));
+                    solution = null; // a new edge changes the network, so the next run starts over
+                } else {
+                    // Selecting an existing edge edits its capacity and repairs the last flow
+                    edges.get(existing).setCapacity(capacity);
+                    if (solution != null) {
+                        repairInBackground(solution, existing, capacity);
+                        solution = null; // until the repair is back, Calculate solves from scratch
+                    }
+                }
             }
             firstSelectedNode.setSelected(false); // color change to green
             firstSelectedNode = null;
@@ -117,6 +178,51 @@ class GraphPanel extends JPanel {
         }
     }
 
+    // Repair the flow after a capacity edit on a background thread, like a calculation. The repaired
+    // solution is only kept if no other edit came in meanwhile; if the repair fails there is none.
+    private void repairInBackground(IncrementalMaxFlow stale, int edge, int capacity) {
+        int startRevision = revision;
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return stale.setCapacity(edge, capacity);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    if (revision == startRevision) {
+                        solution = stale;
+                        showFlows();
+                        repaint();
+                    }
+                } catch (InterruptedException | ExecutionException ex) {
+                    JOptionPane.showMessageDialog(GraphPanel.this, "Repairing the flow failed: " + ex.getCause());
+                }
+            }
+        }.execute();
+    }
+
+    // The capacity typed in, or -1 if it is not a non-negative number
+    private static int parseCapacity(String input) {
+        try {
+            return Integer.parseInt(input);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    // Get the index of the edge from -> to, or -1 if there is none
+    private int getEdgeIndex(Node from, Node to) {
+        for (int i = 0; i < edges.size(); i++) {
+            if (edges.get(i).getFrom() == from && edges.get(i).getTo() == to) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     // Get the node at the given (x, y) coordinates
     private Node getNodeAt(int x, int y) {
         for (Node node : nodes) {
@@ -138,67 +244,99 @@ class GraphPanel extends JPanel {
     }
 
 
-    public int runEdmondsKarp(int source, int sink) {
-        if (nodes.size() < 2) {
-            JOptionPane.showMessageDialog(this, "!! 2 NODES needed atleast.");
-            return 0;
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    // Solve on the sparse edge list with the chosen engine, on a background thread, and show the flow
+    // on each edge when done. status hears progress and the result; finished runs once it is over.
+    public void runMaxFlow(int source, int sink, MaxFlowEngine engine, boolean recordPaths, SolveBudget budget,
+                           Consumer<String> status, Runnable finished) {
+        if (engine == MaxFlowEngine.EDMONDS_KARP && solution != null && solution.isMaximum()
+                && solution.source() == source && solution.sink() == sink) {
+            status.accept("Max Flow: " + solution.maxFlow()); // already repaired after every capacity edit
+            finished.run();
+            return;
         }
 
-        // Initialize residual capacity matrix with the original capacity matrix
-        for (int i = 0; i < nodes.size(); i++) {
-            System.arraycopy(capacityMatrix[i], 0, residualCapacity[i], 0, nodes.size());
+        // Snapshot the graph, so edits made while the solve runs do not reach the solver
+        FlowNetwork.Builder builder = new FlowNetwork.Builder(nodes.size(), edges.size());
+        for (Edge edge : edges) {
+            builder.addEdge(nodes.indexOf(edge.getFrom()), nodes.indexOf(edge.getTo()), edge.getCapacity());
+        }
+        String[] names = new String[nodes.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = nodes.get(i).getName();
         }
 
-        int maxFlow = 0; // Initialize max flow
         augmentedPaths.clear(); // Clear previous augmented paths
+        solution = null;
+        status.accept("Max Flow: solving...");
+        repaint();
+        new MaxFlowTask(builder.build(), source, sink, engine, recordPaths, budget, names, status, finished).start();
+    }
 
-        // Perform BFS to find augmenting paths
-        while (true) {
-            int[] parent = new int[nodes.size()]; // Array to store the path
-            Arrays.fill(parent, -1);
-            Queue<Integer> queue = new LinkedList<>();
-            queue.add(source);
-            parent[source] = source;
-
-            // BFS to find a path from source to sink
-            while (!queue.isEmpty() && parent[sink] == -1) {
-                int u = queue.poll();
-                for (int v = 0; v < nodes.size(); v++) {
-                    // parent[v] = -1 indicate that v has not been yet visited
-                    if (parent[v] == -1 && residualCapacity[u][v] > 0) {
-                        parent[v] = u;
-                        queue.add(v);
-                    }
-                }
-            }
-
-            if (parent[sink] == -1) break; // No more augmenting paths
+    // One calculation. A finished Edmonds-Karp flow also warm-starts an IncrementalMaxFlow, which
+    // is kept for repairs after capacity edits.
+    private final class MaxFlowTask extends SolveWorker {
+        private final String[] names;
+        private final Consumer<String> status;
+        private final int startRevision = revision;
+        private IncrementalMaxFlow incremental;
+
+        MaxFlowTask(FlowNetwork network, int source, int sink, MaxFlowEngine engine, boolean recordPaths,
+                    SolveBudget budget, String[] names, Consumer<String> status, Runnable finished) {
+            super(network, source, sink, engine, recordPaths, budget, GraphPanel.this, finished);
+            this.names = names;
+            this.status = status;
+        }
 
-            // Find the minimum residual capacity in the augmenting path
-            int flow = Integer.MAX_VALUE;
-            ArrayList<String> path = new ArrayList<>();
-            for (int v = sink; v != source; v = parent[v]) {
-                int u = parent[v];
-                path.add(0, nodes.get(u).getName() + " -> " + nodes.get(v).getName());
-                flow = Math.min(flow, residualCapacity[u][v]);
+        @Override
+        protected Integer doInBackground() {
+            int maxFlow = super.doInBackground();
+            // Adopting the flow costs one more search, which finds no path
+            if (engine == MaxFlowEngine.EDMONDS_KARP && !stoppedEarly) {
+                incremental = IncrementalMaxFlow.warmStart(network, source, sink, edgeFlow);
             }
+            return maxFlow;
+        }
 
-            // Update residual capacities along the augmenting path
-            for (int v = sink; v != source; v = parent[v]) {
-                int u = parent[v];
-                residualCapacity[u][v] -= flow;
-                residualCapacity[v][u] += flow;
+        @Override
+        void showPaths(List<Progress> chunks) {
+            for (Progress progress : chunks) {
+                int[] path = progress.path;
+                StringBuilder text = new StringBuilder("Path: ");
+                for (int i = 1; i < path.length; i++) {
+                    if (i > 1) text.append(", ");
+                    text.append(names[path[i - 1]]).append(" -> ").append(names[path[i]]);
+                }
+                augmentedPaths.add(text.append(" | Respective Flow: ").append(progress.pathFlow).toString());
             }
+            repaint();
+        }
 
-            // Add the flow to the maximum flow
-            maxFlow += flow;
+        @Override
+        void showStatus(String text) {
+            status.accept(text);
+        }
 
-            // Record the augmented path
-            augmentedPaths.add("Path: " + String.join(", ", path) + " | Respective Flow: " + flow);
+        @Override
+        void showResult(int maxFlow, String text) {
+            // Edges are only ever appended, so the first ones are still the solved ones
+            for (int e = 0; e < Math.min(edges.size(), edgeFlow.length); e++) {
+                edges.get(e).setFlow(edgeFlow[e]);
+            }
+            if (revision == startRevision) solution = incremental;
+            status.accept(text);
+            repaint(); // Repaint the panel to update results
         }
+    }
 
-        repaint(); // Repaint the panel to update results
-        return maxFlow; 
+    // Copy the flow of the incremental solution onto the drawn edges
+    private void showFlows() {
+        for (int e = 0; e < edges.size(); e++) {
+            edges.get(e).setFlow(solution.edgeFlow(e));
+        }
     }
 
     @Override
@@ -269,7 +407,8 @@ class Node {
 // Edge class represents a directed edge between two nodes
 class Edge {
     private final Node from, to;
-    private final int capacity;
+    private int capacity;
+    private int flow = -1; // flow after the last calculation, -1 before any
 
     public Edge(Node from, Node to, int capacity) {
         this.from = from;
@@ -293,7 +432,28 @@ class Edge {
         g.drawLine(x2, y2, xArrow1, yArrow1);
         g.drawLine(x2, y2, xArrow2, yArrow2);
 
-        // Draw capacity on the edge
-        g.drawString(String.valueOf(capacity), (x1 + x2) / 2, (y1 + y2) / 2);
+        // Draw capacity on the edge, prefixed by the flow once calculated
+        String label = flow < 0 ? String.valueOf(capacity) : flow + "/" + capacity;
+        g.drawString(label, (x1 + x2) / 2, (y1 + y2) / 2);
+    }
+
+    public void setFlow(int flow) {
+        this.flow = flow;
+    }
+
+    public Node getFrom() {
+        return from;
+    }
+
+    public Node getTo() {
+        return to;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
     }
 }
\ No newline at end of file
@@ -1,83 +1,85 @@
+import maxflow.EdmondsKarpSolver;
+import maxflow.FlowNetwork;
+import maxflow.HopcroftKarpSolver;
+import maxflow.MaxFlowEngine;
+import maxflow.MaxFlowSolver;
+import maxflow.SolveBudget;
+
 import javax.swing.*;
 import java.awt.*;
-import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
 import java.util.*;
 import java.util.List;
-import java.util.Queue;
+import javax.swing.Timer;
 
 public class EdmondsKarpGUI2 {
 
     static final int INF = Integer.MAX_VALUE;
     private static final int RADIUS = 20; // Radius of vertices for GUI
-    private static Map<Integer, Point> vertexPositions;
+    private static Point[] vertexPositions = new Point[0];
     private static JFrame frame;
     private static GraphPanel graphPanel;
     private static JLabel maxFlowLabel;
     private static JTextArea augmentingPathsTextArea;
+    private static SolveBudget running; // budget of the solve in progress, for the Cancel button
 
-    // Function to implement BFS and find an augmenting path
-    private static boolean bfs(int[][] capacity, int[][] flow, int source, int sink, int[] parent) {
-        int n = capacity.length;
-        boolean[] visited = new boolean[n];
-        Queue<Integer> queue = new LinkedList<>();
-        queue.add(source);
-        visited[source] = true;
-        parent[source] = -1;
-
-        while (!queue.isEmpty()) {
-            int current = queue.poll();
-
-            for (int next = 0; next < n; next++) {
-                if (!visited[next] && capacity[current][next] - flow[current][next] > 0) {
-                    queue.add(next);
-                    parent[next] = current;
-                    visited[next] = true;
-
-                    if (next == sink) return true; // Sink reached
-                }
-            }
-        }
-        return false; // No augmenting path found
-    }
+    // Unit-capacity bipartite matrices take the Hopcroft-Karp fast path, the rest Edmonds-Karp
+    private static final MaxFlowSolver EDMONDS_KARP = new HopcroftKarpSolver(new EdmondsKarpSolver());
 
-    // Function to implement Edmonds-Karp algorithm
+    // Function to implement Edmonds-Karp algorithm: adapts the dense matrix onto the CSR solver.
+    // Headless, it never touches Swing.
     public static int edmondsKarp(int[][] capacity, int source, int sink) {
-        int n = capacity.length;
-        int[][] flow = new int[n][n]; // Residual flow
-        int maxFlow = 0;
-        int[] parent = new int[n]; // To store the path
+        return EDMONDS_KARP.maxFlow(capacity, source, sink);
+    }
 
-        while (bfs(capacity, flow, source, sink, parent)) {
-            int pathFlow = INF;
-            int v = sink;
-            List<int[]> pathEdges = new ArrayList<>();
+    // Same adapter for any of the engines
+    public static int maxFlow(int[][] capacity, int source, int sink, MaxFlowEngine engine) {
+        return engine.solver().maxFlow(capacity, source, sink);
+    }
 
-            while (v != source) {
-                int u = parent[v];
-                pathFlow = Math.min(pathFlow, capacity[u][v] - flow[u][v]);
-                pathEdges.add(new int[]{u, v});
-                v = u;
-            }
+    // Solve for the GUI on a SwingWorker, so the window stays responsive and the solve can be
+    // cancelled; finished runs on the event dispatch thread once the result is shown
+    private static void solveInBackground(int[][] capacity, int source, int sink, MaxFlowEngine engine,
+                                          boolean recordPaths, SolveBudget budget, Runnable finished) {
+        FlowNetwork network = FlowNetwork.fromMatrix(capacity);
+        graphPanel.setNetwork(network);
+        maxFlowLabel.setText("Max Flow: solving...");
+        new SolveTask(network, source, sink, engine, recordPaths, budget, finished).start();
+    }
+
+    // One solve; the paths go to the text area and the panel as they come
+    private static final class SolveTask extends SolveWorker {
+        SolveTask(FlowNetwork network, int source, int sink, MaxFlowEngine engine, boolean recordPaths,
+                  SolveBudget budget, Runnable finished) {
+            super(network, source, sink, engine, recordPaths, budget, frame, finished);
+        }
 
-            // Update residual capacities
-            v = sink;
-            while (v != source) {
-                int u = parent[v];
-                flow[u][v] += pathFlow;
-                flow[v][u] -= pathFlow;
-                v = u;
+        @Override
+        void showPaths(List<Progress> chunks) {
+            StringBuilder pathsText = new StringBuilder();
+            for (Progress progress : chunks) {
+                int[] path = progress.path;
+                pathsText.append("Augmenting Path:\n");
+                for (int i = 1; i < path.length; i++) {
+                    pathsText.append("From ").append(path[i - 1]).append(" to ").append(path[i]).append("\n");
+                }
+                graphPanel.augmented(path, path.length, progress.pathFlow);
             }
+            augmentingPathsTextArea.append(pathsText.toString());
+        }
 
-            maxFlow += pathFlow;
-            updateGraph(capacity, flow, pathEdges, maxFlow);
+        @Override
+        void showStatus(String text) {
+            maxFlowLabel.setText(text);
         }
 
-        return maxFlow;
+        @Override
+        void showResult(int maxFlow, String text) {
+            updateGraph(edgeFlow, text);
+        }
     }
 
     private static void initializeGUI() {
-        vertexPositions = new HashMap<>();
-
         frame = new JFrame("Edmonds-Karp Algorithm Visualization");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setSize(1200, 700);
@@ -87,12 +89,20 @@ public class EdmondsKarpGUI2 {
         frame.add(graphPanel, BorderLayout.CENTER);
 
         JPanel inputPanel = new JPanel();
-        inputPanel.setLayout(new GridLayout(3, 2));
+        inputPanel.setLayout(new GridLayout(6, 2));
 
         JLabel verticesLabel = new JLabel("Number of vertices:");
         JTextField verticesField = new JTextField();
         JLabel edgesLabel = new JLabel("Number of edges:");
         JTextField edgesField = new JTextField();
+        JLabel engineLabel = new JLabel("Algorithm:");
+        JComboBox<MaxFlowEngine> engineBox = new JComboBox<>(MaxFlowEngine.values());
+        // Formatting every augmenting path costs more than the search itself, so it is opt-in
+        JLabel recordPathsLabel = new JLabel("Record augmenting paths:");
+        JCheckBox recordPathsBox = new JCheckBox();
+        // Empty for no limit; when it runs out, the best flow found so far is shown
+        JLabel timeLimitLabel = new JLabel("Time limit in seconds (optional):");
+        JTextField timeLimitField = new JTextField();
 
         JButton submitButton = new JButton("Submit");
 
@@ -100,6 +110,12 @@ public class EdmondsKarpGUI2 {
         inputPanel.add(verticesField);
         inputPanel.add(edgesLabel);
         inputPanel.add(edgesField);
+        inputPanel.add(engineLabel);
+        inputPanel.add(engineBox);
+        inputPanel.add(recordPathsLabel);
+        inputPanel.add(recordPathsBox);
+        inputPanel.add(timeLimitLabel);
+        inputPanel.add(timeLimitField);
         inputPanel.add(submitButton);
 
         frame.add(inputPanel, BorderLayout.NORTH);
@@ -119,13 +135,14 @@ public class EdmondsKarpGUI2 {
             int edges = Integer.parseInt(edgesField.getText());
 
             int[][] capacity = new int[vertices][vertices];
-            vertexPositions.clear();
+            vertexPositions = new Point[vertices];
 
             for (int i = 0; i < vertices; i++) {
                 int x = (int) (400 + 250 * Math.cos(2 * Math.PI * i / vertices));
                 int y = (int) (350 + 250 * Math.sin(2 * Math.PI * i / vertices));
-                vertexPositions.put(i, new Point(x, y));
+                vertexPositions[i] = new Point(x, y);
             }
+            graphPanel.setVertices(vertexPositions);
 
             JPanel edgesPanel = new JPanel(new GridLayout(edges + 1, 3));
             edgesPanel.add(new JLabel("From"));
@@ -150,6 +167,10 @@ public class EdmondsKarpGUI2 {
             int sink = Integer.parseInt(JOptionPane.showInputDialog("Enter sink vertex:"));
 
             JButton startButton = new JButton("Start");
+            // Stops the solve at the next augmentation, keeping the flow found so far
+            JButton cancelButton = new JButton("Cancel");
+            cancelButton.setEnabled(false);
+            cancelButton.addActionListener(a -> running.cancel());
             startButton.addActionListener(a -> {
                 for (int i = 0; i < edges; i++) {
                     int from = Integer.parseInt(fromFields[i].getText());
@@ -157,18 +178,34 @@ public class EdmondsKarpGUI2 {
                     int cap = Integer.parseInt(capFields[i].getText());
                     capacity[from][to] = cap;
                 }
-                edmondsKarp(capacity, source, sink);
+                try {
+                    running = SolveWorker.parseBudget(timeLimitField.getText());
+                } catch (IllegalArgumentException ex) {
+                    JOptionPane.showMessageDialog(frame, "Invalid time limit. Please enter seconds or leave it empty.");
+                    return;
+                }
+                startButton.setEnabled(false);
+                cancelButton.setEnabled(true);
+                solveInBackground(capacity, source, sink, (MaxFlowEngine) engineBox.getSelectedItem(),
+                        recordPathsBox.isSelected(), running, () -> {
+                            startButton.setEnabled(true);
+                            cancelButton.setEnabled(false);
+                        });
             });
 
             // Clear previous inputs and show the updated GUI
             frame.getContentPane().removeAll();
             frame.add(graphPanel, BorderLayout.CENTER);
             frame.add(edgesPanel, BorderLayout.NORTH);
-            frame.add(maxFlowLabel, BorderLayout.SOUTH);  // Re-add max flow label
             frame.add(scrollPane, BorderLayout.EAST);  // Re-add augmenting paths scroll pane
 
-            // Using BorderLayout.PAGE_END for the Start button to avoid overlap
-            frame.add(startButton, BorderLayout.PAGE_END);
+            // The Start and Cancel buttons share the bottom row with the max flow label, which
+            // BorderLayout.PAGE_END would otherwise hide
+            JPanel runPanel = new JPanel(new FlowLayout());
+            runPanel.add(startButton);
+            runPanel.add(cancelButton);
+            runPanel.add(maxFlowLabel);
+            frame.add(runPanel, BorderLayout.PAGE_END);
             frame.revalidate();
             frame.repaint();
         });
@@ -176,19 +213,11 @@ public class EdmondsKarpGUI2 {
         frame.setVisible(true);
     }
 
-    // Function to update the graph dynamically
-    private static void updateGraph(int[][] capacity, int[][] flow, List<int[]> pathEdges, int maxFlow) {
+    // Function to update the graph dynamically; the paths were already appended as they came
+    private static void updateGraph(int[] edgeFlow, String maxFlowText) {
         SwingUtilities.invokeLater(() -> {
-            graphPanel.setGraphData(capacity, flow, pathEdges);
-            maxFlowLabel.setText("Max Flow: " + maxFlow);
-
-            // Append augmenting path to the text area instead of resetting
-            augmentingPathsTextArea.append("Augmenting Path:\n");
-            for (int[] edge : pathEdges) {
-                augmentingPathsTextArea.append("From " + edge[0] + " to " + edge[1] + "\n");
-            }
-
-            graphPanel.repaint();
+            graphPanel.setEdgeFlow(edgeFlow);
+            maxFlowLabel.setText(maxFlowText);
         });
     }
 
@@ -197,59 +226,245 @@ public class EdmondsKarpGUI2 {
         initializeGUI();
     }
 
-    // GraphPanel class for drawing the graph
+    // GraphPanel class for drawing the graph from the network's edge list. Edges and vertices
+    // never change during a solve, so they are drawn once into a cached image; flow labels live
+    // in a second image where only the labels that changed are redrawn. Updates only mark what
+    // changed and ask for a frame, and frames come at most FRAME_MILLIS apart however fast the
+    // solver augments. All methods run on the event dispatch thread.
     static class GraphPanel extends JPanel {
-        private int[][] capacity;
-        private int[][] flow;
-        private List<int[]> pathEdges;
+        private static final int FRAME_MILLIS = 1000 / 30;
+
+        private final Timer frameTimer = new Timer(FRAME_MILLIS, e -> repaint());
+        private Point[] positions = new Point[0];
+
+        // Per input edge; the label shows the net flow from edgeFrom to edgeTo, as the matrix did
+        private int edgeCount;
+        private int[] edgeFrom = new int[0];
+        private int[] edgeTo = new int[0];
+        private int[] capacity = new int[0];
+        private int[] netFlow = new int[0];
+        private int[] labelWidth = new int[0]; // width last drawn, to clear it again
+        private Map<Long, Integer> edgeIndex = new HashMap<>();
+
+        private int[] dirty = new int[0]; // edges whose label changed since the last frame
+        private boolean[] isDirty = new boolean[0];
+        private int dirtyCount;
+        private boolean labelsStale = true;
+        private boolean edgesStale = true;
+
+        private BufferedImage edgeLayer; // edges and vertices, opaque
+        private BufferedImage labelLayer; // flow labels, transparent
+        private double scale = 1; // device pixels per panel pixel of both layers
+
+        private int[] path = new int[0]; // last augmenting path, highlighted over the layers
+        private int pathLength;
+
+        GraphPanel() {
+            frameTimer.setRepeats(false);
+        }
+
+        public void setVertices(Point[] positions) {
+            this.positions = positions;
+            edgeCount = 0;
+            edgeIndex = new HashMap<>();
+            pathLength = 0;
+            edgesStale = true;
+            labelsStale = true;
+            requestFrame();
+        }
+
+        public void setNetwork(FlowNetwork network) {
+            int m = network.edgeCount();
+            edgeCount = m;
+            edgeFrom = new int[m];
+            edgeTo = new int[m];
+            capacity = new int[m];
+            netFlow = new int[m];
+            labelWidth = new int[m];
+            dirty = new int[m];
+            isDirty = new boolean[m];
+            dirtyCount = 0;
+            edgeIndex = new HashMap<>();
+            for (int e = 0; e < m; e++) {
+                edgeFrom[e] = network.edgeFrom(e);
+                edgeTo[e] = network.edgeTo(e);
+                capacity[e] = network.edgeCapacity(e);
+                edgeIndex.put(key(edgeFrom[e], edgeTo[e]), e);
+            }
+            pathLength = 0;
+            edgesStale = true;
+            labelsStale = true;
+            requestFrame();
+        }
+
+        // Final flow of a solve: every label is redrawn from it
+        public void setEdgeFlow(int[] edgeFlow) {
+            Arrays.fill(netFlow, 0, edgeCount, 0);
+            for (int e = 0; e < edgeCount; e++) {
+                netFlow[e] += edgeFlow[e];
+                Integer back = edgeIndex.get(key(edgeTo[e], edgeFrom[e]));
+                if (back != null) netFlow[back] -= edgeFlow[e];
+            }
+            labelsStale = true;
+            requestFrame();
+        }
+
+        // One augmenting path during a solve. Pushing along u -> v raises the net flow of an
+        // edge u -> v and lowers that of an edge v -> u, whichever residual arc the solver took.
+        public void augmented(int[] path, int length, int pathFlow) {
+            for (int i = 1; i < length; i++) {
+                Integer forward = edgeIndex.get(key(path[i - 1], path[i]));
+                if (forward != null) changeFlow(forward, pathFlow);
+                Integer backward = edgeIndex.get(key(path[i], path[i - 1]));
+                if (backward != null) changeFlow(backward, -pathFlow);
+            }
+            if (this.path.length < length) this.path = new int[length];
+            System.arraycopy(path, 0, this.path, 0, length);
+            pathLength = length;
+            requestFrame();
+        }
+
+        private void changeFlow(int e, int delta) {
+            netFlow[e] += delta;
+            if (!isDirty[e]) {
+                isDirty[e] = true;
+                dirty[dirtyCount++] = e;
+            }
+        }
 
-        public void setGraphData(int[][] capacity, int[][] flow, List<int[]> pathEdges) {
-            this.capacity = capacity;
-            this.flow = flow;
-            this.pathEdges = pathEdges;
+        private long key(int u, int v) {
+            return (long) u << 32 | v;
+        }
+
+        // Coalesce updates: at most one repaint per frame, however many arrive in between
+        private void requestFrame() {
+            if (!frameTimer.isRunning()) frameTimer.start();
         }
 
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
             Graphics2D g2d = (Graphics2D) g;
+            int width = getWidth();
+            int height = getHeight();
+            if (width <= 0 || height <= 0) return;
+
+            // Draw the layers at device resolution so they stay sharp on scaled displays
+            double deviceScale = g2d.getTransform().getScaleX();
+            if (edgeLayer == null || scale != deviceScale
+                    || edgeLayer.getWidth() != (int) Math.ceil(width * deviceScale)
+                    || edgeLayer.getHeight() != (int) Math.ceil(height * deviceScale)) {
+                scale = deviceScale;
+                int w = (int) Math.ceil(width * scale);
+                int h = (int) Math.ceil(height * scale);
+                edgeLayer = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+                labelLayer = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+                edgesStale = true;
+                labelsStale = true;
+            }
+            if (edgesStale) {
+                drawEdgeLayer();
+                edgesStale = false;
+            }
+            // Past a quarter of the edges, one pass over all labels is cheaper than clearing each
+            if (labelsStale || dirtyCount > edgeCount / 4) {
+                drawLabelLayer();
+                labelsStale = false;
+            } else {
+                updateLabels();
+            }
+            for (int i = 0; i < dirtyCount; i++) {
+                isDirty[dirty[i]] = false;
+            }
+            dirtyCount = 0;
 
-            // Draw edges with capacities and flows
-            if (capacity != null) {
-                for (int u = 0; u < capacity.length; u++) {
-                    for (int v = 0; v < capacity.length; v++) {
-                        if (capacity[u][v] > 0) {
-                            Point p1 = vertexPositions.get(u);
-                            Point p2 = vertexPositions.get(v);
-                            g2d.setColor(Color.BLACK);
-                            g2d.draw(new Line2D.Double(p1.x, p1.y, p2.x, p2.y));
-                            String label = flow[u][v] + "/" + capacity[u][v];
-                            g2d.setColor(Color.BLUE);
-                            g2d.drawString(label, (p1.x + p2.x) / 2, (p1.y + p2.y) / 2);
-                        }
-                    }
-                }
+            g2d.drawImage(edgeLayer, 0, 0, width, height, null);
+            g2d.drawImage(labelLayer, 0, 0, width, height, null);
+
+            // Highlight augmenting path, then its vertices again on top of it
+            g2d.setColor(Color.RED);
+            for (int i = 1; i < pathLength; i++) {
+                Point p1 = positions[path[i - 1]];
+                Point p2 = positions[path[i]];
+                g2d.drawLine(p1.x, p1.y, p2.x, p2.y);
+            }
+            for (int i = 0; i < pathLength; i++) {
+                drawVertex(g2d, path[i]);
             }
+        }
 
-            // Highlight augmenting path
-            if (pathEdges != null) {
-                g2d.setColor(Color.RED);
-                for (int[] edge : pathEdges) {
-                    Point p1 = vertexPositions.get(edge[0]);
-                    Point p2 = vertexPositions.get(edge[1]);
-                    g2d.draw(new Line2D.Double(p1.x, p1.y, p2.x, p2.y));
+        private Graphics2D layerGraphics(BufferedImage layer) {
+            Graphics2D g2d = layer.createGraphics();
+            g2d.scale(scale, scale);
+            g2d.setFont(getFont());
+            return g2d;
+        }
+
+        private void drawEdgeLayer() {
+            Graphics2D g2d = layerGraphics(edgeLayer);
+            g2d.setColor(getBackground());
+            g2d.fillRect(0, 0, getWidth(), getHeight());
+            g2d.setColor(Color.BLACK);
+            for (int e = 0; e < edgeCount; e++) {
+                if (capacity[e] > 0) {
+                    Point p1 = positions[edgeFrom[e]];
+                    Point p2 = positions[edgeTo[e]];
+                    g2d.drawLine(p1.x, p1.y, p2.x, p2.y);
                 }
             }
+            for (int v = 0; v < positions.length; v++) {
+                drawVertex(g2d, v);
+            }
+            g2d.dispose();
+        }
+
+        private void drawVertex(Graphics2D g2d, int vertex) {
+            Point p = positions[vertex];
+            g2d.setColor(Color.BLUE);
+            g2d.fillOval(p.x - RADIUS / 2, p.y - RADIUS / 2, RADIUS, RADIUS);
+            g2d.setColor(Color.WHITE);
+            g2d.drawString(String.valueOf(vertex), p.x - 5, p.y + 5);
+        }
+
+        private void drawLabelLayer() {
+            Graphics2D g2d = layerGraphics(labelLayer);
+            g2d.setComposite(AlphaComposite.Clear);
+            g2d.fillRect(0, 0, getWidth(), getHeight());
+            g2d.setComposite(AlphaComposite.SrcOver);
+            g2d.setColor(Color.BLUE);
+            for (int e = 0; e < edgeCount; e++) {
+                drawLabel(g2d, e);
+            }
+            g2d.dispose();
+        }
 
-            // Draw vertices
-            for (Map.Entry<Integer, Point> entry : vertexPositions.entrySet()) {
-                int vertex = entry.getKey();
-                Point p = entry.getValue();
-                g2d.setColor(Color.BLUE);
-                g2d.fillOval(p.x - RADIUS / 2, p.y - RADIUS / 2, RADIUS, RADIUS);
-                g2d.setColor(Color.WHITE);
-                g2d.drawString(String.valueOf(vertex), p.x - 5, p.y + 5);
+        // Clear and redraw only the dirty labels. A label overlapping a cleared one may lose a few
+        // pixels until the full redraw that ends the solve.
+        private void updateLabels() {
+            if (dirtyCount == 0) return;
+            Graphics2D g2d = layerGraphics(labelLayer);
+            FontMetrics metrics = g2d.getFontMetrics();
+            g2d.setColor(Color.BLUE);
+            for (int i = 0; i < dirtyCount; i++) {
+                int e = dirty[i];
+                Point p1 = positions[edgeFrom[e]];
+                Point p2 = positions[edgeTo[e]];
+                g2d.setComposite(AlphaComposite.Clear);
+                g2d.fillRect((p1.x + p2.x) / 2, (p1.y + p2.y) / 2 - metrics.getAscent(),
+                        labelWidth[e], metrics.getHeight());
+                g2d.setComposite(AlphaComposite.SrcOver);
+                drawLabel(g2d, e);
             }
+            g2d.dispose();
+        }
+
+        private void drawLabel(Graphics2D g2d, int e) {
+            if (capacity[e] == 0) return;
+            Point p1 = positions[edgeFrom[e]];
+            Point p2 = positions[edgeTo[e]];
+            String label = netFlow[e] + "/" + capacity[e];
+            g2d.drawString(label, (p1.x + p2.x) / 2, (p1.y + p2.y) / 2);
+            labelWidth[e] = g2d.getFontMetrics().stringWidth(label);
         }
     }
 }
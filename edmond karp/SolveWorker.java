@@ -0,0 +1,129 @@
+import maxflow.FlowListener;
+import maxflow.FlowNetwork;
+import maxflow.FlowWorkspace;
+import maxflow.MaxFlowEngine;
+import maxflow.SolveBudget;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+// One solve for the GUIs, on a SwingWorker so the window stays responsive and the budget can stop
+// it. Only when paths are recorded is this the solver's listener: augmented() then runs on the
+// worker thread and publishes a copy of every path. Otherwise the solver does not trace paths at
+// all, and a timer shows the workspace's flow so far and augmentation count every PROGRESS_MILLIS.
+// The show methods run on the event dispatch thread, and finished runs there once the result is
+// shown.
+abstract class SolveWorker extends SwingWorker<Integer, SolveWorker.Progress> implements FlowListener {
+    private static final int PROGRESS_MILLIS = 50;
+
+    // What the solver thread hands to the event dispatch thread after an augmentation
+    static final class Progress {
+        final int totalFlow;
+        final long augmentations;
+        final int[] path;
+        final int pathFlow;
+
+        Progress(int totalFlow, long augmentations, int[] path, int pathFlow) {
+            this.totalFlow = totalFlow;
+            this.augmentations = augmentations;
+            this.path = path;
+            this.pathFlow = pathFlow;
+        }
+    }
+
+    final FlowNetwork network;
+    final int source;
+    final int sink;
+    final MaxFlowEngine engine;
+    final boolean recordPaths;
+    final SolveBudget budget;
+    final int[] edgeFlow;
+    private final FlowWorkspace workspace = new FlowWorkspace();
+    private final Timer progressTimer;
+    private final Component parent;
+    private final Runnable finished;
+    boolean stoppedEarly;
+    private long augmentations;
+
+    SolveWorker(FlowNetwork network, int source, int sink, MaxFlowEngine engine, boolean recordPaths,
+                SolveBudget budget, Component parent, Runnable finished) {
+        this.network = network;
+        this.source = source;
+        this.sink = sink;
+        this.engine = engine;
+        this.recordPaths = recordPaths;
+        this.budget = budget;
+        this.parent = parent;
+        this.finished = finished;
+        this.edgeFlow = new int[network.edgeCount()];
+        // The counts are read while the solver writes them; a stale value only shows up a frame late
+        this.progressTimer = new Timer(PROGRESS_MILLIS, e -> showStatus("Max Flow: " + workspace.flowSoFar()
+                + " so far (" + workspace.augmentations() + " augmentations)"));
+    }
+
+    // Call on the event dispatch thread instead of execute()
+    void start() {
+        if (!recordPaths) progressTimer.start();
+        execute();
+    }
+
+    // The budget for a time limit field: empty means no limit, and the budget can still be cancelled
+    static SolveBudget parseBudget(String seconds) {
+        if (seconds.isBlank()) {
+            return new SolveBudget();
+        }
+        double limit = Double.parseDouble(seconds.trim());
+        if (!(limit >= 0)) {
+            throw new IllegalArgumentException("Invalid time limit: " + seconds);
+        }
+        return SolveBudget.timeLimit(Duration.ofNanos((long) Math.min(limit * 1e9, Long.MAX_VALUE)));
+    }
+
+    // The recorded paths of one batch of progress, in order
+    abstract void showPaths(List<Progress> chunks);
+
+    abstract void showStatus(String text);
+
+    // The flow on each edge is in edgeFlow
+    abstract void showResult(int maxFlow, String text);
+
+    @Override
+    protected Integer doInBackground() {
+        workspace.setBudget(budget);
+        int maxFlow = engine.solver(recordPaths ? this : null).maxFlow(network, source, sink, edgeFlow, workspace);
+        stoppedEarly = workspace.stoppedEarly();
+        return maxFlow;
+    }
+
+    @Override
+    public void augmented(int[] path, int length, int pathFlow, int totalFlow) {
+        augmentations++;
+        publish(new Progress(totalFlow, augmentations, Arrays.copyOf(path, length), pathFlow));
+    }
+
+    @Override
+    protected void process(List<Progress> chunks) {
+        showPaths(chunks);
+        Progress last = chunks.get(chunks.size() - 1);
+        showStatus("Max Flow: " + last.totalFlow + " so far (" + last.augmentations + " augmentations)");
+    }
+
+    @Override
+    protected void done() {
+        progressTimer.stop();
+        try {
+            int maxFlow = get();
+            showResult(maxFlow, stoppedEarly ? "Max Flow: " + maxFlow + " (stopped early, may not be maximum)"
+                    : "Max Flow: " + maxFlow);
+        } catch (InterruptedException | ExecutionException ex) {
+            showStatus("Max Flow: failed");
+            JOptionPane.showMessageDialog(parent, "Solve failed: " + ex.getCause());
+        } finally {
+            finished.run();
+        }
+    }
+}
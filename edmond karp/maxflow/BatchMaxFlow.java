@@ -0,0 +1,75 @@
+package maxflow;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Answers many (source, sink) queries on one network in parallel. The network is immutable and
+// shared by every worker; each running chunk borrows its own FlowWorkspace, and the workspaces are
+// kept for the next batch. The solver must not carry a FlowListener, since it is called concurrently.
+public final class BatchMaxFlow {
+    private static final int MIN_CHUNK = 4; // queries per leaf task
+
+    private final MaxFlowSolver solver;
+    private final ForkJoinPool pool;
+    private final ConcurrentLinkedQueue<FlowWorkspace> workspaces = new ConcurrentLinkedQueue<>();
+
+    public BatchMaxFlow(MaxFlowSolver solver) {
+        this(solver, ForkJoinPool.commonPool());
+    }
+
+    public BatchMaxFlow(MaxFlowSolver solver, ForkJoinPool pool) {
+        this.solver = solver;
+        this.pool = pool;
+    }
+
+    // Return the maximum flow from sources[i] to sinks[i] for every i
+    public int[] solve(FlowNetwork network, int[] sources, int[] sinks) {
+        if (sources.length != sinks.length) {
+            throw new IllegalArgumentException("Got " + sources.length + " sources but " + sinks.length + " sinks");
+        }
+        for (int i = 0; i < sources.length; i++) {
+            network.checkTerminals(sources[i], sinks[i]);
+        }
+        int[] result = new int[sources.length];
+        int chunk = Math.max(MIN_CHUNK, sources.length / (4 * pool.getParallelism()));
+        pool.invoke(new Chunk(network, sources, sinks, result, 0, sources.length, chunk));
+        return result;
+    }
+
+    @SuppressWarnings("serial") // fork-join tasks are never serialized
+    private final class Chunk extends RecursiveAction {
+        private final FlowNetwork network;
+        private final int[] sources, sinks, result;
+        private final int from, to, chunk;
+
+        Chunk(FlowNetwork network, int[] sources, int[] sinks, int[] result, int from, int to, int chunk) {
+            this.network = network;
+            this.sources = sources;
+            this.sinks = sinks;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunk) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Chunk(network, sources, sinks, result, from, mid, chunk),
+                        new Chunk(network, sources, sinks, result, mid, to, chunk));
+                return;
+            }
+            FlowWorkspace workspace = workspaces.poll();
+            if (workspace == null) workspace = new FlowWorkspace(network);
+            try {
+                for (int i = from; i < to; i++) {
+                    result[i] = solver.maxFlow(network, sources[i], sinks[i], null, workspace);
+                }
+            } finally {
+                workspaces.offer(workspace);
+            }
+        }
+    }
+}
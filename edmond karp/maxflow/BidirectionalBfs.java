@@ -0,0 +1,193 @@
+package maxflow;
+
+// Shortest augmenting path search that grows a forward frontier from the source over residual
+// arcs and a backward frontier from the sink over reverse-residual arcs, one full level at a time
+// on whichever side is smaller. Once a level produces a meeting, the shortest meeting of that
+// level is a shortest path overall. On wide, shallow networks the two balls stay much smaller than
+// one BFS covering the whole graph. Written once over int[] arcs and once over IntStorage.
+final class BidirectionalBfs {
+
+    private BidirectionalBfs() {
+    }
+
+    // Same contract as EdmondsKarpSolver.bfs: fills parentArc along the path and returns true, or
+    // returns false with the source side of the cut marked
+    static boolean search(FlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        workspace.ensureBidirectional(network.n);
+        int[] start = network.start;
+        int[] head = network.head;
+        int[] rev = network.rev;
+        int[] residual = workspace.residual;
+        int[] parentArc = workspace.parentArc;
+        int[] stamp = workspace.stamp;
+        int[] distance = workspace.label;
+        int[] childArc = workspace.childArc;
+        int[] backStamp = workspace.backStamp;
+        int[] backDistance = workspace.backDistance;
+        int[] queue = workspace.queue;
+        int[] backQueue = workspace.backQueue;
+        int mask = workspace.queueMask;
+        int epoch = workspace.nextEpoch();
+
+        int fHead = 0, fTail = 0, bHead = 0, bTail = 0;
+        queue[fTail++ & mask] = source;
+        stamp[source] = epoch;
+        distance[source] = 0;
+        backQueue[bTail++ & mask] = sink;
+        backStamp[sink] = epoch;
+        backDistance[sink] = 0;
+
+        int best = Integer.MAX_VALUE;
+        int meetArc = -1;
+        long arcs = 0;
+        while (fHead != fTail && bHead != bTail && meetArc == -1) {
+            if (fTail - fHead <= bTail - bHead) {
+                for (int levelEnd = fTail; fHead != levelEnd; ) {
+                    int u = queue[fHead++ & mask];
+                    arcs += start[u + 1] - start[u];
+                    for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                        if (residual[a] <= 0) continue;
+                        int v = head[a];
+                        if (backStamp[v] == epoch && distance[u] + 1 + backDistance[v] < best) {
+                            best = distance[u] + 1 + backDistance[v];
+                            meetArc = a;
+                        }
+                        if (stamp[v] != epoch) {
+                            stamp[v] = epoch;
+                            distance[v] = distance[u] + 1;
+                            parentArc[v] = a;
+                            queue[fTail++ & mask] = v;
+                        }
+                    }
+                }
+            } else {
+                for (int levelEnd = bTail; bHead != levelEnd; ) {
+                    int w = backQueue[bHead++ & mask];
+                    arcs += start[w + 1] - start[w];
+                    for (int a = start[w], end = start[w + 1]; a < end; a++) {
+                        int toW = rev[a]; // arc v -> w
+                        if (residual[toW] <= 0) continue;
+                        int v = head[a];
+                        if (stamp[v] == epoch && distance[v] + 1 + backDistance[w] < best) {
+                            best = distance[v] + 1 + backDistance[w];
+                            meetArc = toW;
+                        }
+                        if (backStamp[v] != epoch) {
+                            backStamp[v] = epoch;
+                            backDistance[v] = backDistance[w] + 1;
+                            childArc[v] = toW;
+                            backQueue[bTail++ & mask] = v;
+                        }
+                    }
+                }
+            }
+        }
+        workspace.vertexVisits += fTail + bTail;
+        workspace.arcVisits += arcs;
+
+        if (meetArc == -1) {
+            // If the backward side ran dry first, the forward marks are not the whole source side
+            if (fHead != fTail) workspace.markSourceSide(network, source);
+            return false;
+        }
+
+        // Re-point parentArc along the backward half so the path can be walked from the sink.
+        // A shortest path is simple, so this never touches the forward half.
+        int v = head[meetArc];
+        parentArc[v] = meetArc;
+        while (v != sink) {
+            int a = childArc[v];
+            v = head[a];
+            parentArc[v] = a;
+        }
+        return true;
+    }
+
+    static boolean search(StoredFlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        workspace.ensureBidirectional(network.n);
+        int[] start = network.start;
+        IntStorage head = network.head;
+        IntStorage rev = network.rev;
+        IntStorage residual = workspace.storedResidual;
+        int[] parentArc = workspace.parentArc;
+        int[] stamp = workspace.stamp;
+        int[] distance = workspace.label;
+        int[] childArc = workspace.childArc;
+        int[] backStamp = workspace.backStamp;
+        int[] backDistance = workspace.backDistance;
+        int[] queue = workspace.queue;
+        int[] backQueue = workspace.backQueue;
+        int mask = workspace.queueMask;
+        int epoch = workspace.nextEpoch();
+
+        int fHead = 0, fTail = 0, bHead = 0, bTail = 0;
+        queue[fTail++ & mask] = source;
+        stamp[source] = epoch;
+        distance[source] = 0;
+        backQueue[bTail++ & mask] = sink;
+        backStamp[sink] = epoch;
+        backDistance[sink] = 0;
+
+        int best = Integer.MAX_VALUE;
+        int meetArc = -1;
+        long arcs = 0;
+        while (fHead != fTail && bHead != bTail && meetArc == -1) {
+            if (fTail - fHead <= bTail - bHead) {
+                for (int levelEnd = fTail; fHead != levelEnd; ) {
+                    int u = queue[fHead++ & mask];
+                    arcs += start[u + 1] - start[u];
+                    for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                        if (residual.get(a) <= 0) continue;
+                        int v = head.get(a);
+                        if (backStamp[v] == epoch && distance[u] + 1 + backDistance[v] < best) {
+                            best = distance[u] + 1 + backDistance[v];
+                            meetArc = a;
+                        }
+                        if (stamp[v] != epoch) {
+                            stamp[v] = epoch;
+                            distance[v] = distance[u] + 1;
+                            parentArc[v] = a;
+                            queue[fTail++ & mask] = v;
+                        }
+                    }
+                }
+            } else {
+                for (int levelEnd = bTail; bHead != levelEnd; ) {
+                    int w = backQueue[bHead++ & mask];
+                    arcs += start[w + 1] - start[w];
+                    for (int a = start[w], end = start[w + 1]; a < end; a++) {
+                        int toW = rev.get(a);
+                        if (residual.get(toW) <= 0) continue;
+                        int v = head.get(a);
+                        if (stamp[v] == epoch && distance[v] + 1 + backDistance[w] < best) {
+                            best = distance[v] + 1 + backDistance[w];
+                            meetArc = toW;
+                        }
+                        if (backStamp[v] != epoch) {
+                            backStamp[v] = epoch;
+                            backDistance[v] = backDistance[w] + 1;
+                            childArc[v] = toW;
+                            backQueue[bTail++ & mask] = v;
+                        }
+                    }
+                }
+            }
+        }
+        workspace.vertexVisits += fTail + bTail;
+        workspace.arcVisits += arcs;
+
+        if (meetArc == -1) {
+            if (fHead != fTail) workspace.markSourceSide(network, source);
+            return false;
+        }
+
+        int v = head.get(meetArc);
+        parentArc[v] = meetArc;
+        while (v != sink) {
+            int a = childArc[v];
+            v = head.get(a);
+            parentArc[v] = a;
+        }
+        return true;
+    }
+}
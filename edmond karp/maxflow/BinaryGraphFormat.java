@@ -0,0 +1,88 @@
+package maxflow;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Compact little-endian edge file:
+//   header  int magic "MFLW", int version, int vertices, int edges, int source, int sink
+//   edges   int from, int to, int capacity (12 bytes each, 0-based vertices)
+// Loading maps the file and feeds the records into a FlowNetwork.Builder without per-edge objects.
+public final class BinaryGraphFormat {
+    private static final int MAGIC = 0x574c464d; // "MFLW" read little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int RECORD_BYTES = 12;
+
+    private BinaryGraphFormat() {
+    }
+
+    public static FlowProblem load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) throw new IOException("Truncated header in " + file);
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) throw new IOException("Not a binary graph file: " + file);
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Unsupported binary graph version " + version);
+            int n = header.getInt();
+            int m = header.getInt();
+            int source = header.getInt();
+            int sink = header.getInt();
+            if (n < 0 || m < 0 || channel.size() < HEADER_BYTES + (long) m * RECORD_BYTES) {
+                throw new IOException("Truncated or corrupt binary graph file: " + file);
+            }
+
+            // The builder and FlowProblem check endpoints, capacities and terminals; in a file those
+            // are malformed input, not a caller's mistake
+            try {
+                FlowNetwork.Builder builder = new FlowNetwork.Builder(n, m);
+                if (m > 0) {
+                    MappedInput in = new MappedInput(channel, HEADER_BYTES, RECORD_BYTES);
+                    for (int e = 0; e < m; e++) {
+                        builder.addEdge(in.readInt(), in.readInt(), in.readInt());
+                    }
+                }
+                return new FlowProblem(builder.build(), source, sink);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt binary graph file " + file + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public static void write(FlowProblem problem, Path file) throws IOException {
+        try (OutputStream stream = Files.newOutputStream(file)) {
+            write(problem, stream);
+        }
+    }
+
+    public static void write(FlowProblem problem, OutputStream stream) throws IOException {
+        FlowNetwork network = problem.network();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        writeInt(out, MAGIC);
+        writeInt(out, VERSION);
+        writeInt(out, network.n);
+        writeInt(out, network.m);
+        writeInt(out, problem.source());
+        writeInt(out, problem.sink());
+        for (int e = 0; e < network.m; e++) {
+            writeInt(out, network.edgeFrom(e));
+            writeInt(out, network.edgeTo(e));
+            writeInt(out, network.edgeCapacity(e));
+        }
+        out.flush();
+    }
+
+    private static void writeInt(DataOutputStream out, int value) throws IOException {
+        out.writeInt(Integer.reverseBytes(value));
+    }
+}
@@ -0,0 +1,82 @@
+package maxflow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// IntStorage over direct or memory-mapped ByteBuffers. A buffer holds at most 2 GB, so the ints
+// are split into chunks of 2^28 (1 GB) and an index picks its chunk with a shift.
+final class BufferIntStorage implements IntStorage {
+    private static final int CHUNK_BITS = 28;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    private final int size;
+    private final IntBuffer[] chunks;
+
+    private BufferIntStorage(int size, IntBuffer[] chunks) {
+        this.size = size;
+        this.chunks = chunks;
+    }
+
+    static BufferIntStorage direct(int size) {
+        checkSize(size);
+        IntBuffer[] chunks = new IntBuffer[chunkCount(size)];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = ByteBuffer.allocateDirect(chunkInts(size, c) * Integer.BYTES)
+                    .order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        return new BufferIntStorage(size, chunks);
+    }
+
+    static BufferIntStorage mapped(Path directory, int size) throws IOException {
+        checkSize(size);
+        Path file = Files.createTempFile(directory, "maxflow", ".ints");
+        IntBuffer[] chunks = new IntBuffer[chunkCount(size)];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (int c = 0; c < chunks.length; c++) {
+                long offset = ((long) c << CHUNK_BITS) * Integer.BYTES;
+                chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, offset, (long) chunkInts(size, c) * Integer.BYTES)
+                        .order(ByteOrder.nativeOrder()).asIntBuffer();
+            }
+        }
+        // The mappings stay valid after the file is unlinked; where it cannot be, remove it at exit
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+        return new BufferIntStorage(size, chunks);
+    }
+
+    private static void checkSize(int size) {
+        if (size < 0) throw new IllegalArgumentException("Negative storage size: " + size);
+    }
+
+    private static int chunkCount(int size) {
+        return (int) (((long) size + CHUNK_MASK) >>> CHUNK_BITS);
+    }
+
+    private static int chunkInts(int size, int chunk) {
+        return Math.min(CHUNK_MASK + 1, size - (chunk << CHUNK_BITS));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int get(int index) {
+        return chunks[index >>> CHUNK_BITS].get(index & CHUNK_MASK);
+    }
+
+    @Override
+    public void set(int index, int value) {
+        chunks[index >>> CHUNK_BITS].put(index & CHUNK_MASK, value);
+    }
+}
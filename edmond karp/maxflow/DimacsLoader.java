@@ -0,0 +1,200 @@
+package maxflow;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Streams a DIMACS max-flow file straight into a FlowNetwork.Builder, or a LongFlowNetwork.Builder
+// for capacities past the int range:
+//   c comment
+//   p max <vertices> <arcs>
+//   n <vertex> s      and      n <vertex> t
+//   a <from> <to> <capacity>
+// Vertices are 1-based in the file and 0-based in the network. The file is parsed byte by byte
+// from a memory-mapped window, without creating a String or object per line.
+public final class DimacsLoader {
+    // Arcs the builder is sized for up front; it grows past this, so a header cannot force a
+    // large allocation before the arcs are there
+    static final int PREALLOCATED_ARCS = 1 << 16;
+
+    private DimacsLoader() {
+    }
+
+    // Capacities must fit an int
+    public static FlowProblem load(Path file) throws IOException {
+        Narrow edges = new Narrow();
+        int[] terminals = parse(file, edges);
+        return new FlowProblem(edges.builder.build(), terminals[0], terminals[1]);
+    }
+
+    // Capacities up to Long.MAX_VALUE
+    public static LongFlowProblem loadLong(Path file) throws IOException {
+        Wide edges = new Wide();
+        int[] terminals = parse(file, edges);
+        return new LongFlowProblem(edges.builder.build(), terminals[0], terminals[1]);
+    }
+
+    private static int[] parse(Path file, Edges edges) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Parser(new MappedInput(channel, 0, 1), edges).parse();
+        }
+    }
+
+    // Where the parsed arcs go: one builder per capacity width
+    private interface Edges {
+        long maxCapacity();
+
+        void begin(int vertices, int expectedArcs);
+
+        void add(int u, int v, long capacity);
+    }
+
+    private static final class Narrow implements Edges {
+        FlowNetwork.Builder builder;
+
+        @Override
+        public long maxCapacity() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void begin(int vertices, int expectedArcs) {
+            builder = new FlowNetwork.Builder(vertices, expectedArcs);
+        }
+
+        @Override
+        public void add(int u, int v, long capacity) {
+            builder.addEdge(u, v, (int) capacity);
+        }
+    }
+
+    private static final class Wide implements Edges {
+        LongFlowNetwork.Builder builder;
+
+        @Override
+        public long maxCapacity() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public void begin(int vertices, int expectedArcs) {
+            builder = new LongFlowNetwork.Builder(vertices, expectedArcs);
+        }
+
+        @Override
+        public void add(int u, int v, long capacity) {
+            builder.addEdge(u, v, capacity);
+        }
+    }
+
+    private static final class Parser {
+        private final MappedInput in;
+        private final Edges edges;
+        private int c; // current byte, -1 at the end
+        private long line = 1;
+
+        Parser(MappedInput in, Edges edges) throws IOException {
+            this.in = in;
+            this.edges = edges;
+            this.c = in.read();
+        }
+
+        // Returns {source, sink}
+        int[] parse() throws IOException {
+            boolean started = false;
+            int n = 0;
+            int source = -1, sink = -1;
+
+            while (c != -1) {
+                skipBlanks();
+                int type = c;
+                if (type == '\n' || type == '\r' || type == -1) {
+                    nextLine();
+                    continue;
+                }
+                c = in.read();
+                switch (type) {
+                    case 'c':
+                        break;
+                    case 'p': {
+                        if (started) throw error("Second 'p' line");
+                        skipBlanks();
+                        if (c != 'm' || (c = in.read()) != 'a' || (c = in.read()) != 'x') {
+                            throw error("Only 'p max' problems are supported");
+                        }
+                        c = in.read();
+                        n = (int) readNumber(Integer.MAX_VALUE);
+                        long arcs = readNumber(Integer.MAX_VALUE);
+                        edges.begin(n, (int) Math.min(arcs, PREALLOCATED_ARCS));
+                        started = true;
+                        break;
+                    }
+                    case 'n': {
+                        int v = vertex(n, started);
+                        skipBlanks();
+                        if (c == 's') source = v;
+                        else if (c == 't') sink = v;
+                        else throw error("Expected 's' or 't' after the vertex");
+                        c = in.read();
+                        break;
+                    }
+                    case 'a': {
+                        int u = vertex(n, started);
+                        int v = vertex(n, started);
+                        edges.add(u, v, readNumber(edges.maxCapacity()));
+                        break;
+                    }
+                    default:
+                        throw error("Unknown line type '" + (char) type + "'");
+                }
+                nextLine();
+            }
+
+            if (!started) throw error("Missing 'p max' line");
+            if (source == -1 || sink == -1) throw error("Missing source or sink line");
+            return new int[]{source, sink};
+        }
+
+        private int vertex(int n, boolean started) throws IOException {
+            if (!started) throw error("Line before the 'p max' line");
+            long v = readNumber(Integer.MAX_VALUE);
+            if (v < 1 || v > n) throw error("Vertex " + v + " out of range 1.." + n);
+            return (int) (v - 1);
+        }
+
+        private long readNumber(long max) throws IOException {
+            skipBlanks();
+            if (c < '0' || c > '9') throw error("Expected a number");
+            long value = 0;
+            while (c >= '0' && c <= '9') {
+                int digit = c - '0';
+                if (value > (max - digit) / 10) throw error("Number too large");
+                value = value * 10 + digit;
+                c = in.read();
+            }
+            return value;
+        }
+
+        private void skipBlanks() throws IOException {
+            while (c == ' ' || c == '\t') {
+                c = in.read();
+            }
+        }
+
+        // Skip the rest of the line, including its line break
+        private void nextLine() throws IOException {
+            while (c != '\n' && c != -1) {
+                c = in.read();
+            }
+            if (c == '\n') {
+                c = in.read();
+                line++;
+            }
+        }
+
+        private IOException error(String message) {
+            return new IOException("DIMACS line " + line + ": " + message);
+        }
+    }
+}
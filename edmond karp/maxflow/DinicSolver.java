@@ -0,0 +1,283 @@
+package maxflow;
+
+import java.io.IOException;
+
+// Dinic: BFS level graph, then a blocking flow found with current-arc pointers. O(V^2 E),
+// and O(E sqrt(V)) on unit-capacity bipartite graphs. The level graph and the blocking flow are
+// written once over int[] arcs and once over IntStorage for StoredFlowNetwork.
+public final class DinicSolver implements MaxFlowSolver {
+    private final FlowListener listener;
+
+    public DinicSolver() {
+        this(null);
+    }
+
+    public DinicSolver(FlowListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public int maxFlow(FlowNetwork network, int source, int sink, int[] edgeFlow, FlowWorkspace workspace) {
+        network.checkTerminals(source, sink);
+
+        int n = network.n;
+        workspace.ensureCapacity(network);
+        workspace.ensureLevels(n);
+        workspace.resetResidual(network);
+        int maxFlow = 0;
+
+        if (source == sink) {
+            workspace.markSourceSide(network, source);
+        } else {
+            // The last level graph does not reach the sink, so it marks the source side of the cut
+            while (!workspace.outOfBudget() && search(network, workspace, source, sink)) {
+                System.arraycopy(network.start, 0, workspace.currentArc, 0, n);
+                maxFlow = blockingFlow(network, workspace, source, sink, maxFlow);
+            }
+            if (workspace.stoppedEarly) {
+                workspace.markSourceSide(network, source);
+            }
+        }
+
+        if (edgeFlow != null) {
+            workspace.writeEdgeFlow(network, edgeFlow);
+        }
+        return maxFlow;
+    }
+
+    @Override
+    public int maxFlow(StoredFlowNetwork network, int source, int sink, IntStorage edgeFlow,
+                       FlowWorkspace workspace) throws IOException {
+        network.checkTerminals(source, sink);
+
+        int n = network.n;
+        workspace.ensureCapacity(network);
+        workspace.ensureLevels(n);
+        workspace.resetResidual(network);
+        int maxFlow = 0;
+
+        if (source == sink) {
+            workspace.markSourceSide(network, source);
+        } else {
+            while (!workspace.outOfBudget() && search(network, workspace, source, sink)) {
+                System.arraycopy(network.start, 0, workspace.currentArc, 0, n);
+                maxFlow = blockingFlow(network, workspace, source, sink, maxFlow);
+            }
+            if (workspace.stoppedEarly) {
+                workspace.markSourceSide(network, source);
+            }
+        }
+
+        if (edgeFlow != null) {
+            workspace.writeEdgeFlow(network, edgeFlow);
+        }
+        return maxFlow;
+    }
+
+    private static boolean search(FlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        long started = System.nanoTime();
+        boolean found = buildLevels(network, workspace, source, sink);
+        workspace.searchNanos += System.nanoTime() - started;
+        return found;
+    }
+
+    // BFS from the source; a vertex is in the level graph iff stamp[v] == epoch.
+    // Stops after the sink's level, since deeper vertices cannot be on a shortest path.
+    private static boolean buildLevels(FlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        int[] start = network.start;
+        int[] head = network.head;
+        int[] residual = workspace.residual;
+        int[] level = workspace.label;
+        int[] stamp = workspace.stamp;
+        int[] queue = workspace.queue;
+        int mask = workspace.queueMask;
+        int epoch = workspace.nextEpoch();
+
+        int qHead = 0, qTail = 0;
+        queue[qTail++ & mask] = source;
+        stamp[source] = epoch;
+        level[source] = 0;
+
+        long arcs = 0;
+        while (qHead != qTail) {
+            int u = queue[qHead++ & mask];
+            if (stamp[sink] == epoch && level[u] >= level[sink]) break;
+            arcs += start[u + 1] - start[u];
+            for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                int v = head[a];
+                if (stamp[v] != epoch && residual[a] > 0) {
+                    stamp[v] = epoch;
+                    level[v] = level[u] + 1;
+                    queue[qTail++ & mask] = v;
+                }
+            }
+        }
+        workspace.vertexVisits += qTail;
+        workspace.arcVisits += arcs;
+        return stamp[sink] == epoch;
+    }
+
+    // Iterative DFS over the level graph, returning the total flow so far. parentArc records the path, so after each
+    // augmentation the walk restarts from the source and skips saturated arcs via currentArc.
+    private int blockingFlow(FlowNetwork network, FlowWorkspace workspace, int source, int sink, int flow) {
+        int[] start = network.start;
+        int[] head = network.head;
+        int[] rev = network.rev;
+        int[] residual = workspace.residual;
+        int[] level = workspace.label;
+        int[] stamp = workspace.stamp;
+        int[] currentArc = workspace.currentArc;
+        int[] parentArc = workspace.parentArc;
+        int epoch = workspace.epoch;
+
+        int u = source;
+        while (true) {
+            if (u == sink) {
+                int pathFlow = Integer.MAX_VALUE;
+                for (int v = sink; v != source; v = head[rev[parentArc[v]]]) {
+                    pathFlow = Math.min(pathFlow, residual[parentArc[v]]);
+                }
+                int length = level[sink]; // every path of a level graph is a shortest path
+                for (int v = sink; v != source; v = head[rev[parentArc[v]]]) {
+                    int a = parentArc[v];
+                    residual[a] -= pathFlow;
+                    residual[rev[a]] += pathFlow;
+                }
+                flow = Math.addExact(flow, pathFlow);
+                workspace.recordPath(length, pathFlow);
+                if (listener != null) {
+                    int vertices = workspace.tracePath(network, source, sink);
+                    listener.augmented(workspace.path, vertices, pathFlow, flow);
+                }
+                if (workspace.outOfBudget()) break;
+                u = source;
+                continue;
+            }
+
+            // Advance along the first admissible arc
+            int a = currentArc[u];
+            int end = start[u + 1];
+            while (a < end) {
+                int v = head[a];
+                if (residual[a] > 0 && stamp[v] == epoch && level[v] == level[u] + 1) break;
+                a++;
+            }
+            currentArc[u] = a;
+
+            if (a < end) {
+                int v = head[a];
+                parentArc[v] = a;
+                u = v;
+            } else {
+                // Dead end: drop u from the level graph and retreat
+                if (u == source) break;
+                stamp[u] = epoch - 1;
+                int back = parentArc[u];
+                u = head[rev[back]];
+                currentArc[u]++;
+            }
+        }
+        return flow;
+    }
+
+    private static boolean search(StoredFlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        long started = System.nanoTime();
+        boolean found = buildLevels(network, workspace, source, sink);
+        workspace.searchNanos += System.nanoTime() - started;
+        return found;
+    }
+
+    private static boolean buildLevels(StoredFlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        int[] start = network.start;
+        IntStorage head = network.head;
+        IntStorage residual = workspace.storedResidual;
+        int[] level = workspace.label;
+        int[] stamp = workspace.stamp;
+        int[] queue = workspace.queue;
+        int mask = workspace.queueMask;
+        int epoch = workspace.nextEpoch();
+
+        int qHead = 0, qTail = 0;
+        queue[qTail++ & mask] = source;
+        stamp[source] = epoch;
+        level[source] = 0;
+
+        long arcs = 0;
+        while (qHead != qTail) {
+            int u = queue[qHead++ & mask];
+            if (stamp[sink] == epoch && level[u] >= level[sink]) break;
+            arcs += start[u + 1] - start[u];
+            for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                int v = head.get(a);
+                if (stamp[v] != epoch && residual.get(a) > 0) {
+                    stamp[v] = epoch;
+                    level[v] = level[u] + 1;
+                    queue[qTail++ & mask] = v;
+                }
+            }
+        }
+        workspace.vertexVisits += qTail;
+        workspace.arcVisits += arcs;
+        return stamp[sink] == epoch;
+    }
+
+    private int blockingFlow(StoredFlowNetwork network, FlowWorkspace workspace, int source, int sink, int flow) {
+        int[] start = network.start;
+        IntStorage head = network.head;
+        IntStorage rev = network.rev;
+        IntStorage residual = workspace.storedResidual;
+        int[] level = workspace.label;
+        int[] stamp = workspace.stamp;
+        int[] currentArc = workspace.currentArc;
+        int[] parentArc = workspace.parentArc;
+        int epoch = workspace.epoch;
+
+        int u = source;
+        while (true) {
+            if (u == sink) {
+                int pathFlow = Integer.MAX_VALUE;
+                for (int v = sink; v != source; v = head.get(rev.get(parentArc[v]))) {
+                    pathFlow = Math.min(pathFlow, residual.get(parentArc[v]));
+                }
+                int length = level[sink];
+                for (int v = sink; v != source; v = head.get(rev.get(parentArc[v]))) {
+                    int a = parentArc[v];
+                    int b = rev.get(a);
+                    residual.set(a, residual.get(a) - pathFlow);
+                    residual.set(b, residual.get(b) + pathFlow);
+                }
+                flow = Math.addExact(flow, pathFlow);
+                workspace.recordPath(length, pathFlow);
+                if (listener != null) {
+                    int vertices = workspace.tracePath(network, source, sink);
+                    listener.augmented(workspace.path, vertices, pathFlow, flow);
+                }
+                if (workspace.outOfBudget()) break;
+                u = source;
+                continue;
+            }
+
+            int a = currentArc[u];
+            int end = start[u + 1];
+            while (a < end) {
+                int v = head.get(a);
+                if (residual.get(a) > 0 && stamp[v] == epoch && level[v] == level[u] + 1) break;
+                a++;
+            }
+            currentArc[u] = a;
+
+            if (a < end) {
+                int v = head.get(a);
+                parentArc[v] = a;
+                u = v;
+            } else {
+                if (u == source) break;
+                stamp[u] = epoch - 1;
+                int back = parentArc[u];
+                u = head.get(rev.get(back));
+                currentArc[u]++;
+            }
+        }
+        return flow;
+    }
+}
@@ -0,0 +1,311 @@
+package maxflow;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+// Reference engine: shortest augmenting paths, O(V E^2). Each BFS costs O(V + E) on the CSR network,
+// whether its arcs are int[] arrays (FlowNetwork) or IntStorage (StoredFlowNetwork).
+public final class EdmondsKarpSolver implements MaxFlowSolver {
+    private final FlowListener listener;
+    private final SearchMode mode;
+    private final ParallelBfs parallel; // only for SearchMode.PARALLEL
+
+    public EdmondsKarpSolver() {
+        this(null, SearchMode.FORWARD);
+    }
+
+    public EdmondsKarpSolver(FlowListener listener) {
+        this(listener, SearchMode.FORWARD);
+    }
+
+    // PARALLEL runs on the common pool from ParallelBfs.DEFAULT_MIN_VERTICES vertices up
+    public EdmondsKarpSolver(FlowListener listener, SearchMode mode) {
+        this.listener = listener;
+        this.mode = mode;
+        this.parallel = mode == SearchMode.PARALLEL
+                ? new ParallelBfs(ForkJoinPool.commonPool(), ParallelBfs.DEFAULT_MIN_VERTICES)
+                : null;
+    }
+
+    // Parallel search on the given pool for networks with at least minVertices vertices;
+    // smaller networks use the sequential search
+    public EdmondsKarpSolver(FlowListener listener, ForkJoinPool pool, int minVertices) {
+        this.listener = listener;
+        this.mode = SearchMode.PARALLEL;
+        this.parallel = new ParallelBfs(pool, minVertices);
+    }
+
+    @Override
+    public int maxFlow(FlowNetwork network, int source, int sink, int[] edgeFlow, FlowWorkspace workspace) {
+        network.checkTerminals(source, sink);
+
+        workspace.ensureCapacity(network);
+        workspace.resetResidual(network);
+        int maxFlow = 0;
+        if (source != sink) {
+            int delta = mode == SearchMode.SCALING ? scalingStart(network.cap) : 1;
+            maxFlow = augment(arrays, network, workspace, source, sink, delta);
+        }
+        if (source == sink || workspace.stoppedEarly) {
+            workspace.markSourceSide(network, source);
+        }
+
+        if (edgeFlow != null) {
+            workspace.writeEdgeFlow(network, edgeFlow);
+        }
+        return maxFlow;
+    }
+
+    // The same solve with the arcs and residual capacities in IntStorage, in any search mode
+    @Override
+    public int maxFlow(StoredFlowNetwork network, int source, int sink, IntStorage edgeFlow,
+                       FlowWorkspace workspace) throws IOException {
+        network.checkTerminals(source, sink);
+
+        workspace.ensureCapacity(network);
+        workspace.resetResidual(network);
+        int maxFlow = 0;
+        if (source != sink) {
+            int delta = mode == SearchMode.SCALING ? scalingStart(network.cap) : 1;
+            maxFlow = augment(stored, network, workspace, source, sink, delta);
+        }
+        if (source == sink || workspace.stoppedEarly) {
+            workspace.markSourceSide(network, source);
+        }
+
+        if (edgeFlow != null) {
+            workspace.writeEdgeFlow(network, edgeFlow);
+        }
+        return maxFlow;
+    }
+
+    // Augment along shortest paths until none is left or the budget runs out. One phase with
+    // delta 1 unless scaling; the last, failing search of the delta 1 phase leaves the source side
+    // of the minimum cut marked.
+    private <N> int augment(Arcs<N> arcs, N network, FlowWorkspace workspace, int source, int sink, int delta) {
+        int maxFlow = 0;
+        for (; delta > 0 && !workspace.stoppedEarly; delta >>>= 1) {
+            while (!workspace.outOfBudget() && arcs.search(network, workspace, source, sink, delta)) {
+                int pathFlow = arcs.pushPath(network, workspace, source, sink);
+                maxFlow = Math.addExact(maxFlow, pathFlow); // throws instead of wrapping past int
+                if (listener != null) {
+                    int vertices = arcs.tracePath(network, workspace, source, sink);
+                    listener.augmented(workspace.path, vertices, pathFlow, maxFlow);
+                }
+            }
+        }
+        return maxFlow;
+    }
+
+    // The steps of the solve that read the arcs, once for each place they can live. Called once
+    // per path or search, so the interface call is lost in the O(V + E) search.
+    private interface Arcs<N> {
+        boolean search(N network, FlowWorkspace workspace, int source, int sink, int delta);
+
+        // Push the bottleneck along the path in parentArc, record the path and return its flow
+        int pushPath(N network, FlowWorkspace workspace, int source, int sink);
+
+        int tracePath(N network, FlowWorkspace workspace, int source, int sink);
+    }
+
+    private final Arcs<FlowNetwork> arrays = new Arcs<>() {
+        @Override
+        public boolean search(FlowNetwork network, FlowWorkspace workspace, int source, int sink, int delta) {
+            return EdmondsKarpSolver.this.search(network, workspace, source, sink, delta);
+        }
+
+        @Override
+        public int pushPath(FlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+            int[] residual = workspace.residual;
+            int[] parentArc = workspace.parentArc;
+            int[] head = network.head;
+            int[] rev = network.rev;
+
+            // Find the bottleneck along the path
+            int pathFlow = Integer.MAX_VALUE;
+            int length = 0;
+            for (int v = sink; v != source; v = head[rev[parentArc[v]]]) {
+                pathFlow = Math.min(pathFlow, residual[parentArc[v]]);
+                length++;
+            }
+
+            // Update residual capacities along the path
+            for (int v = sink; v != source; v = head[rev[parentArc[v]]]) {
+                int a = parentArc[v];
+                residual[a] -= pathFlow;
+                residual[rev[a]] += pathFlow;
+            }
+            workspace.recordPath(length, pathFlow);
+            return pathFlow;
+        }
+
+        @Override
+        public int tracePath(FlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+            return workspace.tracePath(network, source, sink);
+        }
+    };
+
+    private final Arcs<StoredFlowNetwork> stored = new Arcs<>() {
+        @Override
+        public boolean search(StoredFlowNetwork network, FlowWorkspace workspace, int source, int sink, int delta) {
+            return EdmondsKarpSolver.this.search(network, workspace, source, sink, delta);
+        }
+
+        @Override
+        public int pushPath(StoredFlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+            IntStorage residual = workspace.storedResidual;
+            IntStorage head = network.head;
+            IntStorage rev = network.rev;
+            int[] parentArc = workspace.parentArc;
+
+            int pathFlow = Integer.MAX_VALUE;
+            int length = 0;
+            for (int v = sink; v != source; v = head.get(rev.get(parentArc[v]))) {
+                pathFlow = Math.min(pathFlow, residual.get(parentArc[v]));
+                length++;
+            }
+            for (int v = sink; v != source; v = head.get(rev.get(parentArc[v]))) {
+                int a = parentArc[v];
+                int b = rev.get(a);
+                residual.set(a, residual.get(a) - pathFlow);
+                residual.set(b, residual.get(b) + pathFlow);
+            }
+            workspace.recordPath(length, pathFlow);
+            return pathFlow;
+        }
+
+        @Override
+        public int tracePath(StoredFlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+            return workspace.tracePath(network, source, sink);
+        }
+    };
+
+    private boolean search(FlowNetwork network, FlowWorkspace workspace, int source, int sink, int delta) {
+        long started = System.nanoTime();
+        boolean found;
+        if (mode == SearchMode.SCALING) {
+            found = bfs(network, workspace, source, sink, delta);
+        } else if (mode == SearchMode.BIDIRECTIONAL) {
+            found = BidirectionalBfs.search(network, workspace, source, sink);
+        } else if (mode == SearchMode.PARALLEL) {
+            found = parallel.search(network, workspace, source, sink);
+        } else {
+            found = bfs(network, workspace, source, sink);
+        }
+        workspace.searchNanos += System.nanoTime() - started;
+        return found;
+    }
+
+    private boolean search(StoredFlowNetwork network, FlowWorkspace workspace, int source, int sink, int delta) {
+        long started = System.nanoTime();
+        boolean found;
+        if (mode == SearchMode.BIDIRECTIONAL) {
+            found = BidirectionalBfs.search(network, workspace, source, sink);
+        } else if (mode == SearchMode.PARALLEL) {
+            found = parallel.search(network, workspace, source, sink);
+        } else {
+            found = bfs(network, workspace, source, sink, delta);
+        }
+        workspace.searchNanos += System.nanoTime() - started;
+        return found;
+    }
+
+    // Largest power of two not above the largest capacity, and at least 1
+    static int scalingStart(int[] cap) {
+        int max = 1;
+        for (int c : cap) {
+            max = Math.max(max, c);
+        }
+        return Integer.highestOneBit(max);
+    }
+
+    static int scalingStart(IntStorage cap) {
+        int max = 1;
+        for (int a = 0, arcs = cap.size(); a < arcs; a++) {
+            max = Math.max(max, cap.get(a));
+        }
+        return Integer.highestOneBit(max);
+    }
+
+    // BFS over residual arcs; fills parentArc and returns true once the sink is reached
+    static boolean bfs(FlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        return bfs(network, workspace, source, sink, 1);
+    }
+
+    // The same over arcs with at least delta residual capacity
+    static boolean bfs(FlowNetwork network, FlowWorkspace workspace, int source, int sink, int delta) {
+        int[] start = network.start;
+        int[] head = network.head;
+        int[] residual = workspace.residual;
+        int[] parentArc = workspace.parentArc;
+        int[] stamp = workspace.stamp;
+        int[] queue = workspace.queue;
+        int mask = workspace.queueMask;
+        int epoch = workspace.nextEpoch();
+
+        int qHead = 0, qTail = 0;
+        queue[qTail++ & mask] = source;
+        stamp[source] = epoch;
+
+        long arcs = 0;
+        while (qHead != qTail) {
+            int u = queue[qHead++ & mask];
+            arcs += start[u + 1] - start[u];
+            for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                int v = head[a];
+                if (stamp[v] != epoch && residual[a] >= delta) {
+                    stamp[v] = epoch;
+                    parentArc[v] = a;
+                    if (v == sink) {
+                        workspace.vertexVisits += qTail + 1;
+                        workspace.arcVisits += arcs;
+                        return true; // Sink reached
+                    }
+                    queue[qTail++ & mask] = v;
+                }
+            }
+        }
+        workspace.vertexVisits += qTail;
+        workspace.arcVisits += arcs;
+        return false; // No augmenting path found
+    }
+
+    // The same over a StoredFlowNetwork: arcs and residual capacities through IntStorage, the
+    // per-vertex search state on the heap
+    static boolean bfs(StoredFlowNetwork network, FlowWorkspace workspace, int source, int sink, int delta) {
+        int[] start = network.start;
+        IntStorage head = network.head;
+        IntStorage residual = workspace.storedResidual;
+        int[] parentArc = workspace.parentArc;
+        int[] stamp = workspace.stamp;
+        int[] queue = workspace.queue;
+        int mask = workspace.queueMask;
+        int epoch = workspace.nextEpoch();
+
+        int qHead = 0, qTail = 0;
+        queue[qTail++ & mask] = source;
+        stamp[source] = epoch;
+
+        long arcs = 0;
+        while (qHead != qTail) {
+            int u = queue[qHead++ & mask];
+            arcs += start[u + 1] - start[u];
+            for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                int v = head.get(a);
+                if (stamp[v] != epoch && residual.get(a) >= delta) {
+                    stamp[v] = epoch;
+                    parentArc[v] = a;
+                    if (v == sink) {
+                        workspace.vertexVisits += qTail + 1;
+                        workspace.arcVisits += arcs;
+                        return true; // Sink reached
+                    }
+                    queue[qTail++ & mask] = v;
+                }
+            }
+        }
+        workspace.vertexVisits += qTail;
+        workspace.arcVisits += arcs;
+        return false; // No augmenting path found
+    }
+}
@@ -0,0 +1,212 @@
+package maxflow;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caches solve results by network topology and terminals, keeping the latest capacity version of
+// each. A lookup with the same capacities is a hit and returns the cached result. One with
+// different capacities is a near miss: the cached flow is clamped to the new capacities and
+// repaired by IncrementalMaxFlow.warmStart, unless more than MAX_REPAIRS edges need clamping, in
+// which case it is solved from scratch like a miss. Entries are evicted least recently used first,
+// by count and by the total edge count of the cached results.
+//
+// Only misses run the configured solver. The engines always start from zero flow, so a repair
+// runs IncrementalMaxFlow's own Edmonds-Karp augmentation, whatever the solver. It only has to
+// restore the flow that the few clamped edges lost.
+//
+// Lookups go by 64-bit fingerprints, but each entry keeps its network and is only used for a
+// network with the same edges, and only returned for the same capacities. A fingerprint collision
+// is then just a miss. The kept networks count against maxEdges through their results.
+//
+// Thread-safe. Cached results are shared between callers, so their edgeFlow() arrays must not be
+// modified.
+public final class FlowCache implements FlowCacheMBean {
+    static final int MAX_REPAIRS = 64; // clamped edges beyond which a fresh solve is usually cheaper
+
+    private final MaxFlowSolver solver;
+    private final int maxEntries;
+    private final long maxEdges;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // access order
+    private long cachedEdges;
+    private final ConcurrentLinkedQueue<FlowWorkspace> workspaces = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder warmStarts = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public FlowCache(MaxFlowSolver solver, int maxEntries) {
+        this(solver, maxEntries, Long.MAX_VALUE);
+    }
+
+    // The solver is called concurrently, so it must not carry a FlowListener
+    public FlowCache(MaxFlowSolver solver, int maxEntries, long maxEdges) {
+        if (maxEntries < 1) throw new IllegalArgumentException("Cache must hold at least one entry: " + maxEntries);
+        if (maxEdges < 0) throw new IllegalArgumentException("Negative edge budget: " + maxEdges);
+        this.solver = solver;
+        this.maxEntries = maxEntries;
+        this.maxEdges = maxEdges;
+    }
+
+    public MaxFlowResult solve(FlowNetwork network, int source, int sink) {
+        network.checkTerminals(source, sink);
+        Key key = new Key(network.topologyFingerprint(), source, sink);
+        long capacities = network.capacityFingerprint();
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null && !cached.network.sameTopology(network)) {
+            cached = null; // colliding fingerprint: solve afresh and take over the entry
+        }
+        if (cached != null && cached.capacities == capacities && cached.network.sameCapacities(network)) {
+            hits.increment();
+            return cached.result;
+        }
+
+        MaxFlowResult result;
+        if (cached != null && clampedEdges(network, cached.edgeFlow) <= MAX_REPAIRS) {
+            warmStarts.increment();
+            result = IncrementalMaxFlow.warmStart(network, source, sink, cached.edgeFlow).result();
+        } else {
+            misses.increment();
+            FlowWorkspace workspace = workspaces.poll();
+            if (workspace == null) workspace = new FlowWorkspace();
+            try {
+                result = solver.solve(network, source, sink, workspace);
+            } finally {
+                workspaces.offer(workspace);
+            }
+        }
+        put(key, new Entry(network, capacities, result));
+        return result;
+    }
+
+    private static int clampedEdges(FlowNetwork network, int[] edgeFlow) {
+        int clamped = 0;
+        for (int e = 0; e < network.m && clamped <= MAX_REPAIRS; e++) {
+            if (edgeFlow[e] > network.cap[network.edgeArc[e]]) clamped++;
+        }
+        return clamped;
+    }
+
+    private void put(Key key, Entry entry) {
+        synchronized (entries) {
+            Entry old = entries.put(key, entry);
+            if (old != null) cachedEdges -= old.edgeFlow.length;
+            cachedEdges += entry.edgeFlow.length;
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > 1 && (entries.size() > maxEntries || cachedEdges > maxEdges)) {
+                cachedEdges -= eldest.next().getValue().edgeFlow.length;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    // Register with the platform MBean server as maxflow:type=FlowCache,name=<name>
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("maxflow:type=FlowCache,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getWarmStarts() {
+        return warmStarts.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        return rate(hits.sum());
+    }
+
+    @Override
+    public double getWarmStartRate() {
+        return rate(warmStarts.sum());
+    }
+
+    @Override
+    public double getMissRate() {
+        return rate(misses.sum());
+    }
+
+    private double rate(long count) {
+        long lookups = hits.sum() + warmStarts.sum() + misses.sum();
+        return lookups == 0 ? 0 : (double) count / lookups;
+    }
+
+    @Override
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    // Drops every entry; the counters keep running
+    @Override
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            cachedEdges = 0;
+        }
+    }
+
+    private static final class Key {
+        final long topology;
+        final int source;
+        final int sink;
+
+        Key(long topology, int source, int sink) {
+            this.topology = topology;
+            this.source = source;
+            this.sink = sink;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return topology == other.topology && source == other.source && sink == other.sink;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(topology) * 31 * 31 + source * 31 + sink;
+        }
+    }
+
+    private static final class Entry {
+        final FlowNetwork network; // what the result was solved for, to tell collisions from hits
+        final long capacities;
+        final MaxFlowResult result;
+        final int[] edgeFlow; // private copy for warm starts
+
+        Entry(FlowNetwork network, long capacities, MaxFlowResult result) {
+            this.network = network;
+            this.capacities = capacities;
+            this.result = result;
+            this.edgeFlow = result.edgeFlow().clone();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package maxflow;
+
+// JMX view of a FlowCache. Every lookup is exactly one of a hit, a warm start or a miss.
+public interface FlowCacheMBean {
+    long getHits();
+
+    long getWarmStarts();
+
+    long getMisses();
+
+    long getEvictions();
+
+    double getHitRate();
+
+    double getWarmStartRate();
+
+    double getMissRate();
+
+    int getSize();
+
+    void clear();
+}
@@ -0,0 +1,10 @@
+package maxflow;
+
+// Optional observer for augmenting-path engines; a solver without one skips the reporting entirely.
+// Called on the solving thread, so GUI listeners must hand the data over to their own thread.
+public interface FlowListener {
+
+    // path[0 .. length) lists the vertices from source to sink. The array is reused by the
+    // solver, so copy whatever must outlive the call.
+    void augmented(int[] path, int length, int pathFlow, int totalFlow);
+}
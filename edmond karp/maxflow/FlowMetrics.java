@@ -0,0 +1,132 @@
+package maxflow;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Totals over many solves, fed by MeteredSolver from the counters each solve leaves in its
+// FlowWorkspace. Thread-safe, so one instance can collect for every thread; register it to read
+// the numbers over JMX.
+public final class FlowMetrics implements FlowMetricsMBean {
+    private final LongAdder solves = new LongAdder();
+    private final LongAdder augmentations = new LongAdder();
+    private final LongAdder vertexVisits = new LongAdder();
+    private final LongAdder arcVisits = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder solveNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final AtomicLongArray pathLengths = new AtomicLongArray(FlowWorkspace.HISTOGRAM_BUCKETS);
+    private final AtomicLongArray bottlenecks = new AtomicLongArray(FlowWorkspace.HISTOGRAM_BUCKETS);
+
+    // Add one solve; allocatedBytes is -1 when the JVM cannot measure it
+    public void record(FlowWorkspace workspace, long solveNanos, long allocatedBytes) {
+        solves.increment();
+        augmentations.add(workspace.augmentations);
+        vertexVisits.add(workspace.vertexVisits);
+        arcVisits.add(workspace.arcVisits);
+        searchNanos.add(workspace.searchNanos);
+        this.solveNanos.add(solveNanos);
+        if (allocatedBytes > 0) this.allocatedBytes.add(allocatedBytes);
+        for (int b = 0; b < FlowWorkspace.HISTOGRAM_BUCKETS; b++) {
+            if (workspace.pathLengths[b] != 0) pathLengths.addAndGet(b, workspace.pathLengths[b]);
+            if (workspace.bottlenecks[b] != 0) bottlenecks.addAndGet(b, workspace.bottlenecks[b]);
+        }
+    }
+
+    // Register with the platform MBean server as maxflow:type=FlowMetrics,name=<name>
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("maxflow:type=FlowMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public long getSolves() {
+        return solves.sum();
+    }
+
+    @Override
+    public long getAugmentations() {
+        return augmentations.sum();
+    }
+
+    @Override
+    public long getVertexVisits() {
+        return vertexVisits.sum();
+    }
+
+    @Override
+    public long getArcVisits() {
+        return arcVisits.sum();
+    }
+
+    @Override
+    public long getSearchNanos() {
+        return searchNanos.sum();
+    }
+
+    @Override
+    public long getSolveNanos() {
+        return solveNanos.sum();
+    }
+
+    // Bytes allocated by the solving threads; work forked to a pool is not included
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    @Override
+    public double getAugmentationsPerSolve() {
+        long count = solves.sum();
+        return count == 0 ? 0 : (double) augmentations.sum() / count;
+    }
+
+    @Override
+    public double getArcVisitsPerAugmentation() {
+        long count = augmentations.sum();
+        return count == 0 ? 0 : (double) arcVisits.sum() / count;
+    }
+
+    @Override
+    public double getMeanSolveMillis() {
+        long count = solves.sum();
+        return count == 0 ? 0 : solveNanos.sum() / 1e6 / count;
+    }
+
+    @Override
+    public long[] getPathLengthHistogram() {
+        return snapshot(pathLengths);
+    }
+
+    @Override
+    public long[] getBottleneckHistogram() {
+        return snapshot(bottlenecks);
+    }
+
+    // Not atomic with respect to concurrent record calls
+    @Override
+    public void reset() {
+        solves.reset();
+        augmentations.reset();
+        vertexVisits.reset();
+        arcVisits.reset();
+        searchNanos.reset();
+        solveNanos.reset();
+        allocatedBytes.reset();
+        for (int b = 0; b < FlowWorkspace.HISTOGRAM_BUCKETS; b++) {
+            pathLengths.set(b, 0);
+            bottlenecks.set(b, 0);
+        }
+    }
+
+    private static long[] snapshot(AtomicLongArray histogram) {
+        long[] copy = new long[histogram.length()];
+        for (int b = 0; b < copy.length; b++) {
+            copy[b] = histogram.get(b);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,30 @@
+package maxflow;
+
+// JMX view of a FlowMetrics; the histograms use FlowWorkspace.HISTOGRAM_BUCKETS log2 buckets
+public interface FlowMetricsMBean {
+    long getSolves();
+
+    long getAugmentations();
+
+    long getVertexVisits();
+
+    long getArcVisits();
+
+    long getSearchNanos();
+
+    long getSolveNanos();
+
+    long getAllocatedBytes();
+
+    double getAugmentationsPerSolve();
+
+    double getArcVisitsPerAugmentation();
+
+    double getMeanSolveMillis();
+
+    long[] getPathLengthHistogram();
+
+    long[] getBottleneckHistogram();
+
+    void reset();
+}
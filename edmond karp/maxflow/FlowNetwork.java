@@ -0,0 +1,194 @@
+package maxflow;
+
+import java.util.Arrays;
+
+// Immutable residual graph in compressed-sparse-row form.
+// Every input edge becomes a forward arc and a paired reverse arc, so memory grows with E, not V^2.
+// Each vertex lists its forward arcs before its reverse arcs.
+public final class FlowNetwork {
+    private static final long GOLDEN = 0x9e3779b97f4a7c15L; // fingerprint step, from SplitMix64
+
+    final int n; // number of vertices
+    final int m; // number of input edges
+    final int[] start; // arcs of vertex v are start[v] .. start[v + 1] - 1
+    final int[] reverseStart; // forward arcs of v come first; its reverse arcs start here
+    final int[] head; // target vertex of each arc
+    final int[] rev; // index of the paired reverse arc
+    final int[] cap; // original capacity of each arc (0 for reverse arcs)
+    final int[] edgeArc; // forward arc of each input edge
+    volatile long[] fingerprints; // {topology, capacities}, computed on first use
+
+    private FlowNetwork(int n, int m, int[] start, int[] reverseStart, int[] head, int[] rev, int[] cap,
+                        int[] edgeArc) {
+        this.n = n;
+        this.m = m;
+        this.start = start;
+        this.reverseStart = reverseStart;
+        this.head = head;
+        this.rev = rev;
+        this.cap = cap;
+        this.edgeArc = edgeArc;
+    }
+
+    // Build a network from a dense capacity matrix, keeping only the positive cells
+    public static FlowNetwork fromMatrix(int[][] capacity) {
+        int n = capacity.length;
+        Builder builder = new Builder(n);
+        for (int u = 0; u < n; u++) {
+            for (int v = 0; v < n; v++) {
+                if (capacity[u][v] > 0) {
+                    builder.addEdge(u, v, capacity[u][v]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    void checkTerminals(int source, int sink) {
+        if (source < 0 || source >= n || sink < 0 || sink >= n) {
+            throw new IllegalArgumentException("Source or sink out of range: " + source + ", " + sink);
+        }
+    }
+
+    public int vertexCount() {
+        return n;
+    }
+
+    public int edgeCount() {
+        return m;
+    }
+
+    public int edgeFrom(int edge) {
+        return head[rev[edgeArc[edge]]];
+    }
+
+    public int edgeTo(int edge) {
+        return head[edgeArc[edge]];
+    }
+
+    public int edgeCapacity(int edge) {
+        return cap[edgeArc[edge]];
+    }
+
+    // 64-bit hash of the vertex count and the edge endpoints in edge order. Networks built from
+    // the same edge list agree; unequal networks collide with probability about 2^-64.
+    public long topologyFingerprint() {
+        return fingerprints()[0];
+    }
+
+    // 64-bit hash of the edge capacities in edge order
+    public long capacityFingerprint() {
+        return fingerprints()[1];
+    }
+
+    // The same edges in the same order as other, which the fingerprints only make likely
+    boolean sameTopology(FlowNetwork other) {
+        return other == this || Arrays.equals(start, other.start) && Arrays.equals(edgeArc, other.edgeArc)
+                && Arrays.equals(head, other.head);
+    }
+
+    // The same capacities as other, which must have the same topology
+    boolean sameCapacities(FlowNetwork other) {
+        return other == this || Arrays.equals(cap, other.cap);
+    }
+
+    private long[] fingerprints() {
+        long[] result = fingerprints;
+        if (result == null) {
+            long topology = mix(n);
+            long capacities = mix(m);
+            for (int e = 0; e < m; e++) {
+                int a = edgeArc[e];
+                topology = mix(topology + GOLDEN ^ ((long) head[rev[a]] << 32 | head[a]));
+                capacities = mix(capacities + GOLDEN ^ cap[a]);
+            }
+            result = new long[]{topology, capacities};
+            fingerprints = result; // racing threads compute the same values
+        }
+        return result;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // Collects edges in primitive arrays, then lays them out as CSR in build()
+    public static final class Builder {
+        private final int n;
+        private int m;
+        private int[] from;
+        private int[] to;
+        private int[] capacity;
+
+        public Builder(int vertexCount) {
+            this(vertexCount, 16);
+        }
+
+        public Builder(int vertexCount, int expectedEdges) {
+            if (vertexCount < 0) {
+                throw new IllegalArgumentException("Negative vertex count: " + vertexCount);
+            }
+            this.n = vertexCount;
+            int initial = Math.max(expectedEdges, 1);
+            from = new int[initial];
+            to = new int[initial];
+            capacity = new int[initial];
+        }
+
+        // Add a directed edge and return its index
+        public int addEdge(int u, int v, int cap) {
+            if (u < 0 || u >= n || v < 0 || v >= n) {
+                throw new IllegalArgumentException("Edge endpoint out of range: " + u + " -> " + v);
+            }
+            if (cap < 0) {
+                throw new IllegalArgumentException("Negative capacity on edge " + u + " -> " + v);
+            }
+            if (m == from.length) {
+                int grown = m + (m >> 1) + 1;
+                from = Arrays.copyOf(from, grown);
+                to = Arrays.copyOf(to, grown);
+                capacity = Arrays.copyOf(capacity, grown);
+            }
+            from[m] = u;
+            to[m] = v;
+            capacity[m] = cap;
+            return m++;
+        }
+
+        public FlowNetwork build() {
+            int arcs = 2 * m;
+            int[] start = new int[n + 1];
+            int[] reverseStart = new int[n];
+            for (int e = 0; e < m; e++) {
+                start[from[e] + 1]++;
+                start[to[e] + 1]++;
+                reverseStart[from[e]]++; // out-degree for now
+            }
+            for (int v = 0; v < n; v++) {
+                start[v + 1] += start[v];
+                reverseStart[v] += start[v];
+            }
+
+            int[] next = Arrays.copyOf(start, n);
+            int[] nextReverse = reverseStart.clone();
+            int[] head = new int[arcs];
+            int[] rev = new int[arcs];
+            int[] cap = new int[arcs];
+            int[] edgeArc = new int[m];
+            for (int e = 0; e < m; e++) {
+                int forward = next[from[e]]++;
+                int backward = nextReverse[to[e]]++;
+                head[forward] = to[e];
+                head[backward] = from[e];
+                rev[forward] = backward;
+                rev[backward] = forward;
+                cap[forward] = capacity[e];
+                edgeArc[e] = forward;
+            }
+            return new FlowNetwork(n, m, start, reverseStart, head, rev, cap, edgeArc);
+        }
+    }
+}
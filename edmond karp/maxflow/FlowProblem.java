@@ -0,0 +1,27 @@
+package maxflow;
+
+// A network together with the terminals it was loaded with
+public final class FlowProblem {
+    private final FlowNetwork network;
+    private final int source;
+    private final int sink;
+
+    public FlowProblem(FlowNetwork network, int source, int sink) {
+        network.checkTerminals(source, sink);
+        this.network = network;
+        this.source = source;
+        this.sink = sink;
+    }
+
+    public FlowNetwork network() {
+        return network;
+    }
+
+    public int source() {
+        return source;
+    }
+
+    public int sink() {
+        return sink;
+    }
+}
@@ -0,0 +1,464 @@
+package maxflow;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// Reusable scratch space for the solvers: keep one per thread and pass it to every solve.
+// Once sized for the largest graph seen, augmentations and repeated solves allocate nothing.
+public final class FlowWorkspace {
+    // Bucket b of a histogram counts values in [2^(b-1), 2^b); bucket 0 counts zeros
+    public static final int HISTOGRAM_BUCKETS = 64;
+
+    int[] queue = new int[0]; // BFS ring buffer, length is a power of two
+    int queueMask;
+    int[] stamp = new int[0]; // visited[v] is stamp[v] == epoch, so nothing is ever cleared
+    int epoch;
+    int[] parentArc = new int[0]; // arc used to reach each vertex in the last search
+    int[] residual = new int[0]; // residual capacity of each arc
+    long[] longResidual = new long[0]; // the same for a LongFlowNetwork
+    IntStorage storedResidual; // the same for a StoredFlowNetwork, from the network's storage
+    private IntStorage.Factory storedResidualStorage;
+    int[] path = new int[0]; // vertices of the last path, only filled for a FlowListener
+
+    // Counters of the last solve, cleared by resetResidual; plain fields so they cost an add each
+    long augmentations; // augmenting paths (pushes for push-relabel)
+    long vertexVisits; // vertices reached by the BFS phases
+    long arcVisits; // arcs scanned from the vertices the BFS phases expanded
+    long searchNanos; // wall time in the BFS phases
+    long flowSoFar; // flow value reached: the sum of the augmenting paths, or what reached the sink
+    final long[] pathLengths = new long[HISTOGRAM_BUCKETS]; // augmenting path lengths, log2 buckets
+    final long[] bottlenecks = new long[HISTOGRAM_BUCKETS]; // flow pushed per path, log2 buckets
+    boolean stoppedEarly; // the budget ran out before the flow was maximum
+
+    private SolveBudget budget; // checked between augmentations; null runs every solve to the end
+
+    // Dinic and push-relabel only, allocated the first time one of them runs
+    int[] label = new int[0]; // BFS level (Dinic) or distance label (push-relabel)
+    int[] currentArc = new int[0]; // next arc to try from each vertex
+
+    // Push-relabel only
+    long[] excess = new long[0];
+    int[] activeHead = new int[0]; // per label: stack of active vertices
+    int[] activeNext = new int[0];
+    int[] bucketHead = new int[0]; // per label: doubly linked list of all vertices, for the gap heuristic
+    int[] bucketNext = new int[0];
+    int[] bucketPrev = new int[0];
+    int[] labelCount = new int[0];
+    int highestActive; // highest label that may hold an active vertex
+    int highestLabel; // highest label below n in use
+
+    // Bidirectional search only: the backward frontier from the sink
+    int[] backQueue = new int[0];
+    int[] backStamp = new int[0]; // same epoch as stamp
+    int[] backDistance = new int[0];
+    int[] childArc = new int[0]; // arc from each backward vertex one step towards the sink
+
+    // Parallel search only: the frontier being built, swapped with queue after each level
+    int[] nextFrontier = new int[0];
+    int[] stepBuffers = new int[0]; // vertices each leaf step found, before they join nextFrontier
+    ParallelBfs.Level parallelLevel; // reset by every parallel search
+
+    // Min-cost solvers only
+    long[] arcCost = new long[0]; // cost of each arc, negated on reverse arcs, scaled by cost scaling
+    long[] potential = new long[0]; // Johnson potentials, or prices for cost scaling
+    long[] distance = new long[0]; // Dijkstra distances in reduced costs
+    int[] heap = new int[0]; // indexed binary heap of vertices keyed by distance
+    int[] heapIndex = new int[0]; // position of each vertex in heap, SETTLED once popped
+    long flowCost; // total cost of the last min-cost solve
+
+    // MultiTerminalSolver only: search states are 2v (into v) and 2v + 1 (out of v)
+    int[] through = new int[0]; // flow passing through each vertex
+    boolean[] isSink = new boolean[0]; // set during a solve, cleared after it
+
+    // HopcroftKarpSolver only
+    int[] mate = new int[0]; // matched arc at each left and right vertex, or -1
+    byte[] side = new byte[0]; // LEFT, RIGHT or 0, found while checking the network's shape
+
+    public FlowWorkspace() {
+    }
+
+    public FlowWorkspace(FlowNetwork network) {
+        ensureCapacity(network);
+    }
+
+    // Grow the buffers to fit the network; never shrinks
+    public void ensureCapacity(FlowNetwork network) {
+        ensureVertices(network.n);
+        if (residual.length < network.cap.length) {
+            residual = new int[network.cap.length];
+        }
+    }
+
+    public void ensureCapacity(LongFlowNetwork network) {
+        ensureVertices(network.n);
+        if (longResidual.length < network.cap.length) {
+            longResidual = new long[network.cap.length];
+        }
+    }
+
+    // Allocates the residual capacities from the network's storage, so they are off the heap too
+    public void ensureCapacity(StoredFlowNetwork network) throws IOException {
+        ensureVertices(network.n);
+        int arcs = 2 * network.m;
+        if (storedResidual == null || storedResidual.size() < arcs || storedResidualStorage != network.storage) {
+            storedResidual = null; // let the old storage go before allocating the new one
+            storedResidual = network.storage.allocate(arcs);
+            storedResidualStorage = network.storage;
+        }
+    }
+
+    private void ensureVertices(int n) {
+        if (stamp.length < n) {
+            // Keep the epoch: the new stamps are all 0, below it, and backStamp still holds marks
+            // of earlier epochs that a restarted count would hit again
+            stamp = new int[n];
+            parentArc = new int[n];
+        }
+        if (queue.length < n) {
+            int size = Integer.highestOneBit(Math.max(n - 1, 1)) << 1;
+            queue = new int[size];
+            queueMask = size - 1;
+        }
+    }
+
+    void ensureLevels(int n) {
+        if (label.length < n) {
+            label = new int[n];
+            currentArc = new int[n];
+        }
+    }
+
+    void ensureBidirectional(int n) {
+        ensureLevels(n);
+        if (backStamp.length < n) {
+            backStamp = new int[n];
+            backDistance = new int[n];
+            childArc = new int[n];
+        }
+        if (backQueue.length < queue.length) {
+            backQueue = new int[queue.length];
+        }
+    }
+
+    void ensureParallel(int n) {
+        ensureLevels(n);
+        if (nextFrontier.length < n) {
+            nextFrontier = new int[n];
+        }
+        int buffers = ParallelBfs.bufferLength(n);
+        if (stepBuffers.length < buffers) {
+            stepBuffers = new int[buffers];
+        }
+        if (parallelLevel == null) {
+            parallelLevel = new ParallelBfs.Level();
+        }
+    }
+
+    void ensureSplit(int n) {
+        if (n > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Too many vertices for split search states: " + n);
+        }
+        ensureVertices(2 * n);
+        if (through.length < n) {
+            through = new int[n];
+            isSink = new boolean[n];
+        }
+    }
+
+    void ensureMatching(int n) {
+        ensureLevels(n);
+        if (mate.length < n) {
+            mate = new int[n];
+            side = new byte[n];
+        }
+    }
+
+    void ensureMinCost(FlowNetwork network) {
+        int n = network.n;
+        ensureCapacity(network);
+        ensureLevels(n);
+        if (potential.length < n) {
+            potential = new long[n];
+            distance = new long[n];
+            heap = new int[n];
+            heapIndex = new int[n];
+        }
+        if (excess.length < n) {
+            excess = new long[n];
+        }
+        if (arcCost.length < network.cap.length) {
+            arcCost = new long[network.cap.length];
+        }
+    }
+
+    void ensurePushRelabel(int n) {
+        ensureLevels(n);
+        if (labelCount.length < n) {
+            excess = new long[n];
+            activeHead = new int[n];
+            activeNext = new int[n];
+            bucketHead = new int[n];
+            bucketNext = new int[n];
+            bucketPrev = new int[n];
+            labelCount = new int[n];
+        }
+    }
+
+    // Applies to every later solve on this workspace until set back to null
+    public void setBudget(SolveBudget budget) {
+        this.budget = budget;
+    }
+
+    // The last solve ran out of budget. Its flow is feasible but may not be maximum, and the
+    // marks are the vertices the source still reaches rather than the side of a minimum cut.
+    public boolean stoppedEarly() {
+        return stoppedEarly;
+    }
+
+    // Called by the engines at augmentation boundaries; once true it stays true for the solve
+    boolean outOfBudget() {
+        if (!stoppedEarly && budget != null && budget.exhausted()) {
+            stoppedEarly = true;
+        }
+        return stoppedEarly;
+    }
+
+    // Total cost of the flow found by the last MinCostFlowSolver solve
+    public long flowCost() {
+        return flowCost;
+    }
+
+    // Flow value the current or last solve has reached. Another thread may poll it during a solve
+    // for progress, seeing a value at most a few augmentations old.
+    public long flowSoFar() {
+        return flowSoFar;
+    }
+
+    // Work done by the last solve: augmenting paths, or pushes for push-relabel
+    public long augmentations() {
+        return augmentations;
+    }
+
+    // Vertices reached by the BFS phases of the last solve: augmenting-path searches, Dinic level
+    // graphs and push-relabel global relabels
+    public long vertexVisits() {
+        return vertexVisits;
+    }
+
+    // Arcs scanned by the same BFS phases
+    public long arcVisits() {
+        return arcVisits;
+    }
+
+    // Wall time of the BFS phases; the rest of a solve is spent augmenting or pushing
+    public long searchNanos() {
+        return searchNanos;
+    }
+
+    // Lengths in arcs of the augmenting paths of the last solve, by HISTOGRAM_BUCKETS bucket.
+    // Empty for push-relabel, which has no paths.
+    public long[] pathLengthHistogram() {
+        return pathLengths.clone();
+    }
+
+    // Flow sent along each augmenting path of the last solve, by HISTOGRAM_BUCKETS bucket
+    public long[] bottleneckHistogram() {
+        return bottlenecks.clone();
+    }
+
+    static int histogramBucket(long value) {
+        return 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    // Called once per augmenting path
+    void recordPath(int length, long pathFlow) {
+        augmentations++;
+        flowSoFar += pathFlow;
+        pathLengths[histogramBucket(length)]++;
+        bottlenecks[histogramBucket(pathFlow)]++;
+    }
+
+    // Start a new search: every vertex becomes unvisited in O(1)
+    int nextEpoch() {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(backStamp, 0);
+            epoch = 1;
+        }
+        return epoch;
+    }
+
+    // Write the vertices of the path in parentArc into path, source first, and return its length
+    int tracePath(FlowNetwork network, int source, int sink) {
+        if (path.length < network.n) {
+            path = new int[network.n];
+        }
+        int length = 1;
+        for (int v = sink; v != source; v = network.head[network.rev[parentArc[v]]]) {
+            length++;
+        }
+        for (int v = sink, i = length - 1; i >= 0; i--) {
+            path[i] = v;
+            if (i > 0) v = network.head[network.rev[parentArc[v]]];
+        }
+        return length;
+    }
+
+    int tracePath(StoredFlowNetwork network, int source, int sink) {
+        if (path.length < network.n) {
+            path = new int[network.n];
+        }
+        int length = 1;
+        for (int v = sink; v != source; v = network.head.get(network.rev.get(parentArc[v]))) {
+            length++;
+        }
+        for (int v = sink, i = length - 1; i >= 0; i--) {
+            path[i] = v;
+            if (i > 0) v = network.head.get(network.rev.get(parentArc[v]));
+        }
+        return length;
+    }
+
+    // Mark every vertex reachable from source in the residual graph: afterwards
+    // isMarked(v) tells which side of the minimum cut v is on
+    void markSourceSide(FlowNetwork network, int source) {
+        int[] start = network.start;
+        int[] head = network.head;
+        int epoch = nextEpoch();
+        int qHead = 0, qTail = 0;
+        queue[qTail++ & queueMask] = source;
+        stamp[source] = epoch;
+        while (qHead != qTail) {
+            int u = queue[qHead++ & queueMask];
+            for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                int v = head[a];
+                if (stamp[v] != epoch && residual[a] > 0) {
+                    stamp[v] = epoch;
+                    queue[qTail++ & queueMask] = v;
+                }
+            }
+        }
+    }
+
+    void markSourceSide(LongFlowNetwork network, int source) {
+        int[] start = network.start;
+        int[] head = network.head;
+        int epoch = nextEpoch();
+        int qHead = 0, qTail = 0;
+        queue[qTail++ & queueMask] = source;
+        stamp[source] = epoch;
+        while (qHead != qTail) {
+            int u = queue[qHead++ & queueMask];
+            for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                int v = head[a];
+                if (stamp[v] != epoch && longResidual[a] > 0) {
+                    stamp[v] = epoch;
+                    queue[qTail++ & queueMask] = v;
+                }
+            }
+        }
+    }
+
+    void markSourceSide(StoredFlowNetwork network, int source) {
+        int[] start = network.start;
+        IntStorage head = network.head;
+        int epoch = nextEpoch();
+        int qHead = 0, qTail = 0;
+        queue[qTail++ & queueMask] = source;
+        stamp[source] = epoch;
+        while (qHead != qTail) {
+            int u = queue[qHead++ & queueMask];
+            for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                int v = head.get(a);
+                if (stamp[v] != epoch && storedResidual.get(a) > 0) {
+                    stamp[v] = epoch;
+                    queue[qTail++ & queueMask] = v;
+                }
+            }
+        }
+    }
+
+    boolean isMarked(int v) {
+        return stamp[v] == epoch;
+    }
+
+    // Load the original capacities as the starting residual graph
+    void resetResidual(FlowNetwork network) {
+        resetCounters();
+        System.arraycopy(network.cap, 0, residual, 0, network.cap.length);
+    }
+
+    void resetResidual(LongFlowNetwork network) {
+        resetCounters();
+        System.arraycopy(network.cap, 0, longResidual, 0, network.cap.length);
+    }
+
+    private void resetCounters() {
+        augmentations = 0;
+        vertexVisits = 0;
+        arcVisits = 0;
+        searchNanos = 0;
+        flowSoFar = 0;
+        stoppedEarly = false;
+        flowCost = 0;
+        Arrays.fill(pathLengths, 0);
+        Arrays.fill(bottlenecks, 0);
+    }
+
+    // Load the cost of every input edge onto its arcs, negated on the reverse arc. Returns whether
+    // any cost is negative.
+    boolean loadCosts(FlowNetwork network, int[] edgeCost) {
+        if (edgeCost.length != network.m) {
+            throw new IllegalArgumentException("Got " + edgeCost.length + " edge costs for " + network.m + " edges");
+        }
+        boolean negative = false;
+        for (int e = 0; e < network.m; e++) {
+            int a = network.edgeArc[e];
+            arcCost[a] = edgeCost[e];
+            arcCost[network.rev[a]] = -(long) edgeCost[e];
+            negative |= edgeCost[e] < 0;
+        }
+        return negative;
+    }
+
+    // Total cost of the flow in the residual graph, under the original edge costs
+    long residualCost(FlowNetwork network, int[] edgeCost) {
+        long cost = 0;
+        for (int e = 0; e < network.m; e++) {
+            int a = network.edgeArc[e];
+            cost = Math.addExact(cost, Math.multiplyExact((long) edgeCost[e], network.cap[a] - residual[a]));
+        }
+        return cost;
+    }
+
+    // Copy the flow of every input edge out of the residual graph
+    void writeEdgeFlow(FlowNetwork network, int[] edgeFlow) {
+        for (int e = 0; e < network.m; e++) {
+            int a = network.edgeArc[e];
+            edgeFlow[e] = network.cap[a] - residual[a];
+        }
+    }
+
+    void resetResidual(StoredFlowNetwork network) {
+        resetCounters();
+        IntStorage cap = network.cap;
+        IntStorage residual = storedResidual;
+        for (int a = 0, arcs = 2 * network.m; a < arcs; a++) {
+            residual.set(a, cap.get(a));
+        }
+    }
+
+    void writeEdgeFlow(StoredFlowNetwork network, IntStorage edgeFlow) {
+        for (int e = 0; e < network.m; e++) {
+            int a = network.edgeArc.get(e);
+            edgeFlow.set(e, network.cap.get(a) - storedResidual.get(a));
+        }
+    }
+
+    void writeEdgeFlow(LongFlowNetwork network, long[] edgeFlow) {
+        for (int e = 0; e < network.m; e++) {
+            int a = network.edgeArc[e];
+            edgeFlow[e] = network.cap[a] - longResidual[a];
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package maxflow;
+
+import java.util.SplittableRandom;
+
+// Seeded synthetic graph families for the tests and benchmarks; the same name and seed always
+// give the same graph
+public final class GraphFamilies {
+
+    public static final String[] NAMES = {"sparse", "dense", "grid", "bipartite", "ak"};
+
+    private GraphFamilies() {
+    }
+
+    public static GraphInstance create(String family, long seed) {
+        switch (family) {
+            case "sparse":
+                return randomSparse(2000, 10000, 1000, seed);
+            case "dense":
+                return dense(500, 0.5, 1000, seed);
+            case "grid":
+                return layeredGrid(40, 40, 100, seed);
+            case "bipartite":
+                return bipartite(800, 800, 5, seed);
+            case "ak":
+                return akNetwork(1000);
+            default:
+                throw new IllegalArgumentException("Unknown graph family: " + family);
+        }
+    }
+
+    // m uniformly random edges; source 0, sink n - 1
+    public static GraphInstance randomSparse(int n, int m, int maxCapacity, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        EdgeList edges = new EdgeList(n, m);
+        for (int i = 0; i < m; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            if (u != v) edges.add(u, v, 1 + random.nextInt(maxCapacity));
+        }
+        return edges.toInstance(0, n - 1);
+    }
+
+    // Every ordered pair is an edge with the given probability
+    public static GraphInstance dense(int n, double density, int maxCapacity, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        EdgeList edges = new EdgeList(n, (int) (n * (long) n * density));
+        for (int u = 0; u < n; u++) {
+            for (int v = 0; v < n; v++) {
+                if (u != v && random.nextDouble() < density) {
+                    edges.add(u, v, 1 + random.nextInt(maxCapacity));
+                }
+            }
+        }
+        return edges.toInstance(0, n - 1);
+    }
+
+    // rows x layers grid: the source feeds the first layer, the last layer drains into the sink,
+    // edges go forward one layer and up or down one row
+    public static GraphInstance layeredGrid(int rows, int layers, int maxCapacity, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int n = rows * layers + 2;
+        int source = n - 2, sink = n - 1;
+        EdgeList edges = new EdgeList(n, 3 * rows * layers + 2 * rows);
+        for (int r = 0; r < rows; r++) {
+            edges.add(source, r, maxCapacity * rows);
+            edges.add((layers - 1) * rows + r, sink, maxCapacity * rows);
+        }
+        for (int l = 0; l < layers; l++) {
+            for (int r = 0; r < rows; r++) {
+                int u = l * rows + r;
+                if (l + 1 < layers) edges.add(u, u + rows, 1 + random.nextInt(maxCapacity));
+                if (r + 1 < rows) edges.add(u, u + 1, 1 + random.nextInt(maxCapacity));
+                if (r > 0) edges.add(u, u - 1, 1 + random.nextInt(maxCapacity));
+            }
+        }
+        return edges.toInstance(source, sink);
+    }
+
+    // Unit-capacity bipartite matching: source -> left -> right -> sink
+    public static GraphInstance bipartite(int left, int right, int degree, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int n = left + right + 2;
+        int source = n - 2, sink = n - 1;
+        EdgeList edges = new EdgeList(n, left * (degree + 1) + right);
+        for (int u = 0; u < left; u++) {
+            edges.add(source, u, 1);
+            for (int d = 0; d < degree; d++) {
+                edges.add(u, left + random.nextInt(right), 1);
+            }
+        }
+        for (int v = 0; v < right; v++) {
+            edges.add(left + v, sink, 1);
+        }
+        return edges.toInstance(source, sink);
+    }
+
+    // AK-style worst case for shortest augmenting paths: a chain s -> a1 -> ... -> ak where every
+    // ai also has a unit arc to the sink. Each augmentation saturates one of those arcs, so there
+    // are k augmentations of lengths 2 .. k + 1 and Theta(k^2) work in total.
+    public static GraphInstance akNetwork(int k) {
+        int n = k + 2;
+        int source = 0, sink = n - 1;
+        EdgeList edges = new EdgeList(n, 2 * k);
+        for (int i = 1; i <= k; i++) {
+            edges.add(i - 1, i, k);
+            edges.add(i, sink, 1);
+        }
+        return edges.toInstance(source, sink);
+    }
+
+    // Collects edges, then builds the CSR network and the dense matrix used by the baseline
+    private static final class EdgeList {
+        private final FlowNetwork.Builder builder;
+        private final int n;
+
+        EdgeList(int n, int expected) {
+            this.n = n;
+            this.builder = new FlowNetwork.Builder(n, expected);
+        }
+
+        void add(int u, int v, int cap) {
+            builder.addEdge(u, v, cap);
+        }
+
+        GraphInstance toInstance(int source, int sink) {
+            FlowNetwork network = builder.build();
+            int[][] matrix = new int[n][n];
+            for (int e = 0; e < network.edgeCount(); e++) {
+                matrix[network.edgeFrom(e)][network.edgeTo(e)] += network.edgeCapacity(e);
+            }
+            return new GraphInstance(network, matrix, source, sink);
+        }
+    }
+}
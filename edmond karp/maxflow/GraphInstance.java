@@ -0,0 +1,16 @@
+package maxflow;
+
+// A generated graph in both representations, with its terminals
+public final class GraphInstance {
+    public final FlowNetwork network;
+    public final int[][] matrix;
+    public final int source;
+    public final int sink;
+
+    GraphInstance(FlowNetwork network, int[][] matrix, int source, int sink) {
+        this.network = network;
+        this.matrix = matrix;
+        this.source = source;
+        this.sink = sink;
+    }
+}
@@ -0,0 +1,25 @@
+package maxflow;
+
+// IntStorage over an int[]
+final class HeapIntStorage implements IntStorage {
+    private final int[] values;
+
+    HeapIntStorage(int size) {
+        this.values = new int[size];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public int get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public void set(int index, int value) {
+        values[index] = value;
+    }
+}
@@ -0,0 +1,323 @@
+package maxflow;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// Hopcroft-Karp for unit-capacity bipartite networks: every edge out of the source and into the
+// sink has capacity 1, the source feeds left vertices, the sink drains right vertices, and left
+// vertices only have edges to right ones. Each phase augments along a maximal set of shortest
+// alternating paths, and there are O(sqrt(V)) phases, so O(E sqrt(V)). The matching is kept in
+// mate over the left vertices' forward arcs and only written back as a residual flow at the end,
+// so edge flows and the minimum cut come out as from any other engine. Networks of any other
+// shape, which the check finds in O(E), are solved by the fallback.
+public final class HopcroftKarpSolver implements MaxFlowSolver {
+    static final byte LEFT = 1;
+    static final byte RIGHT = 2;
+    private static final int UNMATCHED = -1;
+    private static final int DEAD = Integer.MAX_VALUE; // label of a left vertex with no path left this phase
+
+    private final MaxFlowSolver fallback;
+    private final FlowListener listener;
+
+    public HopcroftKarpSolver() {
+        this(new DinicSolver());
+    }
+
+    public HopcroftKarpSolver(MaxFlowSolver fallback) {
+        this(fallback, null);
+    }
+
+    // The listener hears about matching paths only; give the fallback its own to hear about others
+    public HopcroftKarpSolver(MaxFlowSolver fallback, FlowListener listener) {
+        if (fallback == null) {
+            throw new IllegalArgumentException("No fallback solver");
+        }
+        this.fallback = fallback;
+        this.listener = listener;
+    }
+
+    @Override
+    public int maxFlow(FlowNetwork network, int source, int sink, int[] edgeFlow, FlowWorkspace workspace) {
+        network.checkTerminals(source, sink);
+
+        workspace.ensureCapacity(network);
+        workspace.ensureMatching(network.n);
+        if (source == sink || !isUnitBipartite(network, workspace, source, sink)) {
+            return fallback.maxFlow(network, source, sink, edgeFlow, workspace);
+        }
+        workspace.resetResidual(network);
+        if (listener != null && workspace.path.length < network.n) {
+            workspace.path = new int[network.n];
+        }
+        Arrays.fill(workspace.mate, 0, network.n, UNMATCHED);
+
+        int matched = greedyMatching(network, workspace, source, sink);
+        int limit;
+        while (!workspace.outOfBudget() && (limit = search(network, workspace, source)) != DEAD) {
+            matched = augmentPhase(network, workspace, source, sink, limit, matched);
+        }
+
+        writeMatching(network, workspace, source, sink);
+        workspace.markSourceSide(network, source);
+        if (edgeFlow != null) {
+            workspace.writeEdgeFlow(network, edgeFlow);
+        }
+        return matched;
+    }
+
+    // Stored networks are not checked for the shape; the fallback solves them, which Dinic does in
+    // the same O(E sqrt(V)) on unit-capacity bipartite networks
+    @Override
+    public int maxFlow(StoredFlowNetwork network, int source, int sink, IntStorage edgeFlow,
+                       FlowWorkspace workspace) throws IOException {
+        return fallback.maxFlow(network, source, sink, edgeFlow, workspace);
+    }
+
+    // Whether the network has the shape above, marking side[v] LEFT or RIGHT. Vertices on neither
+    // side, and the sink's own edges, cannot carry flow from the source and are left alone.
+    static boolean isUnitBipartite(FlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        int n = network.n;
+        int[] start = network.start;
+        int[] reverseStart = network.reverseStart;
+        int[] head = network.head;
+        int[] rev = network.rev;
+        int[] cap = network.cap;
+        byte[] side = workspace.side;
+        Arrays.fill(side, 0, n, (byte) 0);
+
+        for (int a = start[source], end = reverseStart[source]; a < end; a++) {
+            if (cap[a] == 0) continue;
+            int u = head[a];
+            if (cap[a] != 1 || u == source || u == sink || side[u] != 0) return false;
+            side[u] = LEFT;
+        }
+        for (int b = reverseStart[sink], end = start[sink + 1]; b < end; b++) {
+            if (cap[rev[b]] == 0) continue;
+            int v = head[b];
+            if (cap[rev[b]] != 1 || v == source || v == sink || side[v] != 0) return false;
+            side[v] = RIGHT;
+        }
+        for (int u = 0; u < n; u++) {
+            if (side[u] == 0) continue;
+            for (int a = start[u], end = reverseStart[u]; a < end; a++) {
+                if (cap[a] == 0) continue;
+                if (side[u] == LEFT ? side[head[a]] != RIGHT : head[a] != sink) return false;
+            }
+        }
+        return true;
+    }
+
+    // Match each left vertex to its first free right neighbour, which leaves little for the phases
+    private int greedyMatching(FlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        int[] start = network.start;
+        int[] reverseStart = network.reverseStart;
+        int[] head = network.head;
+        int[] cap = network.cap;
+        int[] mate = workspace.mate;
+        int matched = 0;
+
+        for (int s = start[source], sEnd = reverseStart[source]; s < sEnd; s++) {
+            if (cap[s] == 0) continue;
+            int u = head[s];
+            for (int a = start[u], end = reverseStart[u]; a < end; a++) {
+                int v = head[a];
+                if (cap[a] > 0 && mate[v] == UNMATCHED) {
+                    mate[u] = a;
+                    mate[v] = a;
+                    matched++;
+                    workspace.recordPath(3, 1);
+                    if (listener != null) {
+                        int[] path = workspace.path;
+                        path[0] = source;
+                        path[1] = u;
+                        path[2] = v;
+                        path[3] = sink;
+                        listener.augmented(path, 4, 1, matched);
+                    }
+                    break;
+                }
+            }
+        }
+        return matched;
+    }
+
+    private static int search(FlowNetwork network, FlowWorkspace workspace, int source) {
+        long started = System.nanoTime();
+        int limit = buildLayers(network, workspace, source);
+        workspace.searchNanos += System.nanoTime() - started;
+        return limit;
+    }
+
+    // BFS over alternating paths from every free left vertex at once. A left vertex is in the
+    // layers iff stamp[u] == epoch, at depth label[u]. Returns the depth of the nearest free right
+    // vertex, counted like the left ones, or DEAD if there is none.
+    private static int buildLayers(FlowNetwork network, FlowWorkspace workspace, int source) {
+        int[] start = network.start;
+        int[] reverseStart = network.reverseStart;
+        int[] head = network.head;
+        int[] rev = network.rev;
+        int[] cap = network.cap;
+        int[] mate = workspace.mate;
+        int[] label = workspace.label;
+        int[] currentArc = workspace.currentArc;
+        int[] stamp = workspace.stamp;
+        int[] queue = workspace.queue;
+        int mask = workspace.queueMask;
+        int epoch = workspace.nextEpoch();
+
+        int qHead = 0, qTail = 0;
+        for (int s = start[source], end = reverseStart[source]; s < end; s++) {
+            int u = head[s];
+            if (cap[s] > 0 && mate[u] == UNMATCHED) {
+                stamp[u] = epoch;
+                label[u] = 0;
+                currentArc[u] = start[u];
+                queue[qTail++ & mask] = u;
+            }
+        }
+
+        int limit = DEAD;
+        long arcs = 0;
+        while (qHead != qTail) {
+            int u = queue[qHead++ & mask];
+            if (label[u] + 1 >= limit) break; // deeper vertices cannot be on a shortest path
+            arcs += reverseStart[u] - start[u];
+            for (int a = start[u], end = reverseStart[u]; a < end; a++) {
+                if (cap[a] == 0) continue;
+                int m = mate[head[a]];
+                if (m == UNMATCHED) {
+                    limit = label[u] + 1;
+                } else {
+                    int w = head[rev[m]];
+                    if (stamp[w] != epoch) {
+                        stamp[w] = epoch;
+                        label[w] = label[u] + 1;
+                        currentArc[w] = start[w];
+                        queue[qTail++ & mask] = w;
+                    }
+                }
+            }
+        }
+        workspace.vertexVisits += qTail;
+        workspace.arcVisits += arcs;
+        return limit;
+    }
+
+    // Iterative DFS from each free left vertex down the layers, returning the matching size so
+    // far. parentArc[w] is the arc to the right vertex whose mate led to w, so the path is walked
+    // back from its last arc; dead ends leave the layers for the rest of the phase.
+    private int augmentPhase(FlowNetwork network, FlowWorkspace workspace, int source, int sink, int limit,
+                             int matched) {
+        int[] start = network.start;
+        int[] reverseStart = network.reverseStart;
+        int[] head = network.head;
+        int[] rev = network.rev;
+        int[] cap = network.cap;
+        int[] mate = workspace.mate;
+        int[] label = workspace.label;
+        int[] currentArc = workspace.currentArc;
+        int[] parentArc = workspace.parentArc;
+        int[] stamp = workspace.stamp;
+        int epoch = workspace.epoch;
+
+        for (int s = start[source], sEnd = reverseStart[source]; s < sEnd; s++) {
+            int u = head[s];
+            if (cap[s] == 0 || mate[u] != UNMATCHED || stamp[u] != epoch) continue;
+            parentArc[u] = UNMATCHED;
+
+            while (true) {
+                // Advance along the first arc to a free right vertex at the limit, or to a matched
+                // one whose mate is one layer down
+                int a = currentArc[u];
+                int end = reverseStart[u];
+                int next = label[u] + 1;
+                for (; a < end; a++) {
+                    if (cap[a] == 0) continue;
+                    int m = mate[head[a]];
+                    if (m == UNMATCHED) {
+                        if (next == limit) break;
+                    } else {
+                        int w = head[rev[m]];
+                        if (stamp[w] == epoch && label[w] == next && next < limit) break;
+                    }
+                }
+                currentArc[u] = a;
+
+                if (a == end) {
+                    // Dead end: drop u from the layers and retreat
+                    label[u] = DEAD;
+                    int back = parentArc[u];
+                    if (back == UNMATCHED) break;
+                    u = head[rev[back]];
+                    currentArc[u]++;
+                } else if (mate[head[a]] == UNMATCHED) {
+                    matched++;
+                    augment(network, workspace, source, sink, a, limit, matched);
+                    break;
+                } else {
+                    int w = head[rev[mate[head[a]]]];
+                    parentArc[w] = a;
+                    u = w;
+                }
+            }
+            if (workspace.outOfBudget()) break;
+        }
+        return matched;
+    }
+
+    // Flip the path ending in arc last: every left vertex on it takes the right vertex after it
+    private void augment(FlowNetwork network, FlowWorkspace workspace, int source, int sink, int last,
+                         int limit, int matched) {
+        int[] head = network.head;
+        int[] rev = network.rev;
+        int[] mate = workspace.mate;
+        int[] parentArc = workspace.parentArc;
+        int[] path = workspace.path;
+        int vertices = 2 * limit + 2; // source, limit pairs of left and right, sink
+
+        int i = vertices - 1;
+        if (listener != null) path[i] = sink;
+        for (int a = last; a != UNMATCHED; ) {
+            int u = head[rev[a]];
+            int v = head[a];
+            if (listener != null) {
+                path[--i] = v;
+                path[--i] = u;
+            }
+            int back = parentArc[u];
+            mate[u] = a;
+            mate[v] = a;
+            a = back;
+        }
+        workspace.recordPath(vertices - 1, 1);
+        if (listener != null) {
+            path[0] = source;
+            listener.augmented(path, vertices, 1, matched);
+        }
+    }
+
+    // Turn the matching into residual capacities: one unit along source, left, right, sink
+    private static void writeMatching(FlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        int[] start = network.start;
+        int[] reverseStart = network.reverseStart;
+        int[] head = network.head;
+        int[] rev = network.rev;
+        int[] cap = network.cap;
+        int[] mate = workspace.mate;
+        int[] residual = workspace.residual;
+
+        for (int s = start[source], end = reverseStart[source]; s < end; s++) {
+            int m = mate[head[s]];
+            if (cap[s] == 0 || m == UNMATCHED) continue;
+            residual[s]--;
+            residual[rev[s]]++;
+            residual[m]--;
+            residual[rev[m]]++;
+        }
+        for (int b = reverseStart[sink], end = start[sink + 1]; b < end; b++) {
+            if (cap[rev[b]] == 0 || mate[head[b]] == UNMATCHED) continue;
+            residual[rev[b]]--;
+            residual[b]++;
+        }
+    }
+}
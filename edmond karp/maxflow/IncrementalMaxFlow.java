@@ -0,0 +1,212 @@
+package maxflow;
+
+// Keeps a maximum flow between fixed terminals up to date while edge capacities change.
+// Increases only search for new augmenting paths; decreases below the current flow first try to
+// reroute the excess around the edge, then cancel what cannot be rerouted back along flow paths.
+// Not thread-safe: the residual graph lives in this object's own workspace.
+public final class IncrementalMaxFlow {
+    private final FlowNetwork network;
+    private final int source;
+    private final int sink;
+    private final FlowListener listener;
+    private final FlowWorkspace workspace = new FlowWorkspace();
+    private final int[] capacity; // current capacity of each arc
+    private int maxFlow;
+    private boolean maximum = true; // false while a budget-limited first solve is unfinished
+
+    public IncrementalMaxFlow(FlowNetwork network, int source, int sink) {
+        this(network, source, sink, (FlowListener) null);
+    }
+
+    // The listener hears about augmenting paths from source to sink, not about repairs
+    public IncrementalMaxFlow(FlowNetwork network, int source, int sink, FlowListener listener) {
+        this(network, source, sink, listener, null);
+    }
+
+    // The first solve stops when the budget runs out, leaving a feasible flow; isMaximum() tells.
+    // Later updates are not budgeted, and the next one that augments completes the flow.
+    public IncrementalMaxFlow(FlowNetwork network, int source, int sink, FlowListener listener,
+                              SolveBudget budget) {
+        network.checkTerminals(source, sink);
+        this.network = network;
+        this.source = source;
+        this.sink = sink;
+        this.listener = listener;
+        this.capacity = network.cap.clone();
+        workspace.ensureCapacity(network);
+        workspace.resetResidual(network);
+        workspace.setBudget(budget);
+        augment();
+        workspace.setBudget(null);
+    }
+
+    // Warm start from a flow found on an earlier version of the same topology. Edges whose new
+    // capacity is below their old flow are clamped and repaired as by setCapacity, then the flow
+    // is augmented to a maximum one.
+    public static IncrementalMaxFlow warmStart(FlowNetwork network, int source, int sink, int[] edgeFlow) {
+        return new IncrementalMaxFlow(network, source, sink, edgeFlow);
+    }
+
+    private IncrementalMaxFlow(FlowNetwork network, int source, int sink, int[] edgeFlow) {
+        network.checkTerminals(source, sink);
+        if (edgeFlow.length != network.m) {
+            throw new IllegalArgumentException("Got " + edgeFlow.length + " edge flows for " + network.m + " edges");
+        }
+        this.network = network;
+        this.source = source;
+        this.sink = sink;
+        this.listener = null;
+        this.capacity = network.cap.clone();
+        workspace.ensureCapacity(network);
+        workspace.resetResidual(network);
+
+        // Install the old flow under capacities raised just enough to hold it
+        int[] residual = workspace.residual;
+        long[] balance = new long[network.n];
+        for (int e = 0; e < network.m; e++) {
+            int flow = edgeFlow[e];
+            if (flow < 0) throw new IllegalArgumentException("Negative flow on edge " + e);
+            int a = network.edgeArc[e];
+            capacity[a] = Math.max(capacity[a], flow);
+            residual[a] = capacity[a] - flow;
+            residual[network.rev[a]] = flow;
+            balance[network.head[network.rev[a]]] -= flow;
+            balance[network.head[a]] += flow;
+        }
+        for (int v = 0; v < network.n; v++) {
+            if (v != source && v != sink && balance[v] != 0) {
+                throw new IllegalArgumentException("Edge flows are not conserved at vertex " + v);
+            }
+        }
+        maxFlow = source == sink ? 0 : Math.toIntExact(balance[sink]);
+
+        // Then lower them back, which clamps and repairs
+        for (int e = 0; e < network.m; e++) {
+            int a = network.edgeArc[e];
+            if (capacity[a] != network.cap[a]) setCapacity(e, network.cap[a]);
+        }
+        augment();
+    }
+
+    public int source() {
+        return source;
+    }
+
+    public int sink() {
+        return sink;
+    }
+
+    public int maxFlow() {
+        return maxFlow;
+    }
+
+    public boolean isMaximum() {
+        return maximum;
+    }
+
+    public int edgeFlow(int edge) {
+        int a = network.edgeArc[edge];
+        return capacity[a] - workspace.residual[a];
+    }
+
+    public int edgeCapacity(int edge) {
+        return capacity[network.edgeArc[edge]];
+    }
+
+    // Snapshot of the current flow and minimum cut, under the current capacities
+    public MaxFlowResult result() {
+        int[] edgeFlow = new int[network.m];
+        for (int e = 0; e < network.m; e++) {
+            edgeFlow[e] = edgeFlow(e);
+        }
+        workspace.markSourceSide(network, source);
+        return MaxFlowResult.of(network, maxFlow, edgeFlow, workspace);
+    }
+
+    // Change the capacity of one input edge and return the new maximum flow
+    public int setCapacity(int edge, int newCapacity) {
+        if (edge < 0 || edge >= network.m) {
+            throw new IllegalArgumentException("Edge out of range: " + edge);
+        }
+        if (newCapacity < 0) {
+            throw new IllegalArgumentException("Negative capacity on edge " + edge);
+        }
+        int a = network.edgeArc[edge];
+        int[] residual = workspace.residual;
+        int flow = capacity[a] - residual[a];
+        capacity[a] = newCapacity;
+
+        if (newCapacity >= flow) {
+            // The current flow stays feasible; only an increase can open new paths
+            residual[a] = newCapacity - flow;
+            if (residual[a] > 0) augment();
+            return maxFlow;
+        }
+
+        // Clamp the edge: u = tail now has surplus, v = head has the same deficit
+        int excess = flow - newCapacity;
+        int u = network.head[network.rev[a]];
+        int v = network.head[a];
+        residual[a] = 0;
+        residual[network.rev[a]] = newCapacity;
+
+        excess -= push(u, v, excess); // reroute around the edge
+        if (excess > 0) {
+            // Cancel the rest: back from u to the source and from the sink to v
+            if (push(u, source, excess) != excess || push(sink, v, excess) != excess) {
+                throw new IllegalStateException("Flow could not be repaired after clamping edge " + edge);
+            }
+            maxFlow -= excess;
+        }
+        augment();
+        return maxFlow;
+    }
+
+    // Augment from source to sink until no path is left or the budget runs out
+    private void augment() {
+        if (source == sink) return;
+        workspace.stoppedEarly = false;
+        while (!workspace.outOfBudget() && EdmondsKarpSolver.bfs(network, workspace, source, sink)) {
+            int length = 0;
+            for (int v = sink; v != source; v = network.head[network.rev[workspace.parentArc[v]]]) {
+                length++;
+            }
+            int pathFlow = pushPath(source, sink, Integer.MAX_VALUE);
+            maxFlow = Math.addExact(maxFlow, pathFlow);
+            workspace.recordPath(length, pathFlow);
+            if (listener != null) {
+                int vertices = workspace.tracePath(network, source, sink);
+                listener.augmented(workspace.path, vertices, pathFlow, maxFlow);
+            }
+        }
+        maximum = !workspace.stoppedEarly;
+    }
+
+    // Send up to limit units from one vertex to another along shortest residual paths
+    private int push(int from, int to, int limit) {
+        if (from == to) return limit;
+        int pushed = 0;
+        while (pushed < limit && EdmondsKarpSolver.bfs(network, workspace, from, to)) {
+            pushed += pushPath(from, to, limit - pushed);
+        }
+        return pushed;
+    }
+
+    // Push along the path in parentArc, at most limit, and return the amount sent
+    private int pushPath(int from, int to, int limit) {
+        int[] head = network.head;
+        int[] rev = network.rev;
+        int[] residual = workspace.residual;
+        int[] parentArc = workspace.parentArc;
+        int pathFlow = limit;
+        for (int v = to; v != from; v = head[rev[parentArc[v]]]) {
+            pathFlow = Math.min(pathFlow, residual[parentArc[v]]);
+        }
+        for (int v = to; v != from; v = head[rev[parentArc[v]]]) {
+            int a = parentArc[v];
+            residual[a] -= pathFlow;
+            residual[rev[a]] += pathFlow;
+        }
+        return pathFlow;
+    }
+}
@@ -0,0 +1,33 @@
+package maxflow;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// An int array that may live outside the Java heap. StoredFlowNetwork keeps its arcs in these, so
+// networks larger than the heap can be solved without GC scanning or copying them.
+public interface IntStorage {
+
+    int size();
+
+    int get(int index);
+
+    void set(int index, int value);
+
+    // Allocates zero-filled storage; one factory is used for all arrays of a network
+    @FunctionalInterface
+    interface Factory {
+        IntStorage allocate(int size) throws IOException;
+    }
+
+    // Plain int[] on the heap, the baseline for the others
+    Factory HEAP = HeapIntStorage::new;
+
+    // Direct ByteBuffers; limited by -XX:MaxDirectMemorySize, freed when the storage is collected
+    Factory DIRECT = BufferIntStorage::direct;
+
+    // Memory-mapped temporary files in the given directory, so the page cache holds the data and
+    // the OS can page it out. The files are deleted once mapped where the platform allows it.
+    static Factory mapped(Path directory) {
+        return size -> BufferIntStorage.mapped(directory, size);
+    }
+}
@@ -0,0 +1,127 @@
+package maxflow;
+
+// EdmondsKarpSolver specialised for long capacities; keep the two in step
+public final class LongEdmondsKarpSolver implements LongMaxFlowSolver {
+    private final boolean scaling;
+
+    public LongEdmondsKarpSolver() {
+        this(SearchMode.FORWARD);
+    }
+
+    // Only FORWARD and SCALING searches exist for long capacities
+    public LongEdmondsKarpSolver(SearchMode mode) {
+        if (mode != SearchMode.FORWARD && mode != SearchMode.SCALING) {
+            throw new IllegalArgumentException("Unsupported search mode for long capacities: " + mode);
+        }
+        this.scaling = mode == SearchMode.SCALING;
+    }
+
+    @Override
+    public long maxFlow(LongFlowNetwork network, int source, int sink, long[] edgeFlow, FlowWorkspace workspace) {
+        network.checkTerminals(source, sink);
+
+        workspace.ensureCapacity(network);
+        workspace.resetResidual(network);
+        long[] residual = workspace.longResidual;
+        int[] parentArc = workspace.parentArc;
+        int[] head = network.head;
+        int[] rev = network.rev;
+        long maxFlow = 0;
+
+        if (source == sink) {
+            workspace.markSourceSide(network, source);
+        } else {
+            // One phase with delta 1 unless scaling. The last, failing search of the delta 1 phase
+            // leaves the source side of the minimum cut marked.
+            long delta = scaling ? scalingStart(network.cap) : 1;
+            for (; delta > 0 && !workspace.stoppedEarly; delta >>>= 1) {
+                while (!workspace.outOfBudget() && search(network, workspace, source, sink, delta)) {
+                    // Find the bottleneck along the path
+                    long pathFlow = Long.MAX_VALUE;
+                    int length = 0;
+                    for (int v = sink; v != source; v = head[rev[parentArc[v]]]) {
+                        pathFlow = Math.min(pathFlow, residual[parentArc[v]]);
+                        length++;
+                    }
+
+                    // Update residual capacities along the path
+                    for (int v = sink; v != source; v = head[rev[parentArc[v]]]) {
+                        int a = parentArc[v];
+                        residual[a] -= pathFlow;
+                        residual[rev[a]] += pathFlow;
+                    }
+
+                    maxFlow = Math.addExact(maxFlow, pathFlow);
+                    workspace.recordPath(length, pathFlow);
+                }
+            }
+            if (workspace.stoppedEarly) {
+                workspace.markSourceSide(network, source);
+            }
+        }
+
+        if (edgeFlow != null) {
+            workspace.writeEdgeFlow(network, edgeFlow);
+        }
+        return maxFlow;
+    }
+
+    private static boolean search(LongFlowNetwork network, FlowWorkspace workspace, int source, int sink,
+                                  long delta) {
+        long started = System.nanoTime();
+        boolean found = bfs(network, workspace, source, sink, delta);
+        workspace.searchNanos += System.nanoTime() - started;
+        return found;
+    }
+
+    static long scalingStart(long[] cap) {
+        long max = 1;
+        for (long c : cap) {
+            max = Math.max(max, c);
+        }
+        return Long.highestOneBit(max);
+    }
+
+    // BFS over residual arcs; fills parentArc and returns true once the sink is reached
+    static boolean bfs(LongFlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        return bfs(network, workspace, source, sink, 1);
+    }
+
+    // The same over arcs with at least delta residual capacity
+    static boolean bfs(LongFlowNetwork network, FlowWorkspace workspace, int source, int sink, long delta) {
+        int[] start = network.start;
+        int[] head = network.head;
+        long[] residual = workspace.longResidual;
+        int[] parentArc = workspace.parentArc;
+        int[] stamp = workspace.stamp;
+        int[] queue = workspace.queue;
+        int mask = workspace.queueMask;
+        int epoch = workspace.nextEpoch();
+
+        int qHead = 0, qTail = 0;
+        queue[qTail++ & mask] = source;
+        stamp[source] = epoch;
+
+        long arcs = 0;
+        while (qHead != qTail) {
+            int u = queue[qHead++ & mask];
+            arcs += start[u + 1] - start[u];
+            for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                int v = head[a];
+                if (stamp[v] != epoch && residual[a] >= delta) {
+                    stamp[v] = epoch;
+                    parentArc[v] = a;
+                    if (v == sink) {
+                        workspace.vertexVisits += qTail + 1;
+                        workspace.arcVisits += arcs;
+                        return true; // Sink reached
+                    }
+                    queue[qTail++ & mask] = v;
+                }
+            }
+        }
+        workspace.vertexVisits += qTail;
+        workspace.arcVisits += arcs;
+        return false; // No augmenting path found
+    }
+}
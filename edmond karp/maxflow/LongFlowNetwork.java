@@ -0,0 +1,134 @@
+package maxflow;
+
+import java.util.Arrays;
+
+// FlowNetwork with long capacities, for graphs whose capacities or flow exceed int.
+// A specialised copy rather than a generic one, so the int network keeps its primitive arrays.
+public final class LongFlowNetwork {
+    final int n; // number of vertices
+    final int m; // number of input edges
+    final int[] start; // arcs of vertex v are start[v] .. start[v + 1] - 1
+    final int[] head; // target vertex of each arc
+    final int[] rev; // index of the paired reverse arc
+    final long[] cap; // original capacity of each arc (0 for reverse arcs)
+    final int[] edgeArc; // forward arc of each input edge
+
+    private LongFlowNetwork(int n, int m, int[] start, int[] head, int[] rev, long[] cap, int[] edgeArc) {
+        this.n = n;
+        this.m = m;
+        this.start = start;
+        this.head = head;
+        this.rev = rev;
+        this.cap = cap;
+        this.edgeArc = edgeArc;
+    }
+
+    // Same topology and edge numbering as an int network, with its capacities widened
+    public static LongFlowNetwork of(FlowNetwork network) {
+        long[] cap = new long[network.cap.length];
+        for (int a = 0; a < cap.length; a++) {
+            cap[a] = network.cap[a];
+        }
+        return new LongFlowNetwork(network.n, network.m, network.start, network.head, network.rev, cap,
+                network.edgeArc);
+    }
+
+    void checkTerminals(int source, int sink) {
+        if (source < 0 || source >= n || sink < 0 || sink >= n) {
+            throw new IllegalArgumentException("Source or sink out of range: " + source + ", " + sink);
+        }
+    }
+
+    public int vertexCount() {
+        return n;
+    }
+
+    public int edgeCount() {
+        return m;
+    }
+
+    public int edgeFrom(int edge) {
+        return head[rev[edgeArc[edge]]];
+    }
+
+    public int edgeTo(int edge) {
+        return head[edgeArc[edge]];
+    }
+
+    public long edgeCapacity(int edge) {
+        return cap[edgeArc[edge]];
+    }
+
+    // Collects edges in primitive arrays, then lays them out as CSR in build()
+    public static final class Builder {
+        private final int n;
+        private int m;
+        private int[] from;
+        private int[] to;
+        private long[] capacity;
+
+        public Builder(int vertexCount) {
+            this(vertexCount, 16);
+        }
+
+        public Builder(int vertexCount, int expectedEdges) {
+            if (vertexCount < 0) {
+                throw new IllegalArgumentException("Negative vertex count: " + vertexCount);
+            }
+            this.n = vertexCount;
+            int initial = Math.max(expectedEdges, 1);
+            from = new int[initial];
+            to = new int[initial];
+            capacity = new long[initial];
+        }
+
+        // Add a directed edge and return its index
+        public int addEdge(int u, int v, long cap) {
+            if (u < 0 || u >= n || v < 0 || v >= n) {
+                throw new IllegalArgumentException("Edge endpoint out of range: " + u + " -> " + v);
+            }
+            if (cap < 0) {
+                throw new IllegalArgumentException("Negative capacity on edge " + u + " -> " + v);
+            }
+            if (m == from.length) {
+                int grown = m + (m >> 1) + 1;
+                from = Arrays.copyOf(from, grown);
+                to = Arrays.copyOf(to, grown);
+                capacity = Arrays.copyOf(capacity, grown);
+            }
+            from[m] = u;
+            to[m] = v;
+            capacity[m] = cap;
+            return m++;
+        }
+
+        public LongFlowNetwork build() {
+            int arcs = 2 * m;
+            int[] start = new int[n + 1];
+            for (int e = 0; e < m; e++) {
+                start[from[e] + 1]++;
+                start[to[e] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                start[v + 1] += start[v];
+            }
+
+            int[] next = Arrays.copyOf(start, n);
+            int[] head = new int[arcs];
+            int[] rev = new int[arcs];
+            long[] cap = new long[arcs];
+            int[] edgeArc = new int[m];
+            for (int e = 0; e < m; e++) {
+                int forward = next[from[e]]++;
+                int backward = next[to[e]]++;
+                head[forward] = to[e];
+                head[backward] = from[e];
+                rev[forward] = backward;
+                rev[backward] = forward;
+                cap[forward] = capacity[e];
+                edgeArc[e] = forward;
+            }
+            return new LongFlowNetwork(n, m, start, head, rev, cap, edgeArc);
+        }
+    }
+}
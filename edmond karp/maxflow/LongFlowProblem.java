@@ -0,0 +1,27 @@
+package maxflow;
+
+// FlowProblem for a LongFlowNetwork
+public final class LongFlowProblem {
+    private final LongFlowNetwork network;
+    private final int source;
+    private final int sink;
+
+    public LongFlowProblem(LongFlowNetwork network, int source, int sink) {
+        network.checkTerminals(source, sink);
+        this.network = network;
+        this.source = source;
+        this.sink = sink;
+    }
+
+    public LongFlowNetwork network() {
+        return network;
+    }
+
+    public int source() {
+        return source;
+    }
+
+    public int sink() {
+        return sink;
+    }
+}
@@ -0,0 +1,46 @@
+package maxflow;
+
+import java.util.BitSet;
+
+// MaxFlowResult for a LongFlowNetwork
+public final class LongMaxFlowResult {
+    private final long value;
+    private final long[] edgeFlow;
+    private final BitSet sourceSide;
+    private final int[] cutEdges;
+
+    LongMaxFlowResult(long value, long[] edgeFlow, BitSet sourceSide, int[] cutEdges) {
+        this.value = value;
+        this.edgeFlow = edgeFlow;
+        this.sourceSide = sourceSide;
+        this.cutEdges = cutEdges;
+    }
+
+    static LongMaxFlowResult of(LongFlowNetwork network, long value, long[] edgeFlow, FlowWorkspace workspace) {
+        BitSet sourceSide = MaxFlowResult.sourceSide(network.n, workspace);
+        return new LongMaxFlowResult(value, edgeFlow, sourceSide,
+                MaxFlowResult.cutEdges(network.m, network.edgeArc, network.head, network.rev, sourceSide));
+    }
+
+    public long value() {
+        return value;
+    }
+
+    // Flow on each input edge, indexed like the builder's edge ids; do not modify
+    public long[] edgeFlow() {
+        return edgeFlow;
+    }
+
+    public boolean onSourceSide(int v) {
+        return sourceSide.get(v);
+    }
+
+    public BitSet sourceSide() {
+        return (BitSet) sourceSide.clone();
+    }
+
+    // Ids of the saturated edges from the source side to the sink side; do not modify
+    public int[] cutEdges() {
+        return cutEdges;
+    }
+}
@@ -0,0 +1,19 @@
+package maxflow;
+
+// MaxFlowSolver for LongFlowNetwork. Totals are overflow-checked and throw ArithmeticException.
+// The same workspace marking contract as MaxFlowSolver applies.
+public interface LongMaxFlowSolver {
+
+    // Solve and, when edgeFlow is not null, write the flow of every input edge into it
+    long maxFlow(LongFlowNetwork network, int source, int sink, long[] edgeFlow, FlowWorkspace workspace);
+
+    default LongMaxFlowResult solve(LongFlowNetwork network, int source, int sink, FlowWorkspace workspace) {
+        long[] edgeFlow = new long[network.m];
+        long value = maxFlow(network, source, sink, edgeFlow, workspace);
+        return LongMaxFlowResult.of(network, value, edgeFlow, workspace);
+    }
+
+    default long maxFlow(LongFlowNetwork network, int source, int sink) {
+        return maxFlow(network, source, sink, null, new FlowWorkspace());
+    }
+}
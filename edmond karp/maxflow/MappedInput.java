@@ -0,0 +1,50 @@
+package maxflow;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Reads a file through a sliding memory-mapped window, so files above 2 GB work and nothing is
+// copied onto the heap. The window size is a multiple of the caller's record size, so fixed-size
+// records never straddle two windows.
+final class MappedInput {
+    private static final long MAX_WINDOW = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long window;
+    private long windowStart;
+    private MappedByteBuffer buffer;
+
+    MappedInput(FileChannel channel, long offset, int recordSize) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.window = MAX_WINDOW - MAX_WINDOW % recordSize;
+        map(offset);
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(window, size - start));
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private boolean ensure() throws IOException {
+        if (buffer.hasRemaining()) return true;
+        long next = windowStart + buffer.limit();
+        if (next >= size) return false;
+        map(next);
+        return true;
+    }
+
+    // Next byte, or -1 at the end of the file
+    int read() throws IOException {
+        return ensure() ? buffer.get() & 0xff : -1;
+    }
+
+    int readInt() throws IOException {
+        if (!ensure()) throw new IOException("Unexpected end of file");
+        return buffer.getInt();
+    }
+}
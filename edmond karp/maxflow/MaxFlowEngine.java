@@ -0,0 +1,66 @@
+package maxflow;
+
+// The engines available for selection per call or from the GUI
+public enum MaxFlowEngine {
+    EDMONDS_KARP("Edmonds-Karp") {
+        @Override
+        public MaxFlowSolver solver(FlowListener listener) {
+            return new EdmondsKarpSolver(listener);
+        }
+    },
+    EDMONDS_KARP_BIDIRECTIONAL("Edmonds-Karp (bidirectional)") {
+        @Override
+        public MaxFlowSolver solver(FlowListener listener) {
+            return new EdmondsKarpSolver(listener, SearchMode.BIDIRECTIONAL);
+        }
+    },
+    EDMONDS_KARP_PARALLEL("Edmonds-Karp (parallel BFS)") {
+        @Override
+        public MaxFlowSolver solver(FlowListener listener) {
+            return new EdmondsKarpSolver(listener, SearchMode.PARALLEL);
+        }
+    },
+    EDMONDS_KARP_SCALING("Edmonds-Karp (capacity scaling)") {
+        @Override
+        public MaxFlowSolver solver(FlowListener listener) {
+            return new EdmondsKarpSolver(listener, SearchMode.SCALING);
+        }
+    },
+    DINIC("Dinic") {
+        @Override
+        public MaxFlowSolver solver(FlowListener listener) {
+            return new DinicSolver(listener);
+        }
+    },
+    PUSH_RELABEL("Push-relabel") {
+        // Pushes are not paths, so the listener is dropped; workspace.flowSoFar() still shows progress
+        @Override
+        public MaxFlowSolver solver(FlowListener listener) {
+            return new PushRelabelSolver();
+        }
+    },
+    HOPCROFT_KARP("Hopcroft-Karp (bipartite, else Dinic)") {
+        @Override
+        public MaxFlowSolver solver(FlowListener listener) {
+            return new HopcroftKarpSolver(new DinicSolver(listener), listener);
+        }
+    };
+
+    private final String displayName;
+
+    MaxFlowEngine(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public MaxFlowSolver solver() {
+        return solver(null);
+    }
+
+    // Engines without augmenting paths ignore the listener
+    public abstract MaxFlowSolver solver(FlowListener listener);
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,84 @@
+package maxflow;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Everything a solve produces: the flow value, the flow on every input edge, the source side of
+// the minimum cut (vertices still reachable from the source in the residual graph) and the edges
+// crossing that cut, plus the saturated vertices for a solve with vertex capacities. Built from the
+// marks the engine's last search left in the workspace.
+public final class MaxFlowResult {
+    private final int value;
+    private final int[] edgeFlow;
+    private final BitSet sourceSide;
+    private final int[] cutEdges;
+    private final int[] cutVertices;
+
+    MaxFlowResult(int value, int[] edgeFlow, BitSet sourceSide, int[] cutEdges) {
+        this(value, edgeFlow, sourceSide, cutEdges, new int[0]);
+    }
+
+    MaxFlowResult(int value, int[] edgeFlow, BitSet sourceSide, int[] cutEdges, int[] cutVertices) {
+        this.value = value;
+        this.edgeFlow = edgeFlow;
+        this.sourceSide = sourceSide;
+        this.cutEdges = cutEdges;
+        this.cutVertices = cutVertices;
+    }
+
+    static MaxFlowResult of(FlowNetwork network, int value, int[] edgeFlow, FlowWorkspace workspace) {
+        BitSet sourceSide = sourceSide(network.n, workspace);
+        return new MaxFlowResult(value, edgeFlow, sourceSide, cutEdges(network.m, network.edgeArc, network.head,
+                network.rev, sourceSide));
+    }
+
+    static BitSet sourceSide(int n, FlowWorkspace workspace) {
+        BitSet side = new BitSet(n);
+        for (int v = 0; v < n; v++) {
+            if (workspace.isMarked(v)) side.set(v);
+        }
+        return side;
+    }
+
+    // Input edges leaving the source side; a linear pass over the edge array, not a search
+    static int[] cutEdges(int m, int[] edgeArc, int[] head, int[] rev, BitSet sourceSide) {
+        int[] cut = new int[8];
+        int count = 0;
+        for (int e = 0; e < m; e++) {
+            int a = edgeArc[e];
+            if (sourceSide.get(head[rev[a]]) && !sourceSide.get(head[a])) {
+                if (count == cut.length) cut = Arrays.copyOf(cut, 2 * count);
+                cut[count++] = e;
+            }
+        }
+        return Arrays.copyOf(cut, count);
+    }
+
+    public int value() {
+        return value;
+    }
+
+    // Flow on each input edge, indexed like the builder's edge ids; do not modify
+    public int[] edgeFlow() {
+        return edgeFlow;
+    }
+
+    public boolean onSourceSide(int v) {
+        return sourceSide.get(v);
+    }
+
+    public BitSet sourceSide() {
+        return (BitSet) sourceSide.clone();
+    }
+
+    // Ids of the saturated edges from the source side to the sink side; do not modify
+    public int[] cutEdges() {
+        return cutEdges;
+    }
+
+    // Vertices on the source side whose vertex capacity is used up, so the cut passes through
+    // them; empty unless solved with vertex capacities. Do not modify.
+    public int[] cutVertices() {
+        return cutVertices;
+    }
+}
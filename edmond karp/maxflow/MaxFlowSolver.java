@@ -0,0 +1,47 @@
+package maxflow;
+
+import java.io.IOException;
+
+// A max-flow engine. Implementations keep no per-solve state of their own; everything
+// mutable lives in the FlowWorkspace, so one instance can be shared between callers.
+// A total flow above Integer.MAX_VALUE throws ArithmeticException; use LongMaxFlowSolver for those.
+// After a solve, workspace.isMarked(v) holds exactly for the vertices reachable from the source in
+// the residual graph, which solve() turns into the minimum cut.
+public interface MaxFlowSolver {
+
+    // Solve and, when edgeFlow is not null, write the flow of every input edge into it
+    int maxFlow(FlowNetwork network, int source, int sink, int[] edgeFlow, FlowWorkspace workspace);
+
+    // Solve a network whose arcs live in IntStorage, writing edge flows when edgeFlow is not null.
+    // The same flow value and workspace marks as the FlowNetwork solve of the same edges.
+    int maxFlow(StoredFlowNetwork network, int source, int sink, IntStorage edgeFlow, FlowWorkspace workspace)
+            throws IOException;
+
+    default int maxFlow(StoredFlowNetwork network, int source, int sink) throws IOException {
+        return maxFlow(network, source, sink, null, new FlowWorkspace());
+    }
+
+    // Solve and return the flow value, per-edge flow and minimum cut together
+    default MaxFlowResult solve(FlowNetwork network, int source, int sink, FlowWorkspace workspace) {
+        int[] edgeFlow = new int[network.m];
+        int value = maxFlow(network, source, sink, edgeFlow, workspace);
+        return MaxFlowResult.of(network, value, edgeFlow, workspace);
+    }
+
+    default MaxFlowResult solve(FlowNetwork network, int source, int sink) {
+        return solve(network, source, sink, new FlowWorkspace());
+    }
+
+    default int maxFlow(FlowNetwork network, int source, int sink) {
+        return maxFlow(network, source, sink, null, new FlowWorkspace());
+    }
+
+    default int maxFlow(FlowNetwork network, int source, int sink, int[] edgeFlow) {
+        return maxFlow(network, source, sink, edgeFlow, new FlowWorkspace());
+    }
+
+    // Adapter for dense capacity matrices such as the GUI's int[n][n] input
+    default int maxFlow(int[][] capacity, int source, int sink) {
+        return maxFlow(FlowNetwork.fromMatrix(capacity), source, sink);
+    }
+}
@@ -0,0 +1,27 @@
+package maxflow;
+
+// What a min-cost solve produces: the flow value, its total cost and the flow on every input edge
+public final class MinCostFlowResult {
+    private final int value;
+    private final long cost;
+    private final int[] edgeFlow;
+
+    MinCostFlowResult(int value, long cost, int[] edgeFlow) {
+        this.value = value;
+        this.cost = cost;
+        this.edgeFlow = edgeFlow;
+    }
+
+    public int value() {
+        return value;
+    }
+
+    public long cost() {
+        return cost;
+    }
+
+    // Flow on each input edge, indexed like the builder's edge ids; do not modify
+    public int[] edgeFlow() {
+        return edgeFlow;
+    }
+}
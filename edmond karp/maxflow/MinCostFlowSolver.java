@@ -0,0 +1,26 @@
+package maxflow;
+
+// A minimum-cost maximum-flow engine: among all maximum flows from source to sink, one of least
+// total cost, where edge e costs edgeCost[e] per unit of flow. Same conventions as MaxFlowSolver:
+// all mutable state lives in the FlowWorkspace, a flow value above Integer.MAX_VALUE throws
+// ArithmeticException, and afterwards workspace.isMarked(v) gives the source side of a minimum cut.
+// A total cost outside the long range throws ArithmeticException too.
+public interface MinCostFlowSolver {
+
+    // Solve and, when edgeFlow is not null, write the flow of every input edge into it. Returns the
+    // flow value; the cost is workspace.flowCost().
+    int minCostFlow(FlowNetwork network, int source, int sink, int[] edgeCost, int[] edgeFlow,
+                    FlowWorkspace workspace);
+
+    // Solve and return the flow value, its cost and the per-edge flow together
+    default MinCostFlowResult solve(FlowNetwork network, int source, int sink, int[] edgeCost,
+                                    FlowWorkspace workspace) {
+        int[] edgeFlow = new int[network.m];
+        int value = minCostFlow(network, source, sink, edgeCost, edgeFlow, workspace);
+        return new MinCostFlowResult(value, workspace.flowCost, edgeFlow);
+    }
+
+    default MinCostFlowResult solve(FlowNetwork network, int source, int sink, int[] edgeCost) {
+        return solve(network, source, sink, edgeCost, new FlowWorkspace());
+    }
+}
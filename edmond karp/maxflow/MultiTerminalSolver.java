@@ -0,0 +1,287 @@
+package maxflow;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Edmonds-Karp from a set of sources to a set of sinks, with optional per-vertex capacities,
+// without building a super-source, a super-sink or split vertices. The search runs over two
+// implicit states per vertex: 2v (into v) and 2v + 1 (out of v). Input arcs lead from out-states
+// to in-states, and the arc from v's in-state to its out-state holds the vertex capacity, tracked
+// as the flow through v. Sources start in their in-states and sinks finish in their out-states,
+// so terminal capacities limit what a terminal can send or take.
+//
+// Out-states scan a vertex's forward arcs and in-states its reverse arcs, which FlowNetwork keeps
+// in two runs, so each arc is scanned from one state only. After a solve, the workspace marks are
+// per state: isMarked(2v) and isMarked(2v + 1).
+//
+// Like the MaxFlowSolver engines it checks the workspace's SolveBudget between augmentations. A
+// stopped solve marks every state the sources still reach, so its MaxFlowResult holds a feasible
+// flow but not a minimum cut.
+public final class MultiTerminalSolver {
+    public static final int UNLIMITED = Integer.MAX_VALUE; // vertex capacity that never binds
+
+    private static final int ROOT = -1; // parentArc of a source state
+    private static final int INTERNAL = -2; // parentArc of a state reached through its own vertex
+
+    private final FlowListener listener;
+
+    public MultiTerminalSolver() {
+        this(null);
+    }
+
+    // The listener hears each path as the vertices it passes, from a source to a sink. A path
+    // that leaves a vertex and comes back to it later, undoing flow through it, lists it twice.
+    public MultiTerminalSolver(FlowListener listener) {
+        this.listener = listener;
+    }
+
+    // Solve and, when edgeFlow is not null, write the flow of every input edge into it.
+    // vertexCapacity may be null for no vertex limits.
+    public int maxFlow(FlowNetwork network, int[] sources, int[] sinks, int[] vertexCapacity, int[] edgeFlow,
+                       FlowWorkspace workspace) {
+        int n = network.n;
+        checkTerminals(network, sources, sinks);
+        if (vertexCapacity != null) {
+            if (vertexCapacity.length != n) {
+                throw new IllegalArgumentException("Got " + vertexCapacity.length + " vertex capacities for "
+                        + n + " vertices");
+            }
+            for (int v = 0; v < n; v++) {
+                if (vertexCapacity[v] < 0) throw new IllegalArgumentException("Negative capacity on vertex " + v);
+            }
+        }
+
+        workspace.ensureCapacity(network);
+        workspace.ensureSplit(n);
+        workspace.resetResidual(network);
+        Arrays.fill(workspace.through, 0, n, 0);
+        for (int t : sinks) {
+            workspace.isSink[t] = true;
+        }
+
+        int[] residual = workspace.residual;
+        int[] through = workspace.through;
+        int[] parentArc = workspace.parentArc;
+        int[] rev = network.rev;
+        int maxFlow = 0;
+        try {
+            // The last, failing search leaves the source side of the minimum cut marked
+            int target;
+            while (!workspace.outOfBudget() && (target = search(network, workspace, sources, vertexCapacity)) != -1) {
+                // Find the bottleneck along the path of states
+                int pathFlow = Integer.MAX_VALUE;
+                int length = 0;
+                for (int x = target; parentArc[x] != ROOT; x = previous(x, parentArc[x], network)) {
+                    int a = parentArc[x];
+                    int v = x >>> 1;
+                    if (a != INTERNAL) {
+                        pathFlow = Math.min(pathFlow, residual[a]);
+                        length++;
+                    } else if ((x & 1) == 1) {
+                        pathFlow = Math.min(pathFlow, vertexCapacity(vertexCapacity, v) - through[v]);
+                    } else {
+                        pathFlow = Math.min(pathFlow, through[v]);
+                    }
+                }
+
+                // Update residual capacities and vertex throughput along the path
+                for (int x = target; parentArc[x] != ROOT; x = previous(x, parentArc[x], network)) {
+                    int a = parentArc[x];
+                    if (a != INTERNAL) {
+                        residual[a] -= pathFlow;
+                        residual[rev[a]] += pathFlow;
+                    } else if ((x & 1) == 1) {
+                        through[x >>> 1] += pathFlow;
+                    } else {
+                        through[x >>> 1] -= pathFlow;
+                    }
+                }
+
+                maxFlow = Math.addExact(maxFlow, pathFlow);
+                workspace.recordPath(length, pathFlow);
+                if (listener != null) {
+                    int vertices = tracePath(network, workspace, target);
+                    listener.augmented(workspace.path, vertices, pathFlow, maxFlow);
+                }
+            }
+        } finally {
+            for (int t : sinks) {
+                workspace.isSink[t] = false;
+            }
+        }
+        // With no sinks left to stop at, one more search marks every state the sources reach
+        if (workspace.stoppedEarly) {
+            search(network, workspace, sources, vertexCapacity);
+        }
+
+        if (edgeFlow != null) {
+            workspace.writeEdgeFlow(network, edgeFlow);
+        }
+        return maxFlow;
+    }
+
+    public MaxFlowResult solve(FlowNetwork network, int[] sources, int[] sinks, int[] vertexCapacity,
+                               FlowWorkspace workspace) {
+        int[] edgeFlow = new int[network.m];
+        int value = maxFlow(network, sources, sinks, vertexCapacity, edgeFlow, workspace);
+
+        // A vertex is on the source side when its in-state is; the cut crosses an edge whose tail
+        // out-state is marked but head in-state is not, and a vertex marked in but not out
+        BitSet sourceSide = new BitSet(network.n);
+        int[] cutVertices = new int[0];
+        int count = 0;
+        for (int v = 0; v < network.n; v++) {
+            if (!workspace.isMarked(2 * v)) continue;
+            sourceSide.set(v);
+            if (!workspace.isMarked(2 * v + 1)) {
+                if (count == cutVertices.length) cutVertices = Arrays.copyOf(cutVertices, Math.max(8, 2 * count));
+                cutVertices[count++] = v;
+            }
+        }
+        int[] cutEdges = new int[0];
+        int edges = 0;
+        for (int e = 0; e < network.m; e++) {
+            int a = network.edgeArc[e];
+            if (workspace.isMarked(2 * network.head[network.rev[a]] + 1) && !workspace.isMarked(2 * network.head[a])) {
+                if (edges == cutEdges.length) cutEdges = Arrays.copyOf(cutEdges, Math.max(8, 2 * edges));
+                cutEdges[edges++] = e;
+            }
+        }
+        return new MaxFlowResult(value, edgeFlow, sourceSide, Arrays.copyOf(cutEdges, edges),
+                Arrays.copyOf(cutVertices, count));
+    }
+
+    public MaxFlowResult solve(FlowNetwork network, int[] sources, int[] sinks, int[] vertexCapacity) {
+        return solve(network, sources, sinks, vertexCapacity, new FlowWorkspace());
+    }
+
+    // Matrix adapter, like MaxFlowSolver.maxFlow(int[][], int, int)
+    public int maxFlow(int[][] capacity, int[] sources, int[] sinks, int[] vertexCapacity) {
+        return maxFlow(FlowNetwork.fromMatrix(capacity), sources, sinks, vertexCapacity, null, new FlowWorkspace());
+    }
+
+    private static void checkTerminals(FlowNetwork network, int[] sources, int[] sinks) {
+        if (sources.length == 0 || sinks.length == 0) {
+            throw new IllegalArgumentException("Need at least one source and one sink");
+        }
+        BitSet isSource = new BitSet(network.n);
+        for (int s : sources) {
+            network.checkTerminals(s, s);
+            isSource.set(s);
+        }
+        for (int t : sinks) {
+            network.checkTerminals(t, t);
+            if (isSource.get(t)) throw new IllegalArgumentException("Vertex " + t + " is both a source and a sink");
+        }
+    }
+
+    private static int vertexCapacity(int[] vertexCapacity, int v) {
+        return vertexCapacity == null ? UNLIMITED : vertexCapacity[v];
+    }
+
+    // The state a path step came from
+    private static int previous(int x, int a, FlowNetwork network) {
+        if (a == INTERNAL) return x ^ 1;
+        int tail = network.head[network.rev[a]];
+        return a < network.reverseStart[tail] ? 2 * tail + 1 : 2 * tail;
+    }
+
+    // Write the vertices of the path of states ending at target into path, source first, and
+    // return its length. The in-state and out-state of a vertex passed through count once.
+    private static int tracePath(FlowNetwork network, FlowWorkspace workspace, int target) {
+        if (workspace.path.length < 2 * network.n) {
+            workspace.path = new int[2 * network.n];
+        }
+        int[] path = workspace.path;
+        int[] parentArc = workspace.parentArc;
+        int length = 0;
+        for (int x = target; ; x = previous(x, parentArc[x], network)) {
+            if (length == 0 || path[length - 1] != x >>> 1) path[length++] = x >>> 1;
+            if (parentArc[x] == ROOT) break;
+        }
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int swap = path[i];
+            path[i] = path[j];
+            path[j] = swap;
+        }
+        return length;
+    }
+
+    // BFS over states from every source; returns the out-state of the first sink reached, or -1
+    private static int search(FlowNetwork network, FlowWorkspace workspace, int[] sources, int[] vertexCapacity) {
+        long started = System.nanoTime();
+        int[] start = network.start;
+        int[] head = network.head;
+        int[] reverseStart = network.reverseStart;
+        int[] residual = workspace.residual;
+        int[] through = workspace.through;
+        boolean[] isSink = workspace.isSink;
+        int[] parentArc = workspace.parentArc;
+        int[] stamp = workspace.stamp;
+        int[] queue = workspace.queue;
+        int mask = workspace.queueMask;
+        int epoch = workspace.nextEpoch();
+
+        int qHead = 0, qTail = 0;
+        for (int s : sources) {
+            if (stamp[2 * s] != epoch) {
+                stamp[2 * s] = epoch;
+                parentArc[2 * s] = ROOT;
+                queue[qTail++ & mask] = 2 * s;
+            }
+        }
+
+        int found = -1;
+        long arcs = 0;
+        search:
+        while (qHead != qTail) {
+            int x = queue[qHead++ & mask];
+            int v = x >>> 1;
+            if ((x & 1) == 0) {
+                // Into v: through v if its capacity allows, or back along an incoming edge's flow
+                if (stamp[x + 1] != epoch && through[v] < vertexCapacity(vertexCapacity, v)) {
+                    stamp[x + 1] = epoch;
+                    parentArc[x + 1] = INTERNAL;
+                    if (isSink[v]) {
+                        found = x + 1;
+                        break;
+                    }
+                    queue[qTail++ & mask] = x + 1;
+                }
+                arcs += start[v + 1] - reverseStart[v];
+                for (int a = reverseStart[v], end = start[v + 1]; a < end; a++) {
+                    int y = 2 * head[a] + 1;
+                    if (residual[a] > 0 && stamp[y] != epoch) {
+                        stamp[y] = epoch;
+                        parentArc[y] = a;
+                        if (isSink[head[a]]) {
+                            found = y;
+                            break search;
+                        }
+                        queue[qTail++ & mask] = y;
+                    }
+                }
+            } else {
+                // Out of v: along an edge, or back into v to undo flow through it
+                if (stamp[x - 1] != epoch && through[v] > 0) {
+                    stamp[x - 1] = epoch;
+                    parentArc[x - 1] = INTERNAL;
+                    queue[qTail++ & mask] = x - 1;
+                }
+                arcs += reverseStart[v] - start[v];
+                for (int a = start[v], end = reverseStart[v]; a < end; a++) {
+                    int y = 2 * head[a];
+                    if (residual[a] > 0 && stamp[y] != epoch) {
+                        stamp[y] = epoch;
+                        parentArc[y] = a;
+                        queue[qTail++ & mask] = y;
+                    }
+                }
+            }
+        }
+        workspace.vertexVisits += found == -1 ? qTail : qTail + 1;
+        workspace.arcVisits += arcs;
+        workspace.searchNanos += System.nanoTime() - started;
+        return found;
+    }
+}
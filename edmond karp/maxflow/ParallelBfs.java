@@ -0,0 +1,344 @@
+package maxflow;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Level-synchronous BFS for very large networks. Each level is split into chunks on a fork-join
+// pool. Top-down steps expand the frontier and claim vertices with a compare-and-set on the
+// epoch stamp. When the frontier's arcs outweigh the unexplored ones, the search switches to
+// bottom-up steps: every unvisited vertex scans its own arcs for a parent in the frontier, so no
+// claim is needed (Beamer et al., direction-optimizing BFS). Networks below the threshold use
+// the sequential EdmondsKarpSolver.bfs.
+final class ParallelBfs {
+    static final int DEFAULT_MIN_VERTICES = 1 << 16;
+
+    private static final int GRAIN = 2048; // vertices per leaf chunk
+    private static final int LEAF_MIN = GRAIN / 2; // a split leaf covers at least this many
+    private static final int BUFFER = 256; // discovered vertices buffered before a flush
+    // Go bottom-up when frontier arcs > unexplored / ALPHA. Lower than the usual 14: a bottom-up
+    // step rescans every unreached vertex, and in a residual graph many of them never become
+    // reachable (reverse arcs start empty, forward arcs saturate)
+    private static final int ALPHA = 2;
+    private static final int BETA = 24; // go top-down again when frontier < n / BETA
+
+    private static final VarHandle STAMP = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final ForkJoinPool pool;
+    private final int minVertices;
+
+    ParallelBfs(ForkJoinPool pool, int minVertices) {
+        if (minVertices < 0) {
+            throw new IllegalArgumentException("Negative vertex threshold: " + minVertices);
+        }
+        this.pool = pool;
+        this.minVertices = minVertices;
+    }
+
+    // Same contract as EdmondsKarpSolver.bfs, except that the search only stops at the end of the
+    // level that reaches the sink
+    boolean search(FlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        if (network.n < minVertices) {
+            return EdmondsKarpSolver.bfs(network, workspace, source, sink);
+        }
+        workspace.ensureParallel(network.n);
+        Level level = workspace.parallelLevel;
+        level.reset(network, workspace, workspace.nextEpoch());
+        return search(level, workspace, source, sink);
+    }
+
+    // The same over IntStorage arcs. The steps only read them, and IntStorage reads leave any
+    // buffer position alone, so they can share the storage.
+    boolean search(StoredFlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        if (network.n < minVertices) {
+            return EdmondsKarpSolver.bfs(network, workspace, source, sink, 1);
+        }
+        workspace.ensureParallel(network.n);
+        Level level = workspace.parallelLevel;
+        level.reset(network, workspace, workspace.nextEpoch());
+        return search(level, workspace, source, sink);
+    }
+
+    // Leaf chunks of a level are disjoint and, once split, at least LEAF_MIN wide, so lo / LEAF_MIN
+    // numbers them and each gets its own BUFFER slots of FlowWorkspace.stepBuffers
+    static int bufferLength(int n) {
+        return (n / LEAF_MIN + 1) * BUFFER;
+    }
+
+    private boolean search(Level level, FlowWorkspace workspace, int source, int sink) {
+        int n = level.n;
+        int[] frontier = workspace.queue;
+        int[] next = workspace.nextFrontier;
+        int[] start = level.start;
+
+        frontier[0] = source;
+        workspace.stamp[source] = level.epoch;
+        workspace.label[source] = 0;
+        int frontierSize = 1;
+        long frontierArcs = start[source + 1] - start[source];
+        long unexploredArcs = start[n] - frontierArcs;
+        long visited = 1;
+        boolean bottomUp = false;
+
+        while (frontierSize > 0 && workspace.stamp[sink] != level.epoch) {
+            if (bottomUp) {
+                bottomUp = frontierSize >= n / BETA;
+            } else {
+                bottomUp = frontierArcs > unexploredArcs / ALPHA;
+            }
+            level.prepare(frontier, frontierSize, next, bottomUp);
+            run(new Step(level, 0, bottomUp ? n : frontierSize));
+
+            frontierSize = level.nextSize.get();
+            frontierArcs = level.nextArcs.get();
+            unexploredArcs -= frontierArcs;
+            visited += frontierSize;
+            level.depth++;
+            int[] swap = frontier;
+            frontier = next;
+            next = swap;
+        }
+        workspace.vertexVisits += visited;
+        workspace.arcVisits += level.arcVisits.get();
+        return workspace.stamp[sink] == level.epoch;
+    }
+
+    private void run(Step step) {
+        if (step.hi - step.lo <= GRAIN) {
+            step.compute(); // Thin levels are not worth a task
+        } else {
+            pool.invoke(step);
+        }
+    }
+
+    // Shared state of one search, kept in the workspace and reset by each search; the per-level
+    // fields are set before the level's tasks start. The arcs are either the int[] arrays or, for
+    // a StoredFlowNetwork, the IntStorage ones.
+    static final class Level {
+        int n;
+        int[] start;
+        int[] head;
+        int[] rev;
+        int[] residual;
+        IntStorage storedHead;
+        IntStorage storedRev;
+        IntStorage storedResidual;
+        int[] stamp;
+        int[] label;
+        int[] parentArc;
+        int[] buffers;
+        int epoch;
+        final AtomicInteger nextSize = new AtomicInteger();
+        final AtomicLong nextArcs = new AtomicLong();
+        final AtomicLong arcVisits = new AtomicLong();
+        int depth;
+        int[] frontier;
+        int[] next;
+        boolean bottomUp;
+
+        void reset(FlowNetwork network, FlowWorkspace workspace, int epoch) {
+            n = network.n;
+            start = network.start;
+            head = network.head;
+            rev = network.rev;
+            residual = workspace.residual;
+            storedHead = null;
+            storedRev = null;
+            storedResidual = null;
+            reset(workspace, epoch);
+        }
+
+        void reset(StoredFlowNetwork network, FlowWorkspace workspace, int epoch) {
+            n = network.n;
+            start = network.start;
+            head = null;
+            rev = null;
+            residual = null;
+            storedHead = network.head;
+            storedRev = network.rev;
+            storedResidual = workspace.storedResidual;
+            reset(workspace, epoch);
+        }
+
+        private void reset(FlowWorkspace workspace, int epoch) {
+            stamp = workspace.stamp;
+            label = workspace.label;
+            parentArc = workspace.parentArc;
+            buffers = workspace.stepBuffers;
+            this.epoch = epoch;
+            depth = 0;
+            arcVisits.set(0);
+        }
+
+        void prepare(int[] frontier, int frontierSize, int[] next, boolean bottomUp) {
+            this.frontier = frontier;
+            this.next = next;
+            this.bottomUp = bottomUp;
+            nextSize.set(0);
+            nextArcs.set(0);
+        }
+    }
+
+    // Top-down: frontier[lo, hi); bottom-up: vertices [lo, hi)
+    @SuppressWarnings("serial") // fork-join tasks are never serialized
+    private static final class Step extends RecursiveAction {
+        private final Level level;
+        final int lo;
+        final int hi;
+        private int offset; // first of this leaf's slots in level.buffers
+        private int buffered;
+        private long bufferedArcs;
+        private long scanned;
+
+        Step(Level level, int lo, int hi) {
+            this.level = level;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Step(level, lo, mid), new Step(level, mid, hi));
+                return;
+            }
+            offset = lo / LEAF_MIN * BUFFER;
+            if (level.head == null) {
+                if (level.bottomUp) {
+                    bottomUpStored();
+                } else {
+                    topDownStored();
+                }
+            } else if (level.bottomUp) {
+                bottomUp();
+            } else {
+                topDown();
+            }
+            flush();
+            level.arcVisits.addAndGet(scanned);
+        }
+
+        private void topDown() {
+            int[] start = level.start;
+            int[] head = level.head;
+            int[] residual = level.residual;
+            int[] stamp = level.stamp;
+            int[] frontier = level.frontier;
+            int epoch = level.epoch;
+            int depth = level.depth + 1;
+            for (int i = lo; i < hi; i++) {
+                int u = frontier[i];
+                scanned += start[u + 1] - start[u];
+                for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                    if (residual[a] <= 0) continue;
+                    int v = head[a];
+                    int seen = (int) STAMP.getAcquire(stamp, v);
+                    if (seen != epoch && STAMP.compareAndSet(stamp, v, seen, epoch)) {
+                        level.parentArc[v] = a;
+                        level.label[v] = depth;
+                        add(v);
+                    }
+                }
+            }
+        }
+
+        private void bottomUp() {
+            int[] start = level.start;
+            int[] head = level.head;
+            int[] rev = level.rev;
+            int[] residual = level.residual;
+            int[] stamp = level.stamp;
+            int[] label = level.label;
+            int epoch = level.epoch;
+            int depth = level.depth;
+            for (int v = lo; v < hi; v++) {
+                if ((int) STAMP.getAcquire(stamp, v) == epoch) continue;
+                for (int a = start[v], end = start[v + 1]; a < end; a++) {
+                    scanned++;
+                    int toV = rev[a]; // arc u -> v
+                    if (residual[toV] <= 0) continue;
+                    int u = head[a];
+                    // The acquire orders the read of label[u] after a concurrent claim of u
+                    if ((int) STAMP.getAcquire(stamp, u) == epoch && label[u] == depth) {
+                        level.parentArc[v] = toV;
+                        label[v] = depth + 1;
+                        STAMP.setRelease(stamp, v, epoch);
+                        add(v);
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void topDownStored() {
+            int[] start = level.start;
+            IntStorage head = level.storedHead;
+            IntStorage residual = level.storedResidual;
+            int[] stamp = level.stamp;
+            int[] frontier = level.frontier;
+            int epoch = level.epoch;
+            int depth = level.depth + 1;
+            for (int i = lo; i < hi; i++) {
+                int u = frontier[i];
+                scanned += start[u + 1] - start[u];
+                for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                    if (residual.get(a) <= 0) continue;
+                    int v = head.get(a);
+                    int seen = (int) STAMP.getAcquire(stamp, v);
+                    if (seen != epoch && STAMP.compareAndSet(stamp, v, seen, epoch)) {
+                        level.parentArc[v] = a;
+                        level.label[v] = depth;
+                        add(v);
+                    }
+                }
+            }
+        }
+
+        private void bottomUpStored() {
+            int[] start = level.start;
+            IntStorage head = level.storedHead;
+            IntStorage rev = level.storedRev;
+            IntStorage residual = level.storedResidual;
+            int[] stamp = level.stamp;
+            int[] label = level.label;
+            int epoch = level.epoch;
+            int depth = level.depth;
+            for (int v = lo; v < hi; v++) {
+                if ((int) STAMP.getAcquire(stamp, v) == epoch) continue;
+                for (int a = start[v], end = start[v + 1]; a < end; a++) {
+                    scanned++;
+                    int toV = rev.get(a);
+                    if (residual.get(toV) <= 0) continue;
+                    int u = head.get(a);
+                    if ((int) STAMP.getAcquire(stamp, u) == epoch && label[u] == depth) {
+                        level.parentArc[v] = toV;
+                        label[v] = depth + 1;
+                        STAMP.setRelease(stamp, v, epoch);
+                        add(v);
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void add(int v) {
+            if (buffered == BUFFER) flush();
+            level.buffers[offset + buffered++] = v;
+            bufferedArcs += level.start[v + 1] - level.start[v];
+        }
+
+        // Reserve a block of the next frontier with one atomic add
+        private void flush() {
+            if (buffered == 0) return;
+            int at = level.nextSize.getAndAdd(buffered);
+            System.arraycopy(level.buffers, offset, level.next, at, buffered);
+            level.nextArcs.addAndGet(bufferedArcs);
+            buffered = 0;
+            bufferedArcs = 0;
+        }
+    }
+}
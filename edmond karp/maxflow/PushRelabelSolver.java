@@ -0,0 +1,400 @@
+package maxflow;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// Highest-label push-relabel with the gap and global-relabel heuristics, O(V^2 sqrt(E)).
+// Phase one pushes a maximum preflow into the sink; phase two runs the same discharge
+// loop towards the source to return the leftover excess, turning the preflow into a flow.
+// A SolveBudget can cut phase one short, but phase two always runs: every excess came from
+// the source, so it can always be returned, and what reached the sink is then a feasible flow.
+// There are no augmenting paths, so it takes no FlowListener. The arc-reading steps are written
+// once over int[] arcs and once over IntStorage for StoredFlowNetwork.
+public final class PushRelabelSolver implements MaxFlowSolver {
+
+    @Override
+    public int maxFlow(FlowNetwork network, int source, int sink, int[] edgeFlow, FlowWorkspace workspace) {
+        network.checkTerminals(source, sink);
+
+        int n = network.n;
+        workspace.ensureCapacity(network);
+        workspace.ensurePushRelabel(n);
+        workspace.resetResidual(network);
+        long[] excess = workspace.excess;
+        Arrays.fill(excess, 0, n, 0L);
+        int maxFlow = 0;
+
+        if (source != sink) {
+            // Saturate every arc out of the source
+            int[] head = network.head;
+            int[] rev = network.rev;
+            int[] residual = workspace.residual;
+            for (int a = network.start[source], end = network.start[source + 1]; a < end; a++) {
+                int c = residual[a];
+                if (c > 0 && head[a] != source) {
+                    residual[a] = 0;
+                    residual[rev[a]] += c;
+                    excess[head[a]] += c;
+                    excess[source] -= c;
+                    if (head[a] == sink) workspace.flowSoFar += c;
+                }
+            }
+
+            discharge(network, workspace, sink, source, true);
+            maxFlow = Math.toIntExact(excess[sink]);
+            discharge(network, workspace, source, sink, false);
+        }
+        // Labels do not give the source-side reachability, so this engine pays for one more search
+        workspace.markSourceSide(network, source);
+
+        if (edgeFlow != null) {
+            workspace.writeEdgeFlow(network, edgeFlow);
+        }
+        return maxFlow;
+    }
+
+    @Override
+    public int maxFlow(StoredFlowNetwork network, int source, int sink, IntStorage edgeFlow,
+                       FlowWorkspace workspace) throws IOException {
+        network.checkTerminals(source, sink);
+
+        int n = network.n;
+        workspace.ensureCapacity(network);
+        workspace.ensurePushRelabel(n);
+        workspace.resetResidual(network);
+        long[] excess = workspace.excess;
+        Arrays.fill(excess, 0, n, 0L);
+        int maxFlow = 0;
+
+        if (source != sink) {
+            IntStorage head = network.head;
+            IntStorage rev = network.rev;
+            IntStorage residual = workspace.storedResidual;
+            for (int a = network.start[source], end = network.start[source + 1]; a < end; a++) {
+                int c = residual.get(a);
+                int v = head.get(a);
+                if (c > 0 && v != source) {
+                    int b = rev.get(a);
+                    residual.set(a, 0);
+                    residual.set(b, residual.get(b) + c);
+                    excess[v] += c;
+                    excess[source] -= c;
+                    if (v == sink) workspace.flowSoFar += c;
+                }
+            }
+
+            discharge(network, workspace, sink, source, true);
+            maxFlow = Math.toIntExact(excess[sink]);
+            discharge(network, workspace, source, sink, false);
+        }
+        workspace.markSourceSide(network, source);
+
+        if (edgeFlow != null) {
+            workspace.writeEdgeFlow(network, edgeFlow);
+        }
+        return maxFlow;
+    }
+
+    // Push excess towards target until no vertex that can still reach it is active, or until the
+    // budget runs out if it applies. The other terminal is pinned at label n and never becomes active.
+    private static void discharge(FlowNetwork network, FlowWorkspace workspace, int target, int other,
+                                  boolean budgeted) {
+        int n = network.n;
+        int[] start = network.start;
+        int[] head = network.head;
+        int[] rev = network.rev;
+        int[] residual = workspace.residual;
+        int[] label = workspace.label;
+        int[] currentArc = workspace.currentArc;
+        long[] excess = workspace.excess;
+        int[] activeHead = workspace.activeHead;
+        int[] activeNext = workspace.activeNext;
+        int relabelBudget = 6 * n + network.m;
+
+        globalRelabel(network, workspace, target, other);
+        int work = 0;
+
+        while (!(budgeted && workspace.outOfBudget())) {
+            int h = workspace.highestActive;
+            while (h >= 0 && activeHead[h] == -1) h--;
+            if (h < 0) break;
+            workspace.highestActive = h;
+
+            int v = activeHead[h];
+            activeHead[h] = activeNext[v];
+            if (label[v] != h) continue; // lifted by a gap since it was queued
+
+            int end = start[v + 1];
+            while (excess[v] > 0) {
+                int a = currentArc[v];
+                if (a == end) {
+                    work += end - start[v] + 12;
+                    if (!relabel(network, workspace, v)) break;
+                    continue;
+                }
+                int w = head[a];
+                if (residual[a] > 0 && label[v] == label[w] + 1) {
+                    int d = (int) Math.min(excess[v], residual[a]);
+                    residual[a] -= d;
+                    residual[rev[a]] += d;
+                    excess[v] -= d;
+                    workspace.augmentations++;
+                    if (w == target) {
+                        if (budgeted) workspace.flowSoFar += d; // phase one, towards the sink
+                    } else if (excess[w] == 0) {
+                        activeNext[w] = activeHead[label[w]];
+                        activeHead[label[w]] = w;
+                        if (label[w] > workspace.highestActive) workspace.highestActive = label[w];
+                    }
+                    excess[w] += d;
+                } else {
+                    currentArc[v] = a + 1;
+                }
+            }
+
+            if (work > relabelBudget) {
+                globalRelabel(network, workspace, target, other);
+                work = 0;
+            }
+        }
+    }
+
+    // Raise v to one more than its lowest admissible neighbour. Returns false once v can
+    // no longer reach the target, either directly or because its old label became a gap.
+    private static boolean relabel(FlowNetwork network, FlowWorkspace workspace, int v) {
+        int n = network.n;
+        int[] start = network.start;
+        int[] head = network.head;
+        int[] residual = workspace.residual;
+        int[] label = workspace.label;
+
+        int newLabel = n;
+        for (int a = start[v], end = start[v + 1]; a < end; a++) {
+            if (residual[a] > 0 && label[head[a]] + 1 < newLabel) {
+                newLabel = label[head[a]] + 1;
+            }
+        }
+        return relabelTo(workspace, n, start, v, newLabel);
+    }
+
+    // The bucket and gap bookkeeping of a relabel, which only touches per-vertex arrays
+    private static boolean relabelTo(FlowWorkspace workspace, int n, int[] start, int v, int newLabel) {
+        int[] label = workspace.label;
+        int old = label[v];
+        removeFromBucket(workspace, v, old);
+        if (workspace.labelCount[old] == 0) {
+            // Gap: nothing at or above old can reach the target any more
+            for (int l = old + 1; l <= workspace.highestLabel; l++) {
+                for (int w = workspace.bucketHead[l]; w != -1; w = workspace.bucketNext[w]) {
+                    label[w] = n;
+                }
+                workspace.bucketHead[l] = -1;
+                workspace.labelCount[l] = 0;
+            }
+            workspace.highestLabel = old - 1;
+            label[v] = n;
+            return false;
+        }
+
+        label[v] = newLabel;
+        workspace.currentArc[v] = start[v];
+        if (newLabel >= n) return false;
+        addToBucket(workspace, v, newLabel);
+        if (newLabel > workspace.highestLabel) workspace.highestLabel = newLabel;
+        return true;
+    }
+
+    // Exact labels by reverse BFS from the target, then rebuild all buckets from scratch
+    private static void globalRelabel(FlowNetwork network, FlowWorkspace workspace, int target, int other) {
+        long started = System.nanoTime();
+        int n = network.n;
+        int[] start = network.start;
+        int[] head = network.head;
+        int[] rev = network.rev;
+        int[] residual = workspace.residual;
+        int[] label = workspace.label;
+        int[] queue = workspace.queue;
+        int mask = workspace.queueMask;
+        long[] excess = workspace.excess;
+
+        int qHead = 0, qTail = 0;
+        queue[qTail++ & mask] = target;
+        clearLabels(workspace, n, start, target);
+
+        long arcs = 0;
+        while (qHead != qTail) {
+            int v = queue[qHead++ & mask];
+            int next = label[v] + 1;
+            arcs += start[v + 1] - start[v];
+            for (int a = start[v], end = start[v + 1]; a < end; a++) {
+                int u = head[a];
+                if (label[u] == n && u != other && residual[rev[a]] > 0) {
+                    label[u] = next;
+                    queue[qTail++ & mask] = u;
+                    addToBucket(workspace, u, next);
+                    workspace.highestLabel = next;
+                    if (excess[u] > 0) {
+                        workspace.activeNext[u] = workspace.activeHead[next];
+                        workspace.activeHead[next] = u;
+                        workspace.highestActive = next;
+                    }
+                }
+            }
+        }
+        workspace.vertexVisits += qTail;
+        workspace.arcVisits += arcs;
+        workspace.searchNanos += System.nanoTime() - started;
+    }
+
+    private static void discharge(StoredFlowNetwork network, FlowWorkspace workspace, int target, int other,
+                                  boolean budgeted) {
+        int n = network.n;
+        int[] start = network.start;
+        IntStorage head = network.head;
+        IntStorage rev = network.rev;
+        IntStorage residual = workspace.storedResidual;
+        int[] label = workspace.label;
+        int[] currentArc = workspace.currentArc;
+        long[] excess = workspace.excess;
+        int[] activeHead = workspace.activeHead;
+        int[] activeNext = workspace.activeNext;
+        int relabelBudget = 6 * n + network.m;
+
+        globalRelabel(network, workspace, target, other);
+        int work = 0;
+
+        while (!(budgeted && workspace.outOfBudget())) {
+            int h = workspace.highestActive;
+            while (h >= 0 && activeHead[h] == -1) h--;
+            if (h < 0) break;
+            workspace.highestActive = h;
+
+            int v = activeHead[h];
+            activeHead[h] = activeNext[v];
+            if (label[v] != h) continue;
+
+            int end = start[v + 1];
+            while (excess[v] > 0) {
+                int a = currentArc[v];
+                if (a == end) {
+                    work += end - start[v] + 12;
+                    if (!relabel(network, workspace, v)) break;
+                    continue;
+                }
+                int w = head.get(a);
+                int c = residual.get(a);
+                if (c > 0 && label[v] == label[w] + 1) {
+                    int d = (int) Math.min(excess[v], c);
+                    int b = rev.get(a);
+                    residual.set(a, c - d);
+                    residual.set(b, residual.get(b) + d);
+                    excess[v] -= d;
+                    workspace.augmentations++;
+                    if (w == target) {
+                        if (budgeted) workspace.flowSoFar += d; // phase one, towards the sink
+                    } else if (excess[w] == 0) {
+                        activeNext[w] = activeHead[label[w]];
+                        activeHead[label[w]] = w;
+                        if (label[w] > workspace.highestActive) workspace.highestActive = label[w];
+                    }
+                    excess[w] += d;
+                } else {
+                    currentArc[v] = a + 1;
+                }
+            }
+
+            if (work > relabelBudget) {
+                globalRelabel(network, workspace, target, other);
+                work = 0;
+            }
+        }
+    }
+
+    private static boolean relabel(StoredFlowNetwork network, FlowWorkspace workspace, int v) {
+        int n = network.n;
+        int[] start = network.start;
+        IntStorage head = network.head;
+        IntStorage residual = workspace.storedResidual;
+        int[] label = workspace.label;
+
+        int newLabel = n;
+        for (int a = start[v], end = start[v + 1]; a < end; a++) {
+            if (residual.get(a) > 0 && label[head.get(a)] + 1 < newLabel) {
+                newLabel = label[head.get(a)] + 1;
+            }
+        }
+        return relabelTo(workspace, n, start, v, newLabel);
+    }
+
+    private static void globalRelabel(StoredFlowNetwork network, FlowWorkspace workspace, int target, int other) {
+        long started = System.nanoTime();
+        int n = network.n;
+        int[] start = network.start;
+        IntStorage head = network.head;
+        IntStorage rev = network.rev;
+        IntStorage residual = workspace.storedResidual;
+        int[] label = workspace.label;
+        int[] queue = workspace.queue;
+        int mask = workspace.queueMask;
+        long[] excess = workspace.excess;
+
+        int qHead = 0, qTail = 0;
+        queue[qTail++ & mask] = target;
+        clearLabels(workspace, n, start, target);
+
+        long arcs = 0;
+        while (qHead != qTail) {
+            int v = queue[qHead++ & mask];
+            int next = label[v] + 1;
+            arcs += start[v + 1] - start[v];
+            for (int a = start[v], end = start[v + 1]; a < end; a++) {
+                int u = head.get(a);
+                if (label[u] == n && u != other && residual.get(rev.get(a)) > 0) {
+                    label[u] = next;
+                    queue[qTail++ & mask] = u;
+                    addToBucket(workspace, u, next);
+                    workspace.highestLabel = next;
+                    if (excess[u] > 0) {
+                        workspace.activeNext[u] = workspace.activeHead[next];
+                        workspace.activeHead[next] = u;
+                        workspace.highestActive = next;
+                    }
+                }
+            }
+        }
+        workspace.vertexVisits += qTail;
+        workspace.arcVisits += arcs;
+        workspace.searchNanos += System.nanoTime() - started;
+    }
+
+    // Every label n, every bucket empty, and the target alone at label 0
+    private static void clearLabels(FlowWorkspace workspace, int n, int[] start, int target) {
+        Arrays.fill(workspace.label, 0, n, n);
+        Arrays.fill(workspace.activeHead, 0, n, -1);
+        Arrays.fill(workspace.bucketHead, 0, n, -1);
+        Arrays.fill(workspace.labelCount, 0, n, 0);
+        System.arraycopy(start, 0, workspace.currentArc, 0, n);
+        workspace.highestActive = -1;
+        workspace.highestLabel = 0;
+        workspace.label[target] = 0;
+        addToBucket(workspace, target, 0);
+    }
+
+    private static void addToBucket(FlowWorkspace workspace, int v, int l) {
+        int first = workspace.bucketHead[l];
+        workspace.bucketNext[v] = first;
+        workspace.bucketPrev[v] = -1;
+        if (first != -1) workspace.bucketPrev[first] = v;
+        workspace.bucketHead[l] = v;
+        workspace.labelCount[l]++;
+    }
+
+    private static void removeFromBucket(FlowWorkspace workspace, int v, int l) {
+        int prev = workspace.bucketPrev[v];
+        int next = workspace.bucketNext[v];
+        if (prev == -1) workspace.bucketHead[l] = next;
+        else workspace.bucketNext[prev] = next;
+        if (next != -1) workspace.bucketPrev[next] = prev;
+        workspace.labelCount[l]--;
+    }
+}
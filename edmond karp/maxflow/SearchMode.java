@@ -0,0 +1,17 @@
+package maxflow;
+
+// How EdmondsKarpSolver looks for each shortest augmenting path
+public enum SearchMode {
+    // BFS from the source until the sink is reached
+    FORWARD,
+    // Alternating level-by-level BFS from the source and from the sink, always growing the
+    // smaller frontier; still returns a shortest path, so the O(V E^2) bound holds
+    BIDIRECTIONAL,
+    // Level-synchronous BFS split across a fork-join pool, switching to bottom-up steps on wide
+    // levels; networks below the size threshold keep the sequential FORWARD search
+    PARALLEL,
+    // Capacity scaling: forward BFS restricted to residual arcs of at least delta, where delta
+    // starts at the largest power of two not above the largest capacity and halves each phase
+    // once no such path is left. O(E^2 log U); pays off when capacities span many magnitudes.
+    SCALING
+}
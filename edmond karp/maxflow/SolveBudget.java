@@ -0,0 +1,50 @@
+package maxflow;
+
+import java.time.Duration;
+
+// Stops a solve early: when cancel() is called from any thread, or once a time limit has passed.
+// Set it on the FlowWorkspace before solving. The MaxFlowSolver engines, LongEdmondsKarpSolver and
+// IncrementalMaxFlow check it between augmentations (between discharges for push-relabel), where
+// the flow so far is feasible, so a stopped solve still returns a valid flow, only not a maximum
+// one; workspace.stoppedEarly() tells the two apart. Create a new budget for each solve.
+public final class SolveBudget {
+    // Longer limits are treated as this one, which keeps the deadline arithmetic from overflowing
+    private static final long LONGEST_NANOS = Long.MAX_VALUE / 4;
+
+    private final boolean timed;
+    private final long deadline; // System.nanoTime() from which the solve stops, when timed
+    private volatile boolean cancelled;
+
+    // Runs until cancelled
+    public SolveBudget() {
+        this.timed = false;
+        this.deadline = 0;
+    }
+
+    private SolveBudget(long deadline) {
+        this.timed = true;
+        this.deadline = deadline;
+    }
+
+    // Runs until cancelled or until limit, counted from now, has passed
+    public static SolveBudget timeLimit(Duration limit) {
+        if (limit.isNegative()) {
+            throw new IllegalArgumentException("Negative time limit: " + limit);
+        }
+        long nanos = limit.compareTo(Duration.ofNanos(LONGEST_NANOS)) > 0 ? LONGEST_NANOS : limit.toNanos();
+        return new SolveBudget(System.nanoTime() + nanos);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Asked at each augmentation boundary: one volatile read, plus a clock read when timed
+    boolean exhausted() {
+        return cancelled || timed && System.nanoTime() - deadline >= 0;
+    }
+}
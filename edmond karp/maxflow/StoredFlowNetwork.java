@@ -0,0 +1,143 @@
+package maxflow;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// FlowNetwork with its arc arrays in IntStorage, so the arcs of very large networks can live off
+// the heap. Same CSR layout, arc and edge numbering as FlowNetwork, forward arcs of each vertex
+// before its reverse arcs; only per-vertex arrays stay on the heap. Every MaxFlowSolver solves it.
+public final class StoredFlowNetwork {
+    final int n;
+    final int m;
+    final int[] start; // per vertex, so on the heap like the workspace arrays
+    final int[] reverseStart;
+    final IntStorage head;
+    final IntStorage rev;
+    final IntStorage cap;
+    final IntStorage edgeArc;
+    final IntStorage.Factory storage; // also used for the residual capacities of a solve
+
+    private StoredFlowNetwork(int n, int m, int[] start, int[] reverseStart, IntStorage head, IntStorage rev,
+                              IntStorage cap, IntStorage edgeArc, IntStorage.Factory storage) {
+        this.n = n;
+        this.m = m;
+        this.start = start;
+        this.reverseStart = reverseStart;
+        this.head = head;
+        this.rev = rev;
+        this.cap = cap;
+        this.edgeArc = edgeArc;
+        this.storage = storage;
+    }
+
+    // Copy an on-heap network into the given storage, keeping its edge ids
+    public static StoredFlowNetwork copyOf(FlowNetwork network, IntStorage.Factory storage) throws IOException {
+        Builder builder = new Builder(network.n, network.m, storage);
+        for (int e = 0; e < network.m; e++) {
+            builder.addEdge(network.edgeFrom(e), network.edgeTo(e), network.edgeCapacity(e));
+        }
+        return builder.build();
+    }
+
+    void checkTerminals(int source, int sink) {
+        if (source < 0 || source >= n || sink < 0 || sink >= n) {
+            throw new IllegalArgumentException("Source or sink out of range: " + source + ", " + sink);
+        }
+    }
+
+    public int vertexCount() {
+        return n;
+    }
+
+    public int edgeCount() {
+        return m;
+    }
+
+    public int edgeFrom(int edge) {
+        return head.get(rev.get(edgeArc.get(edge)));
+    }
+
+    public int edgeTo(int edge) {
+        return head.get(edgeArc.get(edge));
+    }
+
+    public int edgeCapacity(int edge) {
+        return cap.get(edgeArc.get(edge));
+    }
+
+    // Collects a known number of edges into storage, then lays them out as CSR like
+    // FlowNetwork.Builder. Nothing proportional to E is allocated on the heap.
+    public static final class Builder {
+        private final int n;
+        private final int expectedEdges;
+        private final IntStorage.Factory storage;
+        private final IntStorage from;
+        private final IntStorage to;
+        private final IntStorage capacity;
+        private int m;
+
+        public Builder(int vertexCount, int edgeCount, IntStorage.Factory storage) throws IOException {
+            if (vertexCount < 0) throw new IllegalArgumentException("Negative vertex count: " + vertexCount);
+            if (edgeCount < 0 || edgeCount > Integer.MAX_VALUE / 2) {
+                throw new IllegalArgumentException("Edge count out of range: " + edgeCount);
+            }
+            this.n = vertexCount;
+            this.expectedEdges = edgeCount;
+            this.storage = storage;
+            this.from = storage.allocate(edgeCount);
+            this.to = storage.allocate(edgeCount);
+            this.capacity = storage.allocate(edgeCount);
+        }
+
+        // Returns the id of the new edge
+        public int addEdge(int u, int v, int cap) {
+            if (u < 0 || u >= n || v < 0 || v >= n) {
+                throw new IllegalArgumentException("Edge endpoint out of range: " + u + " -> " + v);
+            }
+            if (cap < 0) throw new IllegalArgumentException("Negative capacity on edge " + u + " -> " + v);
+            if (m == expectedEdges) throw new IllegalStateException("More than " + expectedEdges + " edges added");
+            from.set(m, u);
+            to.set(m, v);
+            capacity.set(m, cap);
+            return m++;
+        }
+
+        public StoredFlowNetwork build() throws IOException {
+            if (m != expectedEdges) {
+                throw new IllegalStateException("Expected " + expectedEdges + " edges, got " + m);
+            }
+            int arcs = 2 * m;
+            int[] start = new int[n + 1];
+            int[] reverseStart = new int[n];
+            for (int e = 0; e < m; e++) {
+                start[from.get(e) + 1]++;
+                start[to.get(e) + 1]++;
+                reverseStart[from.get(e)]++; // out-degree for now
+            }
+            for (int v = 0; v < n; v++) {
+                start[v + 1] += start[v];
+                reverseStart[v] += start[v];
+            }
+
+            int[] next = Arrays.copyOf(start, n);
+            int[] nextReverse = reverseStart.clone();
+            IntStorage head = storage.allocate(arcs);
+            IntStorage rev = storage.allocate(arcs);
+            IntStorage cap = storage.allocate(arcs);
+            IntStorage edgeArc = storage.allocate(m);
+            for (int e = 0; e < m; e++) {
+                int u = from.get(e);
+                int v = to.get(e);
+                int forward = next[u]++;
+                int backward = nextReverse[v]++;
+                head.set(forward, v);
+                head.set(backward, u);
+                rev.set(forward, backward);
+                rev.set(backward, forward);
+                cap.set(forward, capacity.get(e));
+                edgeArc.set(e, forward);
+            }
+            return new StoredFlowNetwork(n, m, start, reverseStart, head, rev, cap, edgeArc, storage);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package maxflow;
+
+import java.util.Arrays;
+
+// Minimum-cost maximum flow by successive shortest paths: every augmentation follows a cheapest
+// residual path, found by Dijkstra on costs reduced by Johnson potentials so that they stay
+// non-negative. O(F E log V) for flow value F. Each intermediate flow is a cheapest one for its
+// value, so a SolveBudget stop leaves a minimum-cost flow of a smaller value. Negative costs are
+// allowed if no cycle of positive-capacity edges has negative cost; such a cycle reachable from the
+// source throws IllegalArgumentException. CostScalingSolver takes any costs and does not depend on F.
+public final class SuccessiveShortestPathSolver implements MinCostFlowSolver {
+    private static final int SETTLED = -1; // heapIndex of a vertex Dijkstra has popped
+
+    private final FlowListener listener;
+
+    public SuccessiveShortestPathSolver() {
+        this(null);
+    }
+
+    public SuccessiveShortestPathSolver(FlowListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public int minCostFlow(FlowNetwork network, int source, int sink, int[] edgeCost, int[] edgeFlow,
+                           FlowWorkspace workspace) {
+        network.checkTerminals(source, sink);
+
+        workspace.ensureMinCost(network);
+        workspace.resetResidual(network);
+        if (workspace.loadCosts(network, edgeCost)) {
+            shortestDistances(network, workspace, source);
+        } else {
+            Arrays.fill(workspace.potential, 0, network.n, 0L);
+        }
+        int[] residual = workspace.residual;
+        long[] arcCost = workspace.arcCost;
+        int[] parentArc = workspace.parentArc;
+        int[] head = network.head;
+        int[] rev = network.rev;
+        int maxFlow = 0;
+        long cost = 0;
+
+        if (source == sink) {
+            workspace.markSourceSide(network, source);
+        } else {
+            // The last, failing search reaches everything the source can, which marks the cut
+            while (!workspace.outOfBudget() && search(network, workspace, source, sink)) {
+                // Find the bottleneck and the cost per unit along the path
+                int pathFlow = Integer.MAX_VALUE;
+                long pathCost = 0;
+                int length = 0;
+                for (int v = sink; v != source; v = head[rev[parentArc[v]]]) {
+                    pathFlow = Math.min(pathFlow, residual[parentArc[v]]);
+                    pathCost += arcCost[parentArc[v]];
+                    length++;
+                }
+
+                // Update residual capacities along the path
+                for (int v = sink; v != source; v = head[rev[parentArc[v]]]) {
+                    int a = parentArc[v];
+                    residual[a] -= pathFlow;
+                    residual[rev[a]] += pathFlow;
+                }
+
+                maxFlow = Math.addExact(maxFlow, pathFlow);
+                cost = Math.addExact(cost, Math.multiplyExact(pathCost, pathFlow));
+                workspace.recordPath(length, pathFlow);
+                if (listener != null) {
+                    int vertices = workspace.tracePath(network, source, sink);
+                    listener.augmented(workspace.path, vertices, pathFlow, maxFlow);
+                }
+            }
+            if (workspace.stoppedEarly) {
+                workspace.markSourceSide(network, source);
+            }
+        }
+
+        workspace.flowCost = cost;
+        if (edgeFlow != null) {
+            workspace.writeEdgeFlow(network, edgeFlow);
+        }
+        return maxFlow;
+    }
+
+    private static boolean search(FlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        long started = System.nanoTime();
+        boolean found = dijkstra(network, workspace, source, sink);
+        workspace.searchNanos += System.nanoTime() - started;
+        return found;
+    }
+
+    // Dijkstra from the source on reduced costs, stopping once the sink is settled; fills parentArc.
+    // Then lowers the potential of every settled vertex v by dist(sink) - dist(v). That keeps all
+    // reduced costs non-negative and makes those along the path zero, so its reverse arcs are fine
+    // too. Vertices left unsettled keep their potential, which is the same as raising them all by
+    // dist(sink). Without a path every reachable vertex is settled and marked.
+    private static boolean dijkstra(FlowNetwork network, FlowWorkspace workspace, int source, int sink) {
+        int[] start = network.start;
+        int[] head = network.head;
+        int[] residual = workspace.residual;
+        long[] arcCost = workspace.arcCost;
+        long[] potential = workspace.potential;
+        long[] distance = workspace.distance;
+        int[] heapIndex = workspace.heapIndex;
+        int[] parentArc = workspace.parentArc;
+        int[] stamp = workspace.stamp;
+        int[] settled = workspace.queue; // settled vertices in order, at most n of them
+        int epoch = workspace.nextEpoch();
+
+        stamp[source] = epoch;
+        distance[source] = 0;
+        workspace.heap[0] = source;
+        heapIndex[source] = 0;
+        int size = 1;
+        int count = 0;
+
+        long arcs = 0;
+        while (size > 0) {
+            int u = workspace.heap[0];
+            size = removeFirst(workspace, size);
+            heapIndex[u] = SETTLED;
+            settled[count++] = u;
+            if (u == sink) break;
+
+            long base = distance[u] + potential[u];
+            arcs += start[u + 1] - start[u];
+            for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                if (residual[a] == 0) continue;
+                int v = head[a];
+                long d = base + arcCost[a] - potential[v];
+                if (stamp[v] != epoch) {
+                    stamp[v] = epoch;
+                    distance[v] = d;
+                    parentArc[v] = a;
+                    heapIndex[v] = size;
+                    workspace.heap[size++] = v;
+                    siftUp(workspace, v);
+                } else if (heapIndex[v] != SETTLED && d < distance[v]) {
+                    distance[v] = d;
+                    parentArc[v] = a;
+                    siftUp(workspace, v);
+                }
+            }
+        }
+        workspace.vertexVisits += count;
+        workspace.arcVisits += arcs;
+
+        boolean found = stamp[sink] == epoch && heapIndex[sink] == SETTLED;
+        if (found) {
+            long sinkDistance = distance[sink];
+            for (int i = 0; i < count; i++) {
+                int v = settled[i];
+                potential[v] += distance[v] - sinkDistance;
+            }
+        }
+        return found;
+    }
+
+    // Remove heap[0] and return the new size
+    private static int removeFirst(FlowWorkspace workspace, int size) {
+        int last = workspace.heap[--size];
+        if (size > 0) {
+            workspace.heap[0] = last;
+            workspace.heapIndex[last] = 0;
+            siftDown(workspace, last, size);
+        }
+        return size;
+    }
+
+    private static void siftUp(FlowWorkspace workspace, int v) {
+        int[] heap = workspace.heap;
+        int[] heapIndex = workspace.heapIndex;
+        long key = workspace.distance[v];
+        int i = heapIndex[v];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (workspace.distance[p] <= key) break;
+            heap[i] = p;
+            heapIndex[p] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        heapIndex[v] = i;
+    }
+
+    private static void siftDown(FlowWorkspace workspace, int v, int size) {
+        int[] heap = workspace.heap;
+        int[] heapIndex = workspace.heapIndex;
+        long[] distance = workspace.distance;
+        long key = distance[v];
+        int i = heapIndex[v];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && distance[heap[child + 1]] < distance[heap[child]]) child++;
+            int c = heap[child];
+            if (distance[c] >= key) break;
+            heap[i] = c;
+            heapIndex[c] = i;
+            i = child;
+        }
+        heap[i] = v;
+        heapIndex[v] = i;
+    }
+
+    // Initial potentials for negative costs: Bellman-Ford distances from the source over edges with
+    // capacity, queue-based. Unreachable vertices get 0; they stay unreachable for the whole solve.
+    private static void shortestDistances(FlowNetwork network, FlowWorkspace workspace, int source) {
+        int n = network.n;
+        int[] start = network.start;
+        int[] head = network.head;
+        int[] residual = workspace.residual;
+        long[] arcCost = workspace.arcCost;
+        long[] distance = workspace.distance;
+        int[] arcsOnPath = workspace.label; // arcs of the current shortest path, n or more means a cycle
+        int[] queued = workspace.heapIndex; // 1 while in the queue
+        int[] stamp = workspace.stamp;
+        int[] queue = workspace.queue;
+        int mask = workspace.queueMask;
+        int epoch = workspace.nextEpoch();
+
+        int qHead = 0, qTail = 0;
+        queue[qTail++ & mask] = source;
+        stamp[source] = epoch;
+        distance[source] = 0;
+        arcsOnPath[source] = 0;
+        queued[source] = 1;
+        while (qHead != qTail) {
+            int u = queue[qHead++ & mask];
+            queued[u] = 0;
+            for (int a = start[u], end = start[u + 1]; a < end; a++) {
+                if (residual[a] == 0) continue;
+                int v = head[a];
+                long d = distance[u] + arcCost[a];
+                boolean reached = stamp[v] == epoch;
+                if (!reached || d < distance[v]) {
+                    stamp[v] = epoch;
+                    distance[v] = d;
+                    arcsOnPath[v] = arcsOnPath[u] + 1;
+                    if (arcsOnPath[v] >= n) {
+                        throw new IllegalArgumentException("Negative-cost cycle through vertex " + v);
+                    }
+                    if (!reached || queued[v] == 0) {
+                        queued[v] = 1;
+                        queue[qTail++ & mask] = v;
+                    }
+                }
+            }
+        }
+
+        long[] potential = workspace.potential;
+        for (int v = 0; v < n; v++) {
+            potential[v] = stamp[v] == epoch ? distance[v] : 0;
+        }
+    }
+}